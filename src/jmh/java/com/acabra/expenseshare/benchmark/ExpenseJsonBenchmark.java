@@ -0,0 +1,71 @@
+package com.acabra.expenseshare.benchmark;
+
+import com.acabra.expenseshare.model.Expense;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson (de)serialization of an Expense whose owedBy map has 1 to 10,000 participants, with an ObjectMapper
+ * configured the way Spring Boot configures the application's (Jackson2ObjectMapperBuilder defaults).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseJsonBenchmark {
+
+    @Param({"1", "100", "10000"})
+    private int participants;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private Expense expense;
+    private byte[] json;
+
+    @Setup
+    public void createExpense() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(Expense.class);
+        reader = objectMapper.readerFor(Expense.class);
+        Map<String, Long> owedBy = new LinkedHashMap<>();
+        for (int i = 0; i < participants; i++) {
+            owedBy.put("user-" + i, 1234L + i);
+        }
+        long amount = owedBy.values().stream().mapToLong(Long::longValue).sum();
+        expense = new Expense("group-1", "Dinner", "USD", amount, "user-0", owedBy);
+        expense.setId("expense-1");
+        expense.setDate(LocalDateTime.of(2024, 3, 1, 20, 0));
+        json = writer.writeValueAsBytes(expense);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(expense);
+    }
+
+    @Benchmark
+    public Expense deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,101 @@
+package com.acabra.expenseshare.benchmark;
+
+import com.acabra.expenseshare.ExpenseShareApplication;
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.Group;
+import com.acabra.expenseshare.model.GroupShareTotal;
+import com.acabra.expenseshare.service.ExpenseService;
+import com.acabra.expenseshare.service.GroupService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExpenseService reads against the bundled in-memory H2 database, through the full Spring context
+ * (repositories, Liquibase schema, read-through caches). The application starts without a web server and
+ * with the outbox relay off; groupExpensesCache=0 disables the group expense list cache so the unpaged
+ * listing reaches the database on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseServiceBenchmark {
+
+    @Param({"100", "5000"})
+    private int expenses;
+
+    @Param({"0", "1000"})
+    private int groupExpensesCache;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseService expenseService;
+    private String groupId;
+    private String expenseId;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(ExpenseShareApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jmx.enabled=false",
+                "--outbox.relay.enabled=false",
+                "--cache.group-expenses.max-entries=" + groupExpensesCache,
+                "--logging.level.root=ERROR");
+        expenseService = context.getBean(ExpenseService.class);
+        Group group = context.getBean(GroupService.class)
+                .createGroup(new Group("benchmark", List.of("alice", "bob", "carol"), "alice"));
+        groupId = group.getId();
+        List<Expense> batch = new ArrayList<>(expenses);
+        for (int i = 0; i < expenses; i++) {
+            batch.add(new Expense(groupId, "expense " + i, "USD", 3000, "alice",
+                    Map.of("bob", 1500L, "carol", 1500L)));
+        }
+        expenseId = expenseService.createExpenses(batch).get(expenses / 2).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Expense> findExpenseById() {
+        return expenseService.findExpenseById(expenseId);
+    }
+
+    @Benchmark
+    public List<Expense> findExpensesByGroupId() {
+        return expenseService.findExpensesByGroupId(groupId);
+    }
+
+    @Benchmark
+    public List<Expense> findFirstExpensesPage() {
+        return expenseService.findExpensesPage(groupId, null, 50);
+    }
+
+    @Benchmark
+    public List<GroupShareTotal> findShareTotalsByUserId() {
+        return expenseService.findShareTotalsByUserId("bob");
+    }
+}
@@ -0,0 +1,80 @@
+package com.acabra.expenseshare.benchmark;
+
+import com.acabra.expenseshare.filter.JwtRequestFilter;
+import com.acabra.expenseshare.model.UserAccess;
+import com.acabra.expenseshare.repository.UserAccessRepository;
+import com.acabra.expenseshare.service.security.CachingUserDetailsService;
+import com.acabra.expenseshare.service.security.TokenRevocationService;
+import com.acabra.expenseshare.service.security.UserDetailsServiceImpl;
+import com.acabra.expenseshare.util.security.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through JwtRequestFilter: token parsing, the revocation check, loading the user
+ * (from the claims, or through CachingUserDetailsService and UserDetailsServiceImpl over a stub repository) and setting the
+ * SecurityContext. With userCacheEntries=0 every request reaches the repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+    @Param({"true", "false"})
+    private boolean trustClaims;
+
+    @Param({"0", "10000"})
+    private int userCacheEntries;
+
+    private JwtRequestFilter filter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void createFilter() {
+        UserAccess admin = new UserAccess("admin", "x", "ADMIN,USER");
+        // Only findByUsername is called; a plain proxy keeps mocking overhead out of the measurement
+        UserAccessRepository repository = (UserAccessRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{UserAccessRepository.class}, (proxy, method, args) -> Optional.of(admin));
+        UserDetailsServiceImpl users = new UserDetailsServiceImpl(repository);
+        TokenRevocationService tokenRevocationService = new TokenRevocationService();
+        ReflectionTestUtils.setField(tokenRevocationService, "expiration", TimeUnit.HOURS.toMillis(1));
+        JwtUtil jwtUtil = JwtBenchmark.jwtUtil(10_000);
+        filter = new JwtRequestFilter(new CachingUserDetailsService(users, userCacheEntries, Duration.ofMinutes(5)),
+                jwtUtil, tokenRevocationService, trustClaims, true);
+        request = new MockHttpServletRequest("GET", "/api/groups");
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken(users.loadUserByUsername("admin")));
+    }
+
+    @Benchmark
+    public Authentication authenticateRequest() throws Exception {
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.acabra.expenseshare.benchmark;
+
+import com.acabra.expenseshare.model.SplitRequest;
+import com.acabra.expenseshare.model.SplitStrategy;
+import com.acabra.expenseshare.service.split.SplitService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Split calculators for groups of 2 to 10,000 members: the primitive path used per expense,
+ * and the bulk path used to evaluate an import's splits in one call.
+ * The bulk batch holds about 100,000 participants whatever the group size, so scores compare across sizes.
+ * Run with: mvn -P benchmarks verify -Djmh.args="SplitBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SplitBenchmark {
+
+    private static final int BULK_PARTICIPANTS = 100_000;
+
+    @Param({"2", "10", "100", "1000", "10000"})
+    private int members;
+
+    @Param({"EQUAL", "PERCENTAGE", "SHARES"})
+    private SplitStrategy strategy;
+
+    private final SplitService splitService = new SplitService();
+    private long[] weights;
+    private List<SplitRequest> requests;
+
+    @Setup
+    public void createWeights() {
+        Random random = new Random(members);
+        weights = new long[members];
+        for (int i = 0; i < members; i++) {
+            weights[i] = switch (strategy) {
+                case PERCENTAGE -> 10_000 / members + (i < 10_000 % members ? 1 : 0); // Basis points adding up to 100%
+                case SHARES -> 1 + random.nextInt(4);
+                default -> 0;
+            };
+        }
+        requests = new ArrayList<>();
+        for (int r = 0; r < Math.max(1, BULK_PARTICIPANTS / members); r++) {
+            Map<String, BigDecimal> participants = new LinkedHashMap<>();
+            for (int i = 0; i < members; i++) {
+                participants.put("user-" + i, BigDecimal.valueOf(weights[i], strategy == SplitStrategy.PERCENTAGE ? 2 : 0));
+            }
+            requests.add(new SplitRequest("USD", BigDecimal.valueOf(random.nextInt(10_000_000), 2), strategy, participants));
+        }
+    }
+
+    @Benchmark
+    public long[] splitOneExpense() {
+        return splitService.split(strategy, 123_456_789L, weights);
+    }
+
+    @Benchmark
+    public List<Map<String, BigDecimal>> splitImportBatch() {
+        return splitService.splitAll(requests);
+    }
+}
@@ -0,0 +1,44 @@
+package com.acabra.expenseshare.benchmark;
+
+import com.acabra.expenseshare.model.UserAccess;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserAccess.getRolesAsSet, which parses the comma-separated roles column on every user load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserAccessBenchmark {
+
+    @Param({"USER", "ADMIN,USER", "admin, user, auditor, support, billing, owner, viewer, editor"})
+    private String roles;
+
+    private UserAccess userAccess;
+
+    @Setup
+    public void createUser() {
+        userAccess = new UserAccess("admin", "x", roles);
+    }
+
+    @Benchmark
+    public Set<String> getRolesAsSet() {
+        return userAccess.getRolesAsSet();
+    }
+}
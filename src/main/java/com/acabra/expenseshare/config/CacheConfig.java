@@ -0,0 +1,58 @@
+package com.acabra.expenseshare.config;
+
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.Group;
+import com.acabra.expenseshare.service.cache.InMemoryReadThroughCache;
+import com.acabra.expenseshare.service.cache.ReadThroughCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read-through caches for group metadata and per-group expense lists.
+ * Both are in-process; to move them to a distributed cache, replace these beans with another ReadThroughCache
+ * implementation. Weights are rough estimates of the retained heap size, good enough to bound memory.
+ */
+@Configuration
+public class CacheConfig {
+
+    private static final long OBJECT_OVERHEAD = 16;
+
+    @Bean
+    ReadThroughCache<String, Group> groupCache(@Value("${cache.groups.max-entries:10000}") int maxEntries,
+                                               @Value("${cache.groups.max-weight:16MB}") DataSize maxWeight,
+                                               @Value("${cache.groups.ttl:10m}") Duration ttl) {
+        return new InMemoryReadThroughCache<>(maxEntries, maxWeight.toBytes(), ttl, CacheConfig::weigh);
+    }
+
+    @Bean
+    ReadThroughCache<String, List<Expense>> groupExpensesCache(
+            @Value("${cache.group-expenses.max-entries:1000}") int maxEntries,
+            @Value("${cache.group-expenses.max-weight:64MB}") DataSize maxWeight,
+            @Value("${cache.group-expenses.ttl:5m}") Duration ttl) {
+        return new InMemoryReadThroughCache<>(maxEntries, maxWeight.toBytes(), ttl,
+                expenses -> 64 + expenses.stream().mapToLong(CacheConfig::weigh).sum());
+    }
+
+    static long weigh(Group group) {
+        // The object and its LocalDateTime, the strings, and a GroupMember plus list slot per member
+        return 3 * OBJECT_OVERHEAD + 48 + weigh(group.getId()) + weigh(group.getName()) + weigh(group.getCreatedBy())
+                + group.getMembers().stream().mapToLong(member -> 2 * OBJECT_OVERHEAD + 8 + weigh(member)).sum();
+    }
+
+    static long weigh(Expense expense) {
+        // The object, its Long and LocalDateTime, the strings, and a map entry plus ExpenseShare per share
+        // (the currency code is a shared constant)
+        return 4 * OBJECT_OVERHEAD + 72 + weigh(expense.getId()) + weigh(expense.getGroupId())
+                + weigh(expense.getDescription()) + weigh(expense.getPaidBy())
+                + expense.getShares().keySet().stream().mapToLong(userId -> 3 * OBJECT_OVERHEAD + 40 + weigh(userId)).sum();
+    }
+
+    private static long weigh(String value) {
+        return value == null ? 0 : 2 * OBJECT_OVERHEAD + 8 + value.length(); // Compact (Latin-1) strings
+    }
+}
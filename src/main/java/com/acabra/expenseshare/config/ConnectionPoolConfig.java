@@ -0,0 +1,60 @@
+package com.acabra.expenseshare.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Connection pool sizing for the two request-handling modes.
+ * With platform threads, Tomcat's bounded thread pool (server.tomcat.threads.max) caps how many requests can wait
+ * on JDBC at once. With virtual threads (spring.threads.virtual.enabled=true) that cap is gone, so the connection
+ * pool becomes the only limit on concurrent database work: it is sized from the CPU count, which is what the
+ * database can actually run in parallel, and callers that cannot get a connection fail fast instead of queueing
+ * for Hikari's default 30 seconds. Explicit spring.datasource.hikari.* settings always take precedence.
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolConfig.class);
+
+    /**
+     * Resizes the Hikari pool when virtual threads are enabled.
+     * Static, so the post-processor is registered without initializing this configuration class early.
+     * @param environment The application environment.
+     * @return The post-processor that adjusts the HikariDataSource before its pool starts.
+     */
+    @Bean
+    static BeanPostProcessor virtualThreadConnectionPoolSizer(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+                    sizeForVirtualThreads(dataSource, environment);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static void sizeForVirtualThreads(HikariDataSource dataSource, Environment environment) {
+        if (!environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+            int connectionsPerCore = environment.getProperty("datasource.pool.connections-per-core", Integer.class, 2);
+            int size = Math.max(2, Runtime.getRuntime().availableProcessors() * connectionsPerCore);
+            dataSource.setMaximumPoolSize(size);
+        }
+        if (!environment.containsProperty("spring.datasource.hikari.connection-timeout")) {
+            Duration timeout = environment.getProperty("datasource.pool.virtual-thread-connection-timeout",
+                    Duration.class, Duration.ofSeconds(2));
+            dataSource.setConnectionTimeout(timeout.toMillis());
+        }
+        logger.info("Virtual threads enabled: connection pool sized to {} connections, {} ms connection timeout",
+                dataSource.getMaximumPoolSize(), dataSource.getConnectionTimeout());
+    }
+}
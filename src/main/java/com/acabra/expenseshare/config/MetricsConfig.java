@@ -0,0 +1,96 @@
+package com.acabra.expenseshare.config;
+
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.Group;
+import com.acabra.expenseshare.service.cache.ReadThroughCache;
+import com.acabra.expenseshare.service.export.ExportSpillCache;
+import com.acabra.expenseshare.service.security.CachingUserDetailsService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Publishes the counters of the in-process caches with the names Micrometer uses for Caffeine and JCache caches,
+ * so standard dashboards work: cache.gets (result=hit|miss), cache.evictions and cache.size, tagged with the same
+ * cache names as GET /api/admin/caches, plus cache.hit.ratio. The values are read from each cache's getStats at
+ * scrape time, so recording adds nothing to the request path; one snapshot serves all meters of a scrape.
+ * The verified JWT cache publishes the same meters from JwtUtil itself, under cache=jwtVerifiedTokens.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final long SNAPSHOT_MILLIS = 1000;
+
+    @Bean
+    MeterBinder cacheMetrics(CachingUserDetailsService cachingUserDetailsService, ExportSpillCache exportSpillCache,
+                             ReadThroughCache<String, Group> groupCache,
+                             ReadThroughCache<String, List<Expense>> groupExpensesCache) {
+        return registry -> {
+            bindCache(registry, "userDetails", cachingUserDetailsService, cachingUserDetailsService::getStats);
+            bindCache(registry, "groupExports", exportSpillCache, exportSpillCache::getStats);
+            bindCache(registry, "groups", groupCache, groupCache::getStats);
+            bindCache(registry, "groupExpenses", groupExpensesCache, groupExpensesCache::getStats);
+        };
+    }
+
+    /**
+     * Registers the meters of one cache. Meters hold their object weakly, so they are bound to the cache bean itself
+     * and read the snapshot through it.
+     */
+    private static void bindCache(MeterRegistry registry, String cache, Object owner, Supplier<Map<String, Object>> stats) {
+        StatsSnapshot snapshot = new StatsSnapshot(stats);
+        FunctionCounter.builder("cache.gets", owner, o -> snapshot.get("hits"))
+                .tag("cache", cache).tag("result", "hit")
+                .description("The number of times cache lookup methods have returned a cached value")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", owner, o -> snapshot.get("misses"))
+                .tag("cache", cache).tag("result", "miss")
+                .description("The number of times cache lookup methods have loaded a value")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", owner, o -> snapshot.get("evictions"))
+                .tag("cache", cache)
+                .description("The number of entries evicted to stay within the cache bounds")
+                .register(registry);
+        Gauge.builder("cache.size", owner, o -> snapshot.get("size"))
+                .tag("cache", cache)
+                .description("The number of entries in the cache")
+                .register(registry);
+        Gauge.builder("cache.hit.ratio", owner, o -> snapshot.get("hitRatio"))
+                .tag("cache", cache)
+                .description("Hits divided by lookups since startup")
+                .register(registry);
+    }
+
+    /**
+     * The last getStats result of a cache, refreshed at most once per SNAPSHOT_MILLIS so the five meters of a cache
+     * read it once per scrape.
+     */
+    private static final class StatsSnapshot {
+
+        private final Supplier<Map<String, Object>> stats;
+        private volatile Map<String, Object> values;
+        private volatile long takenAt;
+
+        private StatsSnapshot(Supplier<Map<String, Object>> stats) {
+            this.stats = stats;
+        }
+
+        double get(String key) {
+            long now = System.currentTimeMillis();
+            Map<String, Object> current = values;
+            if (current == null || now - takenAt >= SNAPSHOT_MILLIS) {
+                current = stats.get();
+                values = current;
+                takenAt = now;
+            }
+            return current.get(key) instanceof Number number ? number.doubleValue() : Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.acabra.expenseshare.config;
+
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Broker-side setup for the outbox relay.
+ * Declares the durable topic exchange expense and group events are published to (RabbitAdmin creates it on first
+ * connection), and enables the scheduling that drives OutboxRelay. Consumers bind their own queues with routing
+ * patterns such as expense.* or group.deleted.
+ */
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    @Bean
+    TopicExchange outboxExchange(@Value("${outbox.exchange:expenseshare.events}") String exchange) {
+        return new TopicExchange(exchange, true, false);
+    }
+}
@@ -2,6 +2,8 @@ package com.acabra.expenseshare.config;
 
 import com.acabra.expenseshare.filter.JwtRequestFilter; // Import your JWT filter
 import com.acabra.expenseshare.service.security.UserDetailsServiceImpl;
+import com.acabra.expenseshare.util.security.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -53,8 +55,15 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authorize -> authorize
                         // Allow public access to the authentication endpoint
                         .requestMatchers("/api/auth/login", "/api/auth/register").permitAll() // Assuming you'll add register later
+                        // Refresh is authenticated by the refresh token in the body, not by an access token
+                        .requestMatchers("/api/auth/refresh").permitAll()
                         // Allow OPTIONS requests for all /api/** paths (CORS preflight)
                         .requestMatchers(HttpMethod.OPTIONS, "/api/**").permitAll() // ADDED THIS LINE
+                        // Operational endpoints (cache statistics, etc.) are restricted to administrators
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        // Health checks are public; metrics reveal traffic and user activity, so scrapes need an admin token
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // Allow access to H2 console
                         .requestMatchers("/h2-console/**").permitAll()
                         // All other API requests must be authenticated
@@ -85,12 +94,14 @@ public class SecurityConfig {
     /**
      * Provides a BCryptPasswordEncoder bean for encoding passwords.
      * This is the recommended way to securely store passwords.
+     * Every hash is timed as expenseshare.password.
      *
-     * @return A BCryptPasswordEncoder instance.
+     * @param meterRegistry The registry the hashing timers are published to.
+     * @return A timed BCryptPasswordEncoder instance.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
     /**
@@ -111,13 +122,14 @@ public class SecurityConfig {
      * and PasswordEncoder.
      * (This is implicitly used by AuthenticationManager)
      *
+     * @param passwordEncoder The PasswordEncoder bean.
      * @return A DaoAuthenticationProvider instance.
      */
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 }
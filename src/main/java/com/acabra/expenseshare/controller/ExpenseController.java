@@ -2,12 +2,40 @@
 package com.acabra.expenseshare.controller;
 
 import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.ExpenseCursor;
+import com.acabra.expenseshare.model.GroupShareTotal;
+import com.acabra.expenseshare.model.SplitRequest;
+import com.acabra.expenseshare.service.ExpenseImportService;
 import com.acabra.expenseshare.service.ExpenseService;
+import com.acabra.expenseshare.service.GroupService;
+import com.acabra.expenseshare.service.split.SplitService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -19,32 +47,163 @@ import java.util.Optional;
 @CrossOrigin(origins = "http://localhost:3000") // Allow requests from your React frontend
 public class ExpenseController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final ExpenseService expenseService;
+    private final ExpenseImportService expenseImportService;
+    private final GroupService groupService;
+    private final SplitService splitService;
+    private final ObjectReader expenseReader;
+    private final ObjectWriter expenseWriter;
+    private final int maxBatchSize;
 
-    @Autowired // Injects ExpenseService
-    public ExpenseController(ExpenseService expenseService) {
+    @Autowired // Injects the expense, import, group and split services, Jackson's ObjectMapper and the batch size limit
+    public ExpenseController(ExpenseService expenseService, ExpenseImportService expenseImportService,
+                             GroupService groupService, SplitService splitService, ObjectMapper objectMapper,
+                             @Value("${expenses.batch.max-size:10000}") int maxBatchSize) {
         this.expenseService = expenseService;
+        this.expenseImportService = expenseImportService;
+        this.groupService = groupService;
+        this.splitService = splitService;
+        this.maxBatchSize = maxBatchSize;
+        this.expenseReader = objectMapper.readerFor(Expense.class);
+        // The response stream is written to repeatedly, so Jackson must not close it after each expense
+        this.expenseWriter = objectMapper.writerFor(Expense.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     /**
      * Creates a new expense.
      * @param expense The Expense object to create.
-     * @return ResponseEntity with the created Expense and HTTP status 201 (Created).
+     * @return ResponseEntity with the created Expense and HTTP status 201 (Created),
+     *         or HTTP 400 if its currency is not the group's currency.
      */
     @PostMapping
-    public ResponseEntity<Expense> createExpense(@RequestBody Expense expense) {
-        Expense createdExpense = expenseService.createExpense(expense);
-        return ResponseEntity.status(201).body(createdExpense);
+    public ResponseEntity<?> createExpense(@RequestBody Expense expense) {
+        try {
+            Expense createdExpense = expenseService.createExpense(expense);
+            return ResponseEntity.status(201).body(createdExpense);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Creates many expenses in one request, e.g. when loading a bank export.
+     * The body is a JSON array of expenses, read one expense at a time so an oversized batch is rejected as soon as
+     * it goes past the limit instead of after the whole array was bound. The whole batch is validated first and
+     * nothing is written unless every expense is valid; valid batches are inserted with JDBC batch statements in a
+     * single transaction.
+     * @param body The raw request body.
+     * @return ResponseEntity with the number of created expenses and their IDs (HTTP 201),
+     *         or HTTP 400 with the list of validation errors, for a malformed or oversized body, or if the database
+     *         rejects the batch (e.g. an ID taken or a group deleted since the validation).
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> createExpenses(InputStream body) throws IOException {
+        List<Expense> expenses = new ArrayList<>();
+        try (JsonParser parser = expenseReader.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return ResponseEntity.badRequest().body(Map.of("message", "A batch must be a JSON array of expenses"));
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (expenses.size() == maxBatchSize) {
+                    return ResponseEntity.badRequest().body(Map.of("message",
+                            "A batch may contain at most " + maxBatchSize + " expenses"));
+                }
+                expenses.add(parser.currentToken() == JsonToken.VALUE_NULL ? null : expenseReader.readValue(parser));
+            }
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "Malformed expense batch: " + e.getOriginalMessage()));
+        }
+        List<String> errors = expenseService.validateExpenses(expenses);
+        if (!errors.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid expense batch", "errors", errors));
+        }
+        try {
+            expenseService.insertBatch(expenses); // Already validated: createExpenses would check the batch again
+        } catch (DataIntegrityViolationException e) {
+            // Validation runs in its own transaction, so a concurrent write can still make the batch invalid
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "The expense batch conflicts with the stored data; nothing was created"));
+        }
+        return ResponseEntity.status(201).body(Map.of(
+                "created", expenses.size(),
+                "ids", expenses.stream().map(Expense::getId).toList()));
+    }
+
+    /**
+     * Computes owedBy maps on the server: divides each amount among its participants equally, by percentage,
+     * by shares or by exact amounts, always to the cent. Nothing is stored; clients send the maps back as the
+     * owedBy of new expenses, and importers can evaluate a whole file's splits in one call.
+     * @param requests The amounts, strategies and participant weights, at most the batch size limit.
+     * @return ResponseEntity with the owedBy maps, index-aligned with requests (HTTP 200),
+     *         or HTTP 400 naming the first invalid request.
+     */
+    @PostMapping("/splits")
+    public ResponseEntity<?> computeSplits(@RequestBody List<SplitRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "A batch may contain at most " + maxBatchSize + " splits"));
+        }
+        try {
+            return ResponseEntity.ok(splitService.splitAll(requests));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Imports expenses from a CSV upload of any size, reading the request body as it arrives.
+     * See ExpenseImportService.Format for the expected columns.
+     * @param body The raw request body.
+     * @return ResponseEntity with the ImportReport (HTTP 200), or HTTP 400 if the CSV header is unusable.
+     * @throws IOException if the upload cannot be read.
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<?> importCsv(InputStream body) throws IOException {
+        return importExpenses(body, ExpenseImportService.Format.CSV);
+    }
+
+    /**
+     * Imports expenses from a newline-delimited JSON upload of any size, one Expense per line.
+     * @param body The raw request body.
+     * @return ResponseEntity with the ImportReport (HTTP 200).
+     * @throws IOException if the upload cannot be read.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> importNdjson(InputStream body) throws IOException {
+        return importExpenses(body, ExpenseImportService.Format.NDJSON);
     }
 
     /**
      * Retrieves all expenses.
-     * @return ResponseEntity with a list of all Expenses and HTTP status 200 (OK).
+     * When a cursor or a limit is given, only one page ordered by (date, id) is returned and the cursor
+     * of the next page, if any, is sent in the X-Next-Cursor header.
+     * @param cursor The X-Next-Cursor value of the previous page (optional).
+     * @param limit The maximum page size (optional, capped at 1000).
+     * @return ResponseEntity with a list of Expenses and HTTP status 200 (OK), or HTTP 400 for an invalid cursor.
      */
     @GetMapping
-    public ResponseEntity<List<Expense>> getAllExpenses() {
-        List<Expense> expenses = expenseService.findAllExpenses();
-        return ResponseEntity.ok(expenses);
+    public ResponseEntity<List<Expense>> getAllExpenses(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limit) {
+        if (cursor == null && limit == null) {
+            return ResponseEntity.ok(expenseService.findAllExpenses());
+        }
+        return page(null, cursor, limit, null);
+    }
+
+    /**
+     * Streams all expenses as newline-delimited JSON, one expense per line, in (date, id) order.
+     * Rows are written as they are read from the database, so memory use does not depend on the number of expenses.
+     * @return The streaming response body.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllExpenses() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(ndjson(null));
     }
 
     /**
@@ -61,25 +220,98 @@ public class ExpenseController {
 
     /**
      * Retrieves expenses for a specific group.
+     * Supports the same cursor/limit pagination as getAllExpenses. Responses carry an ETag derived from the
+     * group's change counter; a request whose If-None-Match matches is answered with 304 (Not Modified) without
+     * loading any expense.
      * @param groupId The ID of the group.
-     * @return ResponseEntity with a list of Expenses for the given group.
+     * @param cursor The X-Next-Cursor value of the previous page (optional).
+     * @param limit The maximum page size (optional, capped at 1000).
+     * @param request The current request, for the conditional headers.
+     * @return ResponseEntity with a list of Expenses for the given group, HTTP 304 (Not Modified),
+     *         or HTTP 400 for an invalid cursor.
      */
     @GetMapping("/group/{groupId}")
-    public ResponseEntity<List<Expense>> getExpensesByGroupId(@PathVariable String groupId) {
-        List<Expense> expenses = expenseService.findExpensesByGroupId(groupId);
-        return ResponseEntity.ok(expenses);
+    public ResponseEntity<List<Expense>> getExpensesByGroupId(@PathVariable String groupId,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit,
+                                                              WebRequest request) {
+        // Read before the expenses: a change in between can only make the ETag stale, never the data
+        String etag = groupService.findGroupContentVersion(groupId).map(GroupETags::forVersion).orElse(null);
+        if (etag != null && request.checkNotModified(etag)) {
+            return null; // checkNotModified answered 304; no expense was loaded
+        }
+        if (cursor == null && limit == null) {
+            return versioned(ResponseEntity.ok(), etag).body(expenseService.findExpensesByGroupId(groupId));
+        }
+        return page(groupId, cursor, limit, etag);
+    }
+
+    /**
+     * Streams the expenses of a group as newline-delimited JSON, one expense per line, in (date, id) order.
+     * @param groupId The ID of the group.
+     * @return The streaming response body.
+     */
+    @GetMapping(value = "/group/{groupId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamExpensesByGroupId(@PathVariable String groupId) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(ndjson(groupId));
+    }
+
+    /**
+     * Retrieves the total of a user's expense shares in each group, across all groups.
+     * @param userId The ID of the user.
+     * @return ResponseEntity with one total per group the user owes a share in.
+     */
+    @GetMapping("/owed/{userId}")
+    public ResponseEntity<List<GroupShareTotal>> getShareTotalsByUserId(@PathVariable String userId) {
+        return ResponseEntity.ok(expenseService.findShareTotalsByUserId(userId));
     }
 
     /**
      * Updates an existing expense.
      * @param id The ID of the expense to update.
-     * @param expense The updated Expense object.
-     * @return ResponseEntity with the updated Expense if found (HTTP 200), or HTTP 404 (Not Found).
+     * @param expense The updated Expense object; include the version it was read with to detect lost updates.
+     * @return ResponseEntity with the updated Expense if found (HTTP 200), HTTP 404 (Not Found), HTTP 400 if the
+     *         currency changed, or HTTP 409 (Conflict) if the expense was changed by someone else meanwhile.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Expense> updateExpense(@PathVariable String id, @RequestBody Expense expense) {
-        Expense updatedExpense = expenseService.updateExpense(id, expense);
-        return updatedExpense != null ? ResponseEntity.ok(updatedExpense) : ResponseEntity.notFound().build();
+    public ResponseEntity<?> updateExpense(@PathVariable String id, @RequestBody Expense expense) {
+        try {
+            Expense updatedExpense = expenseService.updateExpense(id, expense);
+            return updatedExpense != null ? ResponseEntity.ok(updatedExpense) : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Adjusts one member's share of an expense, without resending the whole expense. The expense amount changes
+     * by the same delta.
+     * @param id The ID of the expense.
+     * @param userId The ID of the member whose share changes.
+     * @param patch A JSON object with the new "amount" and, optionally, the "version" the expense was read with.
+     * @return ResponseEntity with the updated Expense (HTTP 200), HTTP 400 if the amount is missing or invalid for
+     *         the currency or the member has no share, HTTP 404 (Not Found), or HTTP 409 (Conflict) if the version
+     *         is outdated.
+     */
+    @PatchMapping("/{id}/shares/{userId}")
+    public ResponseEntity<?> adjustShare(@PathVariable String id, @PathVariable String userId,
+                                         @RequestBody Map<String, Object> patch) {
+        if (!(patch.get("amount") instanceof Number amount)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "amount is required"));
+        }
+        Long version = patch.get("version") instanceof Number number ? number.longValue() : null;
+        try {
+            // Through the decimal string, so a JSON 0.1 becomes exactly 0.10 rather than the nearest double
+            return expenseService.adjustShare(id, userId, new BigDecimal(amount.toString()), version)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
     }
 
     /**
@@ -92,5 +324,52 @@ public class ExpenseController {
         boolean deleted = expenseService.deleteExpense(id);
         return deleted ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
     }
+
+    private ResponseEntity<?> importExpenses(InputStream body, ExpenseImportService.Format format) throws IOException {
+        try {
+            return ResponseEntity.ok(expenseImportService.importExpenses(body, format));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<List<Expense>> page(String groupId, String cursor, Integer limit, String etag) {
+        ExpenseCursor after;
+        try {
+            after = cursor == null ? null : ExpenseCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Expense> expenses = expenseService.findExpensesPage(groupId, after, pageSize);
+        ResponseEntity.BodyBuilder response = versioned(ResponseEntity.ok(), etag);
+        if (expenses.size() == pageSize) {
+            // A full page may have a successor; the client stops when this header is absent
+            response.header(NEXT_CURSOR_HEADER, ExpenseCursor.after(expenses.get(expenses.size() - 1)).encode());
+        }
+        return response.body(expenses);
+    }
+
+    private static ResponseEntity.BodyBuilder versioned(ResponseEntity.BodyBuilder response, String etag) {
+        return etag == null ? response : response.eTag(etag).cacheControl(GroupETags.CACHE_CONTROL);
+    }
+
+    private StreamingResponseBody ndjson(String groupId) {
+        return outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            try {
+                expenseService.forEachExpense(groupId, expense -> {
+                    try {
+                        expenseWriter.writeValue(out, expense);
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e); // Client went away: abort and release the cursor
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+    }
 }
-    
\ No newline at end of file
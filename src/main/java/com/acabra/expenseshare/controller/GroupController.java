@@ -2,12 +2,28 @@
 package com.acabra.expenseshare.controller;
 
 import com.acabra.expenseshare.model.Group;
+import com.acabra.expenseshare.model.GroupBalance;
+import com.acabra.expenseshare.model.Settlement;
+import com.acabra.expenseshare.service.BalanceService;
 import com.acabra.expenseshare.service.GroupService;
+import com.acabra.expenseshare.service.export.ExportFormat;
+import com.acabra.expenseshare.service.export.GroupExportService;
+import com.acabra.expenseshare.service.settlement.SettlementService;
+import com.acabra.expenseshare.service.stream.GroupEventStreams;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -20,10 +36,20 @@ import java.util.Optional;
 public class GroupController {
 
     private final GroupService groupService;
+    private final BalanceService balanceService;
+    private final SettlementService settlementService;
+    private final GroupExportService groupExportService;
+    private final GroupEventStreams groupEventStreams;
 
-    @Autowired // Injects GroupService
-    public GroupController(GroupService groupService) {
+    @Autowired // Injects GroupService, BalanceService, SettlementService, GroupExportService and GroupEventStreams
+    public GroupController(GroupService groupService, BalanceService balanceService,
+                           SettlementService settlementService, GroupExportService groupExportService,
+                           GroupEventStreams groupEventStreams) {
         this.groupService = groupService;
+        this.balanceService = balanceService;
+        this.settlementService = settlementService;
+        this.groupExportService = groupExportService;
+        this.groupEventStreams = groupEventStreams;
     }
 
     /**
@@ -38,37 +64,159 @@ public class GroupController {
     }
 
     /**
-     * Retrieves all groups.
-     * @return ResponseEntity with a list of all Groups and HTTP status 200 (OK).
+     * Retrieves all groups, or only the groups a user is a member of.
+     * @param member The ID of a member to filter by (optional).
+     * @return ResponseEntity with a list of Groups and HTTP status 200 (OK).
      */
     @GetMapping
-    public ResponseEntity<List<Group>> getAllGroups() {
-        List<Group> groups = groupService.findAllGroups();
+    public ResponseEntity<List<Group>> getAllGroups(@RequestParam(required = false) String member) {
+        List<Group> groups = member == null ? groupService.findAllGroups() : groupService.findGroupsByMember(member);
         return ResponseEntity.ok(groups);
     }
 
     /**
      * Retrieves a group by its ID.
+     * The response carries an ETag derived from the group's change counter; a request whose If-None-Match matches
+     * is answered with 304 (Not Modified) after reading only the counter.
      * @param id The ID of the group to retrieve.
-     * @return ResponseEntity with the Group if found (HTTP 200), or HTTP 404 (Not Found).
+     * @param request The current request, for the conditional headers.
+     * @return ResponseEntity with the Group if found (HTTP 200), HTTP 304 (Not Modified), or HTTP 404 (Not Found).
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Group> getGroupById(@PathVariable String id) {
+    public ResponseEntity<Group> getGroupById(@PathVariable String id, WebRequest request) {
+        Optional<Long> version = groupService.findGroupContentVersion(id);
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(GroupETags.forVersion(version.get()))) {
+            return null; // Spring has already set 304 and the ETag
+        }
         Optional<Group> group = groupService.findGroupById(id);
-        return group.map(ResponseEntity::ok)
+        return group.map(found -> ResponseEntity.ok()
+                        .eTag(GroupETags.forVersion(found.getContentVersion())) // The counter loaded with the group itself
+                        .cacheControl(GroupETags.CACHE_CONTROL)
+                        .body(found))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    /**
+     * Retrieves the net balance of every member of a group.
+     * Balances are read from the ledger maintained by ExpenseService, not computed from the group's expenses.
+     * @param id The ID of the group.
+     * @return ResponseEntity with the group's balances if found (HTTP 200), or HTTP 404 (Not Found).
+     */
+    @GetMapping("/{id}/balances")
+    public ResponseEntity<List<GroupBalance>> getGroupBalances(@PathVariable String id) {
+        if (!groupService.existsGroupById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(balanceService.findBalancesByGroupId(id));
+    }
+
+    /**
+     * Retrieves the minimal list of transfers ("who pays whom") that settles every member of a group.
+     * @param id The ID of the group.
+     * @return ResponseEntity with the group's settlement plan if found (HTTP 200), or HTTP 404 (Not Found).
+     */
+    @GetMapping("/{id}/settlements")
+    public ResponseEntity<List<Settlement>> getGroupSettlements(@PathVariable String id) {
+        if (!groupService.existsGroupById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(settlementService.findSettlementsByGroupId(id));
+    }
+
+    /**
+     * Exports every expense of a group as CSV or newline-delimited JSON, in (date, id) order.
+     * The export is streamed from the database as it is rendered; large exports are cached until the group changes.
+     * @param id The ID of the group.
+     * @param format "csv" or "ndjson" (default "csv").
+     * @return ResponseEntity with the streaming export (HTTP 200), HTTP 400 for an unknown format,
+     *         or HTTP 404 (Not Found).
+     */
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportGroupExpenses(@PathVariable String id,
+                                                                     @RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromExtension(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!groupService.existsGroupById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("group-" + id + "." + exportFormat.getExtension()).build().toString())
+                .body(outputStream -> groupExportService.export(id, exportFormat, outputStream));
+    }
+
+    /**
+     * Streams a group's expense changes as Server-Sent Events, instead of polling the group's expense list.
+     * Each event is named expense.created, expense.updated or expense.deleted and carries the expense as JSON.
+     * A client reconnecting with Last-Event-ID receives the events it missed, or a "reset" event when they are
+     * no longer available, after which it should reload the expenses.
+     * @param id The ID of the group.
+     * @param lastEventId The ID of the last event the client received (optional).
+     * @return ResponseEntity with the event stream (HTTP 200), or HTTP 404 (Not Found).
+     */
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamGroupEvents(@PathVariable String id,
+                                                        @RequestHeader(value = "Last-Event-ID", required = false)
+                                                        String lastEventId) {
+        if (!groupService.existsGroupById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .header("X-Accel-Buffering", "no") // Keep reverse proxies from buffering the stream
+                .body(groupEventStreams.subscribe(id, lastEventId));
+    }
+
     /**
      * Updates an existing group.
      * @param id The ID of the group to update.
-     * @param group The updated Group object.
-     * @return ResponseEntity with the updated Group if found (HTTP 200), or HTTP 404 (Not Found).
+     * @param group The updated Group object; include the version it was read with to detect lost updates.
+     * @return ResponseEntity with the updated Group if found (HTTP 200), HTTP 404 (Not Found),
+     *         or HTTP 409 (Conflict) if the group was changed by someone else meanwhile.
      */
     @PutMapping("/{id}")
-    public ResponseEntity<Group> updateGroup(@PathVariable String id, @RequestBody Group group) {
-        Group updatedGroup = groupService.updateGroup(id, group);
-        return updatedGroup != null ? ResponseEntity.ok(updatedGroup) : ResponseEntity.notFound().build();
+    public ResponseEntity<?> updateGroup(@PathVariable String id, @RequestBody Group group) {
+        try {
+            Group updatedGroup = groupService.updateGroup(id, group);
+            return updatedGroup != null ? ResponseEntity.ok(updatedGroup) : ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Adds or removes a single member, without resending the whole group.
+     * @param id The ID of the group.
+     * @param patch A JSON object with either "add" or "remove" set to a user ID and, optionally,
+     *              the "version" the group was read with.
+     * @return ResponseEntity with the updated Group (HTTP 200), HTTP 400 unless exactly one of add/remove is given,
+     *         HTTP 404 (Not Found), or HTTP 409 (Conflict) if the version is outdated.
+     */
+    @PatchMapping("/{id}/members")
+    public ResponseEntity<?> patchMembers(@PathVariable String id, @RequestBody Map<String, Object> patch) {
+        Object add = patch.get("add");
+        Object remove = patch.get("remove");
+        if ((add instanceof String) == (remove instanceof String)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Exactly one of add or remove is required"));
+        }
+        Long version = patch.get("version") instanceof Number number ? number.longValue() : null;
+        try {
+            Optional<Group> updatedGroup = add instanceof String userId
+                    ? groupService.addMember(id, userId, version)
+                    : groupService.removeMember(id, (String) remove, version);
+            return updatedGroup.<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
     }
 
     /**
@@ -0,0 +1,26 @@
+// src/main/java/com/acabra/expenseshare/controller/GroupETags.java
+package com.acabra.expenseshare.controller;
+
+import org.springframework.http.CacheControl;
+
+/**
+ * ETags for responses derived from a group's change counter (Group.getContentVersion).
+ * Responses carry "Cache-Control: private, no-cache", so clients keep them but revalidate on every use
+ * with If-None-Match, which the controllers answer with 304 from the counter alone.
+ */
+final class GroupETags {
+
+    static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private GroupETags() {
+    }
+
+    /**
+     * Builds the ETag for a group's change counter.
+     * @param version The group's change counter.
+     * @return The quoted strong entity tag.
+     */
+    static String forVersion(long version) {
+        return "\"v" + version + "\"";
+    }
+}
@@ -0,0 +1,55 @@
+// src/main/java/com/acabra/expenseshare/controller/admin/CacheStatsController.java
+package com.acabra.expenseshare.controller.admin;
+
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.Group;
+import com.acabra.expenseshare.service.cache.ReadThroughCache;
+import com.acabra.expenseshare.service.export.ExportSpillCache;
+import com.acabra.expenseshare.service.security.CachingUserDetailsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller exposing in-process cache statistics to administrators.
+ * Used to size caches against real traffic.
+ */
+@RestController // Marks this class as a REST controller
+@RequestMapping("/api/admin/caches") // Restricted to ROLE_ADMIN in SecurityConfig
+public class CacheStatsController {
+
+    private final CachingUserDetailsService cachingUserDetailsService;
+    private final ExportSpillCache exportSpillCache;
+    private final ReadThroughCache<String, Group> groupCache;
+    private final ReadThroughCache<String, List<Expense>> groupExpensesCache;
+
+    @Autowired // Injects the caches to report on
+    public CacheStatsController(CachingUserDetailsService cachingUserDetailsService, ExportSpillCache exportSpillCache,
+                                ReadThroughCache<String, Group> groupCache,
+                                ReadThroughCache<String, List<Expense>> groupExpensesCache) {
+        this.cachingUserDetailsService = cachingUserDetailsService;
+        this.exportSpillCache = exportSpillCache;
+        this.groupCache = groupCache;
+        this.groupExpensesCache = groupExpensesCache;
+    }
+
+    /**
+     * Retrieves the counters of every in-process cache.
+     * @return ResponseEntity with the statistics of each cache, keyed by cache name.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Map<String, Object>>> getCacheStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("userDetails", cachingUserDetailsService.getStats());
+        stats.put("groupExports", exportSpillCache.getStats());
+        stats.put("groups", groupCache.getStats());
+        stats.put("groupExpenses", groupExpensesCache.getStats());
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,44 @@
+// src/main/java/com/acabra/expenseshare/controller/admin/LoginStatsController.java
+package com.acabra.expenseshare.controller.admin;
+
+import com.acabra.expenseshare.service.security.LoginThrottleService;
+import com.acabra.expenseshare.service.security.LoginVerificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST Controller exposing login executor and throttling statistics to administrators.
+ * Used to size the login executor and to spot login storms.
+ */
+@RestController // Marks this class as a REST controller
+@RequestMapping("/api/admin/login") // Restricted to ROLE_ADMIN in SecurityConfig
+public class LoginStatsController {
+
+    private final LoginVerificationService loginVerificationService;
+    private final LoginThrottleService loginThrottleService;
+
+    @Autowired // Injects the login services to report on
+    public LoginStatsController(LoginVerificationService loginVerificationService,
+                                LoginThrottleService loginThrottleService) {
+        this.loginVerificationService = loginVerificationService;
+        this.loginThrottleService = loginThrottleService;
+    }
+
+    /**
+     * Retrieves the login executor's queue depth and hash timings, and the throttling counters.
+     * @return ResponseEntity with the "executor" and "throttle" statistics.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Map<String, Object>>> getLoginStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        stats.put("executor", loginVerificationService.getStats());
+        stats.put("throttle", loginThrottleService.getStats());
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,36 @@
+// src/main/java/com/acabra/expenseshare/controller/admin/OutboxStatsController.java
+package com.acabra.expenseshare.controller.admin;
+
+import com.acabra.expenseshare.service.outbox.OutboxRelay;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * REST Controller exposing outbox relay statistics to administrators.
+ * A growing pending count means the broker is down or the relay cannot keep up.
+ */
+@RestController // Marks this class as a REST controller
+@RequestMapping("/api/admin/outbox") // Restricted to ROLE_ADMIN in SecurityConfig
+public class OutboxStatsController {
+
+    private final OutboxRelay outboxRelay;
+
+    @Autowired // Injects the OutboxRelay to report on
+    public OutboxStatsController(OutboxRelay outboxRelay) {
+        this.outboxRelay = outboxRelay;
+    }
+
+    /**
+     * Retrieves the number of pending and published events and the relay's failure and backoff state.
+     * @return ResponseEntity with the relay statistics.
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(outboxRelay.getStats());
+    }
+}
@@ -1,19 +1,27 @@
 package com.acabra.expenseshare.controller.auth;
 
+import com.acabra.expenseshare.service.security.LoginThrottleService;
+import com.acabra.expenseshare.service.security.LoginVerificationService;
+import com.acabra.expenseshare.service.security.RefreshTokenService;
 import com.acabra.expenseshare.util.security.JwtUtil;
+import com.acabra.expenseshare.service.security.TokenRevocationService;
 import com.acabra.expenseshare.service.security.UserDetailsServiceImpl;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.security.Principal;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * REST Controller for user authentication using JWT.
@@ -26,28 +34,43 @@ public class AuthenticationController {
 
     private static final Logger logger = LoggerFactory.getLogger(AuthenticationController.class);
 
-    private final AuthenticationManager authenticationManager;
+    private final LoginVerificationService loginVerificationService;
+    private final LoginThrottleService loginThrottleService;
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
 
     @Autowired // Inject dependencies
-    public AuthenticationController(AuthenticationManager authenticationManager,
+    public AuthenticationController(LoginVerificationService loginVerificationService,
+                                    LoginThrottleService loginThrottleService,
                                     UserDetailsServiceImpl userDetailsService,
-                                    JwtUtil jwtUtil) {
-        this.authenticationManager = authenticationManager;
+                                    JwtUtil jwtUtil,
+                                    TokenRevocationService tokenRevocationService,
+                                    RefreshTokenService refreshTokenService) {
+        this.loginVerificationService = loginVerificationService;
+        this.loginThrottleService = loginThrottleService;
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     /**
      * Handles user login requests.
      * Authenticates the user with provided credentials and returns a JWT upon success.
+     * The password is verified on the bounded login executor; repeated failures per username or
+     * per client IP are throttled before any verification work is done. The attempt is reserved as a failure
+     * before verification and released unless the password turns out to be wrong.
      *
      * @param authenticationRequest A Map containing "username" and "password".
-     * @return ResponseEntity with a JWT token or an error message.
+     * @param request The HTTP request, used for the client IP.
+     * @return ResponseEntity with a JWT token, or an error message: HTTP 401 for wrong credentials,
+     *         HTTP 429 when throttled and HTTP 503 when the login executor is saturated (both with Retry-After).
      */
     @PostMapping("/login")
-    public ResponseEntity<?> createAuthenticationToken(@RequestBody Map<String, String> authenticationRequest) {
+    public ResponseEntity<?> createAuthenticationToken(@RequestBody Map<String, String> authenticationRequest,
+                                                       HttpServletRequest request) {
         String username = authenticationRequest.get("username");
         String password = authenticationRequest.get("password");
 
@@ -56,28 +79,91 @@ public class AuthenticationController {
             return ResponseEntity.badRequest().body(Map.of("message", "Username and password are required"));
         }
 
+        String ip = request.getRemoteAddr(); // X-Forwarded-For is client-controlled, so it is not trusted here
+        Duration retryAfter = loginThrottleService.checkAttempt(username, ip);
+        if (retryAfter != null) {
+            logger.warn("Throttled login attempt for user {} from {}", username, ip);
+            return ResponseEntity.status(429)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfter.toSeconds())))
+                    .body(Map.of("message", "Too many failed login attempts, try again later"));
+        }
+
         try {
-            // Authenticate the user using Spring Security's AuthenticationManager
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(username, password)
-            );
+            // Verify the credentials on the dedicated login executor
+            loginVerificationService.authenticate(username, password);
         } catch (BadCredentialsException e) {
+            // The reserved attempt stays counted as a failure
             logger.warn("Invalid username or password for user: {}", username);
             return ResponseEntity.status(401).body(Map.of("message", "Invalid username or password"));
+        } catch (RejectedExecutionException e) {
+            loginThrottleService.releaseAttempt(username, ip);
+            logger.warn("Login executor saturated, rejecting login for user {}: {}", username, e.getMessage());
+            return ResponseEntity.status(503)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("message", "Too many concurrent logins, try again shortly"));
         } catch (Exception e) {
+            loginThrottleService.releaseAttempt(username, ip);
             logger.error("An error occurred during authentication for user {}: {}", username, e.getMessage());
             return ResponseEntity.status(500).body(Map.of("message", "Authentication error: " + e.getMessage()));
         }
+        loginThrottleService.recordSuccess(username, ip);
 
         // If authentication is successful, load UserDetails and generate JWT
         final UserDetails userDetails = userDetailsService.loadUserByUsername(username);
         final String jwt = jwtUtil.generateToken(userDetails);
 
-        Map<String, String> response = new HashMap<>();
+        Map<String, Object> response = new HashMap<>();
         response.put("token", jwt);
+        response.put("expiresIn", jwtUtil.getExpiration() / 1000);
+        response.put("refreshToken", refreshTokenService.issue(username));
         response.put("message", "Authentication successful");
 
         logger.info("User {} successfully authenticated and JWT issued.", username);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token, without verifying the password.
+     * The presented refresh token is consumed, so each one can be used only once.
+     *
+     * @param refreshRequest A Map containing "refreshToken".
+     * @return ResponseEntity with a new JWT and refresh token, HTTP 400 if the refresh token is missing,
+     *         or HTTP 401 if it is unknown, expired or already used.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshAuthenticationToken(@RequestBody Map<String, String> refreshRequest) {
+        String refreshToken = refreshRequest.get("refreshToken");
+        if (refreshToken == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Refresh token is required"));
+        }
+        Optional<String> username = refreshTokenService.consume(refreshToken);
+        if (username.isEmpty()) {
+            logger.warn("Rejected an invalid, expired or reused refresh token.");
+            return ResponseEntity.status(401).body(Map.of("message", "Invalid or expired refresh token"));
+        }
+
+        final UserDetails userDetails = userDetailsService.loadUserByUsername(username.get());
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", jwtUtil.generateToken(userDetails));
+        response.put("expiresIn", jwtUtil.getExpiration() / 1000);
+        response.put("refreshToken", refreshTokenService.issue(username.get()));
+        response.put("message", "Token refreshed");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Handles logout requests by revoking every token issued to the authenticated user so far,
+     * access and refresh tokens alike.
+     * Revocation is checked in memory by JwtRequestFilter (see jwt.revocation-check).
+     *
+     * @param principal The authenticated user.
+     * @return ResponseEntity with a confirmation message.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(Principal principal) {
+        tokenRevocationService.revokeAllTokens(principal.getName());
+        refreshTokenService.revokeAll(principal.getName());
+        logger.info("User {} logged out and their tokens were revoked.", principal.getName());
+        return ResponseEntity.ok(Map.of("message", "Logout successful"));
+    }
 }
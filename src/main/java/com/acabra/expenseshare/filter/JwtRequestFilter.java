@@ -1,14 +1,19 @@
 package com.acabra.expenseshare.filter;
 
-import com.acabra.expenseshare.service.security.UserDetailsServiceImpl;
+import com.acabra.expenseshare.service.security.CachingUserDetailsService;
+import com.acabra.expenseshare.service.security.TokenRevocationService;
 import com.acabra.expenseshare.util.security.JwtUtil;
+import com.acabra.expenseshare.util.security.ParsedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -21,17 +26,28 @@ import java.io.IOException;
  * extracts the JWT from the Authorization header, validates it using JwtUtil,
  * and sets the authenticated user in Spring Security's SecurityContextHolder.
  * It extends OncePerRequestFilter to ensure it's executed only once per request.
+ * With jwt.trust-claims=true the user is built from the token's subject and roles claims
+ * instead of being loaded from the database on every request.
  */
 @Component // Marks this as a Spring component for auto-detection and injection
 public class JwtRequestFilter extends OncePerRequestFilter {
 
-    private final UserDetailsServiceImpl userDetailsService;
+    private final CachingUserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final boolean trustClaims;
+    private final boolean revocationCheck;
 
-    @Autowired // Injects UserDetailsServiceImpl and JwtUtil
-    public JwtRequestFilter(UserDetailsServiceImpl userDetailsService, JwtUtil jwtUtil) {
+    @Autowired // Injects CachingUserDetailsService, JwtUtil, TokenRevocationService and the JWT mode properties
+    public JwtRequestFilter(CachingUserDetailsService userDetailsService, JwtUtil jwtUtil,
+                            TokenRevocationService tokenRevocationService,
+                            @Value("${jwt.trust-claims:false}") boolean trustClaims,
+                            @Value("${jwt.revocation-check:true}") boolean revocationCheck) {
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+        this.trustClaims = trustClaims;
+        this.revocationCheck = revocationCheck;
     }
 
     @Override
@@ -42,13 +58,18 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         final String authorizationHeader = request.getHeader("Authorization");
 
         String username = null;
-        String jwt = null;
+        ParsedToken parsedToken = null;
 
         // Check if the Authorization header exists and starts with "Bearer "
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7); // Extract the token (remove "Bearer ")
+            String jwt = authorizationHeader.substring(7); // Extract the token (remove "Bearer ")
             try {
-                username = jwtUtil.extractUsername(jwt); // Extract username from token
+                parsedToken = jwtUtil.parseToken(jwt); // Verify the signature once and keep the claims for this request
+                if (revocationCheck && tokenRevocationService.isRevoked(parsedToken)) {
+                    logger.warn("Revoked JWT presented for user: " + parsedToken.getUsername());
+                } else {
+                    username = parsedToken.getUsername();
+                }
             } catch (Exception e) {
                 // Log or handle invalid token exception (e.g., malformed, expired)
                 logger.warn("Invalid JWT token: {}", e);
@@ -59,17 +80,21 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         // If username is extracted and no authentication is currently set in the SecurityContext
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            // Load UserDetails from your UserDetailsService using the extracted username
+            // Build UserDetails from the token claims (trust-claims mode), or load them from your UserDetailsService
             UserDetails userDetails = null;
-            try {
-                userDetails = this.userDetailsService.loadUserByUsername(username);
-            } catch (Exception e) {
-                logger.warn("User details not found for username extracted from JWT: {}", e);
-                // Continue filter chain without authentication
+            if (trustClaims) {
+                userDetails = userDetailsFromClaims(parsedToken);
+            } else {
+                try {
+                    userDetails = this.userDetailsService.loadUserByUsername(username);
+                } catch (Exception e) {
+                    logger.warn("User details not found for username extracted from JWT: {}", e);
+                    // Continue filter chain without authentication
+                }
             }
 
             // If userDetails are found and the token is valid for this user
-            if (userDetails != null && jwtUtil.validateToken(jwt, userDetails)) {
+            if (userDetails != null && jwtUtil.validateToken(parsedToken, userDetails)) {
                 // Create an authentication token
                 UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
@@ -86,4 +111,20 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         // Continue the filter chain to the next filter or the target servlet/controller
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Builds UserDetails from a verified token without a database round trip.
+     * The signature guarantees the subject and roles were issued by JwtUtil.generateToken,
+     * which strips the "ROLE_" prefix, so it is added back here.
+     * @param parsedToken The verified token.
+     * @return UserDetails carrying the token's username and authorities, with no password.
+     */
+    private UserDetails userDetailsFromClaims(ParsedToken parsedToken) {
+        return User.withUsername(parsedToken.getUsername())
+                .password("") // Never used: the request is already authenticated by the token
+                .authorities(parsedToken.getRoles().stream()
+                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                        .toList())
+                .build();
+    }
 }
@@ -0,0 +1,244 @@
+package com.acabra.expenseshare.filter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the size of request and response bodies as the distribution summaries expenseshare.http.request.size
+ * and expenseshare.http.response.size (in bytes), tagged with the HTTP method and the matched URI template, e.g.
+ * /api/expenses/group/{groupId}, so the number of series stays bounded.
+ * <p>
+ * Bytes are counted as the application reads and writes them, which also covers chunked bodies that have no
+ * Content-Length. Requests without a body record no request size, and pages rendered through the servlet writer
+ * record no response size. Asynchronous responses (NDJSON streams, SSE) are recorded when the exchange completes.
+ * The summaries of each method and URI template are looked up once and kept.
+ */
+@Component // Marks this as a Spring component for auto-detection and injection
+public class PayloadMetricsFilter extends OncePerRequestFilter {
+
+    static final String REQUEST_METRIC = "expenseshare.http.request.size";
+    static final String RESPONSE_METRIC = "expenseshare.http.response.size";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Route, Summaries> summaries = new ConcurrentHashMap<>();
+
+    @Autowired // Injects the registry the payload sizes are published to
+    public PayloadMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CountingRequest countingRequest = new CountingRequest(request);
+        CountingResponse countingResponse = new CountingResponse(response);
+        try {
+            filterChain.doFilter(countingRequest, countingResponse);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, countingRequest, countingResponse);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, countingRequest, countingResponse);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, CountingRequest countingRequest, CountingResponse countingResponse) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Route route = new Route(request.getMethod(), pattern == null ? "UNKNOWN" : pattern.toString());
+        Summaries routeSummaries = summaries.get(route);
+        if (routeSummaries == null) {
+            routeSummaries = summaries.computeIfAbsent(route, key -> new Summaries(
+                    summary(REQUEST_METRIC, "Size of HTTP request bodies", key.method, key.uri),
+                    summary(RESPONSE_METRIC, "Size of HTTP response bodies", key.method, key.uri)));
+        }
+        if (countingRequest.bytes > 0) {
+            routeSummaries.request.record(countingRequest.bytes);
+        }
+        if (!countingResponse.writerUsed) {
+            routeSummaries.response.record(countingResponse.bytes);
+        }
+    }
+
+    private DistributionSummary summary(String name, String description, String method, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit("bytes")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry);
+    }
+
+    private record Route(String method, String uri) {
+    }
+
+    private record Summaries(DistributionSummary request, DistributionSummary response) {
+    }
+
+    /**
+     * Counts the body bytes read through getInputStream or getReader.
+     */
+    private static final class CountingRequest extends HttpServletRequestWrapper {
+
+        private long bytes;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        private CountingRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                ServletInputStream delegate = super.getInputStream();
+                inputStream = new ServletInputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        int b = delegate.read();
+                        if (b >= 0) {
+                            bytes++;
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        int read = delegate.read(b, off, len);
+                        if (read > 0) {
+                            bytes += read;
+                        }
+                        return read;
+                    }
+
+                    @Override
+                    public boolean isFinished() {
+                        return delegate.isFinished();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setReadListener(ReadListener readListener) {
+                        delegate.setReadListener(readListener);
+                    }
+                };
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String encoding = getCharacterEncoding();
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), encoding == null ? "UTF-8" : encoding));
+            }
+            return reader;
+        }
+    }
+
+    /**
+     * Counts the body bytes written through getOutputStream. Bodies written through getWriter (server-rendered
+     * pages) go straight to the container and are not counted.
+     */
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+
+        private long bytes;
+        private boolean writerUsed;
+        private ServletOutputStream outputStream;
+
+        private CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        bytes++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        bytes += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writerUsed = true;
+            return super.getWriter();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+// src/main/java/com/acabra/expenseshare/metrics/RepositoryMetricsPostProcessor.java
+package com.acabra.expenseshare.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instruments every Spring Data repository, including the hand-written JDBC fragments such as ExpenseRepositoryImpl.
+ * Each call is timed as expenseshare.repository.queries, tagged with the repository, the method, the outcome and the
+ * exception class of failed calls, and the number of rows it returned or modified is recorded as
+ * expenseshare.repository.rows: the size of a returned list, 0 or 1 for an Optional or an entity, and the update count
+ * of a @Modifying query. Methods that return nothing or a count (countPending) record no rows.
+ * <p>
+ * The interceptor is added to each repository proxy when it is built, so repositories need no AOP proxy of their own.
+ * This replaces Spring Boot's spring.data.repository.invocations timer (disabled in application.properties), which
+ * cannot see the returned rows.
+ */
+@Component // Marks this class as a Spring component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    static final String QUERY_METRIC = "expenseshare.repository.queries";
+    static final String ROWS_METRIC = "expenseshare.repository.rows";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired // Injects the registry lazily: post-processors are created before the rest of the context
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, information) -> proxyFactory.addAdvice(new Interceptor(information))));
+        }
+        return bean;
+    }
+
+    /**
+     * Times the calls of one repository. Meters are resolved once per method and kept.
+     */
+    private final class Interceptor implements MethodInterceptor {
+
+        private final RepositoryInformation information;
+        private final String repository;
+        private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+        private Interceptor(RepositoryInformation information) {
+            this.information = information;
+            this.repository = information.getRepositoryInterface().getSimpleName();
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            if (method.getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            Meters methodMeters = meters.computeIfAbsent(method, this::meters);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invocation.proceed();
+            } catch (Throwable e) {
+                timer(method, "error", e.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+            methodMeters.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (methodMeters.rows != null) {
+                long rows = rows(result);
+                if (rows >= 0) {
+                    methodMeters.rows.record(rows);
+                }
+            }
+            return result;
+        }
+
+        private Meters meters(Method method) {
+            Class<?> returnType = method.getReturnType();
+            boolean returnsRows = Iterable.class.isAssignableFrom(returnType) || returnType == Optional.class
+                    || information.getDomainType().isAssignableFrom(returnType)
+                    || (AnnotatedElementUtils.hasAnnotation(method, Modifying.class)
+                    && (returnType == int.class || returnType == long.class));
+            DistributionSummary rows = !returnsRows ? null : DistributionSummary.builder(ROWS_METRIC)
+                    .description("Rows returned or modified by repository calls")
+                    .baseUnit("rows")
+                    .tag("repository", repository)
+                    .tag("method", method.getName())
+                    .register(meterRegistry.getObject());
+            return new Meters(timer(method, "success", "none"), rows);
+        }
+
+        private Timer timer(Method method, String outcome, String exception) {
+            return Timer.builder(QUERY_METRIC)
+                    .description("Latency of repository calls")
+                    .tag("repository", repository)
+                    .tag("method", method.getName())
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .register(meterRegistry.getObject());
+        }
+
+        private static long rows(Object result) {
+            if (result instanceof Collection<?> collection) {
+                return collection.size();
+            }
+            if (result instanceof Optional<?> optional) {
+                return optional.isPresent() ? 1 : 0;
+            }
+            if (result instanceof Number count) { // The update count of a @Modifying query
+                return count.longValue();
+            }
+            if (result instanceof Iterable<?>) {
+                return -1; // Not a collection: counting would consume it
+            }
+            return result == null ? 0 : 1;
+        }
+    }
+
+    private record Meters(Timer success, DistributionSummary rows) {
+    }
+}
@@ -0,0 +1,79 @@
+// src/main/java/com/acabra/expenseshare/metrics/ServiceMetricsAspect.java
+package com.acabra.expenseshare.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the domain services (expenses, groups, balances, imports, settlements, splits and
+ * exports) as expenseshare.service.calls, tagged with the service, the operation (method name), the outcome
+ * (success or error) and the exception class of failed calls.
+ * <p>
+ * Only calls made through the Spring proxy are timed, so a service calling its own methods counts once. Methods that
+ * hand back a callback or a stream (forEachExpense, export) are timed until they return, which covers the whole
+ * iteration since it happens inside the call. The success timer of each method is looked up once and kept, so the
+ * steady-state cost is two nanoTime calls and a lock-free histogram update.
+ */
+@Aspect
+@Component // Marks this class as a Spring component
+public class ServiceMetricsAspect {
+
+    static final String METRIC = "expenseshare.service.calls";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+    @Autowired // Injects the registry the timers are published to
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Times a service call and records it under its outcome.
+     * @param call The intercepted call.
+     * @return The value returned by the service.
+     * @throws Throwable whatever the service throws, unchanged.
+     */
+    @Around("execution(public * com.acabra.expenseshare.service.*.*(..))"
+            + " || execution(public * com.acabra.expenseshare.service.settlement.SettlementService.*(..))"
+            + " || execution(public * com.acabra.expenseshare.service.split.SplitService.*(..))"
+            + " || execution(public * com.acabra.expenseshare.service.export.GroupExportService.*(..))")
+    public Object time(ProceedingJoinPoint call) throws Throwable {
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = call.proceed();
+        } catch (Throwable e) {
+            timer(call, "error", e.getClass().getSimpleName()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        Method method = ((MethodSignature) call.getSignature()).getMethod();
+        Timer timer = successTimers.get(method);
+        if (timer == null) {
+            timer = successTimers.computeIfAbsent(method, key -> timer(call, "success", "none"));
+        }
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private Timer timer(ProceedingJoinPoint call, String outcome, String exception) {
+        return Timer.builder(METRIC)
+                .description("Latency of domain service calls")
+                .tag("service", call.getSignature().getDeclaringType().getSimpleName())
+                .tag("operation", call.getSignature().getName())
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,86 @@
+// src/main/java/com/acabra/expenseshare/migration/ExpenseSharesBackfill.java
+package com.acabra.expenseshare.migration;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Liquibase custom change that copies the JSON 'expenses.owed_by' blobs into 'expense_shares' rows.
+ * JSON cannot be parsed portably in SQL across H2 and PostgreSQL, so the rows are read and written over JDBC
+ * with batched inserts. Referenced from 006-create-expense-shares-table.yaml.
+ */
+public class ExpenseSharesBackfill implements CustomTaskChange {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final TypeReference<Map<String, Double>> OWED_BY_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private int rowsInserted;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (Statement select = connection.createStatement();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO expense_shares (expense_id, user_id, amount) VALUES (?, ?, ?)")) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = select.executeQuery("SELECT id, owed_by FROM expenses WHERE owed_by IS NOT NULL")) {
+                int pending = 0;
+                while (rs.next()) {
+                    String expenseId = rs.getString("id");
+                    String json = rs.getString("owed_by");
+                    if (json.isBlank()) {
+                        continue;
+                    }
+                    for (Map.Entry<String, Double> share : objectMapper.readValue(json, OWED_BY_TYPE).entrySet()) {
+                        insert.setString(1, expenseId);
+                        insert.setString(2, share.getKey());
+                        insert.setDouble(3, share.getValue());
+                        insert.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            insert.executeBatch();
+                            pending = 0;
+                        }
+                        rowsInserted++;
+                    }
+                }
+                if (pending > 0) {
+                    insert.executeBatch();
+                }
+            }
+        } catch (Exception e) {
+            throw new CustomChangeException("Could not backfill expense_shares from expenses.owed_by", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Backfilled " + rowsInserted + " expense_shares rows from expenses.owed_by";
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
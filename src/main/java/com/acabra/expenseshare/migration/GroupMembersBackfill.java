@@ -0,0 +1,108 @@
+// src/main/java/com/acabra/expenseshare/migration/GroupMembersBackfill.java
+package com.acabra.expenseshare.migration;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Liquibase custom change that copies the 'groups.members' text column into 'group_members' rows.
+ * The column was documented as either a JSON array or a comma-separated list, so both are accepted.
+ * Referenced from 007-create-group-members-table.yaml.
+ */
+public class GroupMembersBackfill implements CustomTaskChange {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final TypeReference<List<String>> MEMBERS_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private int rowsInserted;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (Statement select = connection.createStatement();
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO group_members (group_id, user_id, member_index) VALUES (?, ?, ?)")) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = select.executeQuery("SELECT id, members FROM groups WHERE members IS NOT NULL")) {
+                int pending = 0;
+                while (rs.next()) {
+                    String groupId = rs.getString("id");
+                    int index = 0;
+                    for (String userId : parseMembers(rs.getString("members"))) {
+                        insert.setString(1, groupId);
+                        insert.setString(2, userId);
+                        insert.setInt(3, index++);
+                        insert.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            insert.executeBatch();
+                            pending = 0;
+                        }
+                        rowsInserted++;
+                    }
+                }
+                if (pending > 0) {
+                    insert.executeBatch();
+                }
+            }
+        } catch (Exception e) {
+            throw new CustomChangeException("Could not backfill group_members from groups.members", e);
+        }
+    }
+
+    /**
+     * Parses a members value as a JSON array, falling back to a (optionally bracketed) comma-separated list.
+     * Blank entries and duplicates are dropped, since (group_id, user_id) is the primary key.
+     */
+    Set<String> parseMembers(String value) {
+        Set<String> members = new LinkedHashSet<>();
+        String trimmed = value.trim();
+        try {
+            members.addAll(objectMapper.readValue(trimmed, MEMBERS_TYPE));
+        } catch (JsonProcessingException e) {
+            String list = trimmed.startsWith("[") && trimmed.endsWith("]")
+                    ? trimmed.substring(1, trimmed.length() - 1)
+                    : trimmed;
+            Arrays.stream(list.split(","))
+                    .map(member -> member.trim().replace("\"", ""))
+                    .forEach(members::add);
+        }
+        members.removeIf(member -> member == null || member.isBlank());
+        return members;
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Backfilled " + rowsInserted + " group_members rows from groups.members";
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
@@ -0,0 +1,145 @@
+// src/main/java/com/acabra/expenseshare/migration/MinorUnitsBackfill.java
+package com.acabra.expenseshare.migration;
+
+import com.acabra.expenseshare.util.Money;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Liquibase custom change that fills 'expenses.amount_minor' and 'expense_shares.amount_minor' from the DOUBLE
+ * 'amount' columns. Every existing row is in Money.DEFAULT_CURRENCY.
+ * Rounding each share on its own can make shares that covered the whole amount sum to a cent more or less
+ * (three shares of 10.00 / 3 round to 9.99), so the shares of an expense are instead allocated with the
+ * largest remainder method from their rounded total, and shares that covered the amount still do.
+ * Referenced from 013-convert-amounts-to-minor-units.yaml.
+ */
+public class MinorUnitsBackfill implements CustomTaskChange {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int SCALE = Currency.getInstance(Money.DEFAULT_CURRENCY).getDefaultFractionDigits();
+    private static final int WEIGHT_SCALE = SCALE + 6; // Share weights keep six digits below the minor unit
+
+    private int expensesConverted;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (Statement select = connection.createStatement();
+             PreparedStatement updateExpense = connection.prepareStatement(
+                     "UPDATE expenses SET amount_minor = ? WHERE id = ?");
+             PreparedStatement updateShare = connection.prepareStatement(
+                     "UPDATE expense_shares SET amount_minor = ? WHERE expense_id = ? AND user_id = ?")) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = select.executeQuery("SELECT e.id, e.amount, s.user_id, s.amount AS share_amount " +
+                    "FROM expenses e LEFT JOIN expense_shares s ON s.expense_id = e.id ORDER BY e.id")) {
+                String expenseId = null;
+                BigDecimal amount = null;
+                List<String> userIds = new ArrayList<>();
+                List<BigDecimal> shares = new ArrayList<>();
+                while (rs.next()) {
+                    if (!rs.getString("id").equals(expenseId)) {
+                        if (expenseId != null) {
+                            convert(expenseId, amount, userIds, shares, updateExpense, updateShare);
+                        }
+                        expenseId = rs.getString("id");
+                        amount = BigDecimal.valueOf(rs.getDouble("amount"));
+                        userIds.clear();
+                        shares.clear();
+                    }
+                    if (rs.getString("user_id") != null) { // LEFT JOIN: an expense without shares yields NULLs
+                        userIds.add(rs.getString("user_id"));
+                        shares.add(BigDecimal.valueOf(rs.getDouble("share_amount")));
+                    }
+                }
+                if (expenseId != null) {
+                    convert(expenseId, amount, userIds, shares, updateExpense, updateShare);
+                }
+                updateExpense.executeBatch();
+                updateShare.executeBatch();
+            }
+        } catch (Exception e) {
+            throw new CustomChangeException("Could not convert expense amounts to minor units", e);
+        }
+    }
+
+    private void convert(String expenseId, BigDecimal amount, List<String> userIds, List<BigDecimal> shares,
+                         PreparedStatement updateExpense, PreparedStatement updateShare) throws Exception {
+        long amountMinor = toMinor(amount);
+        updateExpense.setLong(1, amountMinor);
+        updateExpense.setString(2, expenseId);
+        updateExpense.addBatch();
+        long[] shareMinor = allocate(amount, amountMinor, shares);
+        for (int i = 0; i < shareMinor.length; i++) {
+            updateShare.setLong(1, shareMinor[i]);
+            updateShare.setString(2, expenseId);
+            updateShare.setString(3, userIds.get(i));
+            updateShare.addBatch();
+        }
+        if (++expensesConverted % BATCH_SIZE == 0) {
+            updateExpense.executeBatch();
+            updateShare.executeBatch();
+        }
+    }
+
+    /**
+     * Converts an expense's shares to minor units so that they sum to their rounded total,
+     * or exactly to the expense's amount when they covered it up to floating point noise.
+     */
+    private static long[] allocate(BigDecimal amount, long amountMinor, List<BigDecimal> shares) {
+        long[] weights = new long[shares.size()];
+        BigDecimal sum = BigDecimal.ZERO;
+        boolean splittable = false;
+        for (int i = 0; i < weights.length; i++) {
+            BigDecimal share = shares.get(i);
+            sum = sum.add(share);
+            if (share.signum() < 0) { // Not a proportional split: round each share on its own
+                return shares.stream().mapToLong(MinorUnitsBackfill::toMinor).toArray();
+            }
+            weights[i] = share.setScale(WEIGHT_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+            splittable |= weights[i] > 0;
+        }
+        if (!splittable) {
+            return new long[weights.length];
+        }
+        long total = sum.subtract(amount).abs().compareTo(BigDecimal.ONE.movePointLeft(SCALE + 1)) < 0
+                ? amountMinor
+                : toMinor(sum);
+        return Money.split(total, weights);
+    }
+
+    private static long toMinor(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Converted the amounts of " + expensesConverted + " expenses to minor units";
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
@@ -1,17 +1,30 @@
 // src/main/java/com/acabra/expenseshare/model/Expense.java
 package com.acabra.expenseshare.model;
 
+import com.acabra.expenseshare.util.Money;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.MappedCollection;
 import org.springframework.data.relational.core.mapping.Table;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
 
 /**
  * Represents an expense within a group in the ExpenseShare application.
  * This entity is mapped to the 'expenses' table in the database.
+ * The amount and the shares are held in minor units of the expense's currency (see Money) and exchanged with
+ * clients as decimals; the currency must be the one of the expense's group.
  */
+@JsonPropertyOrder({"id", "groupId", "description", "currency", "amount", "paidBy", "owedBy", "date", "version"})
 @Table("EXPENSES") // Ensure this matches your Liquibase tableName for expenses
 public class Expense {
 
@@ -19,10 +32,14 @@ public class Expense {
     private String id;
     private String groupId;
     private String description;
-    private Double amount;
+    private String currency = Money.DEFAULT_CURRENCY; // ISO 4217 code
+    private Long amountMinor; // Amount in minor units of the currency; null until set
     private String paidBy; // User ID who paid
-    private Map<String, Double> owedBy; // Map of User ID to amount owed by that user
+    @MappedCollection(idColumn = "EXPENSE_ID", keyColumn = "USER_ID") // One 'expense_shares' row per debtor
+    private Map<String, ExpenseShare> shares = new LinkedHashMap<>(); // Map of User ID to the share owed by that user
     private LocalDateTime date;
+    @Version // Checked and incremented on every update; null until the expense is first saved
+    private Long version;
 
     // Constructors
     public Expense() {
@@ -30,13 +47,64 @@ public class Expense {
         this.date = LocalDateTime.now(); // Set expense date
     }
 
-    public Expense(String groupId, String description, Double amount, String paidBy, Map<String, Double> owedBy) {
+    public Expense(String groupId, String description, String currency, long amountMinor, String paidBy,
+                   Map<String, Long> owedByMinor) {
         this(); // Call default constructor to initialize id and date
         this.groupId = groupId;
         this.description = description;
-        this.amount = amount;
+        this.currency = Money.checkCurrency(currency);
+        this.amountMinor = amountMinor;
         this.paidBy = paidBy;
-        this.owedBy = owedBy;
+        owedByMinor.forEach((userId, amount) -> shares.put(userId, new ExpenseShare(amount)));
+    }
+
+    private Expense(String id, LocalDateTime date) {
+        this.id = id;
+        this.date = date;
+    }
+
+    /**
+     * Creates an expense from a stored row, for hand-written row mappers. Unlike the default constructor it does not
+     * generate an ID and a date only to have them overwritten, and the currency is not checked again.
+     * @param id The ID of the expense.
+     * @param groupId The ID of the group.
+     * @param description The description.
+     * @param currency The stored currency code.
+     * @param amountMinor The amount, in minor units.
+     * @param paidBy The ID of the payer.
+     * @param date The date of the expense.
+     * @param version The stored version.
+     * @return The new Expense, without shares.
+     */
+    public static Expense fromRow(String id, String groupId, String description, String currency, long amountMinor,
+                                  String paidBy, LocalDateTime date, long version) {
+        Expense expense = new Expense(id, date);
+        expense.groupId = groupId;
+        expense.description = description;
+        expense.currency = currency;
+        expense.amountMinor = amountMinor;
+        expense.paidBy = paidBy;
+        expense.version = version;
+        return expense;
+    }
+
+    /**
+     * Creates an expense from its JSON form. The decimal amounts can only be converted once the currency is known,
+     * so Jackson passes the three together; the remaining properties are set through the setters.
+     * @param currency The currency code, or null for Money.DEFAULT_CURRENCY.
+     * @param amount The decimal amount, or null if missing.
+     * @param owedBy The decimal amount owed per user, or null for none.
+     * @return The new Expense.
+     * @throws IllegalArgumentException if the currency is unknown or an amount does not fit it.
+     */
+    @JsonCreator
+    static Expense fromJson(@JsonProperty("currency") String currency, @JsonProperty("amount") BigDecimal amount,
+                            @JsonProperty("owedBy") Map<String, BigDecimal> owedBy) {
+        Expense expense = new Expense();
+        expense.setCurrency(currency == null ? Money.DEFAULT_CURRENCY : currency);
+        expense.setAmount(amount);
+        expense.setOwedBy(owedBy);
+        return expense;
     }
 
     // Getters and Setters
@@ -64,12 +132,45 @@ public class Expense {
         this.description = description;
     }
 
-    public Double getAmount() {
-        return amount;
+    public String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Sets the currency. Amounts already set stay the same number of minor units, so set the currency first.
+     * @param currency The ISO 4217 currency code.
+     * @throws IllegalArgumentException if the currency is unknown.
+     */
+    public void setCurrency(String currency) {
+        this.currency = Money.checkCurrency(currency);
+    }
+
+    @JsonIgnore // Exposed to clients as the decimal 'amount'
+    public Long getAmountMinor() {
+        return amountMinor;
+    }
+
+    @JsonIgnore
+    public void setAmountMinor(Long amountMinor) {
+        this.amountMinor = amountMinor;
+    }
+
+    /**
+     * Returns the amount as a decimal with the currency's number of decimals, as exchanged with clients.
+     * @return The amount, or null if not set.
+     */
+    @Transient // A view over 'amountMinor', not a column of its own
+    public BigDecimal getAmount() {
+        return amountMinor == null ? null : Money.toDecimal(amountMinor, currency);
     }
 
-    public void setAmount(Double amount) {
-        this.amount = amount;
+    /**
+     * Sets the amount from a decimal in the expense's currency.
+     * @param amount The amount, or null to clear it.
+     * @throws IllegalArgumentException if the amount has more decimals than the currency allows.
+     */
+    public void setAmount(BigDecimal amount) {
+        this.amountMinor = amount == null ? null : Money.toMinor(amount, currency);
     }
 
     public String getPaidBy() {
@@ -80,12 +181,43 @@ public class Expense {
         this.paidBy = paidBy;
     }
 
-    public Map<String, Double> getOwedBy() {
+    @JsonIgnore // Exposed to clients as the flat 'owedBy' map
+    public Map<String, ExpenseShare> getShares() {
+        return shares;
+    }
+
+    @JsonIgnore
+    public void setShares(Map<String, ExpenseShare> shares) {
+        this.shares = shares;
+    }
+
+    /**
+     * Returns the shares as a map of User ID to decimal amount owed by that user, as exchanged with clients.
+     * @return A new map built from the persisted shares.
+     */
+    @Transient // A view over 'shares', not a column of its own
+    public Map<String, BigDecimal> getOwedBy() {
+        Map<String, BigDecimal> owedBy = new LinkedHashMap<>();
+        shares.forEach((userId, share) -> owedBy.put(userId, Money.toDecimal(share.getAmountMinor(), currency)));
         return owedBy;
     }
 
-    public void setOwedBy(Map<String, Double> owedBy) {
-        this.owedBy = owedBy;
+    /**
+     * Replaces the shares from a map of User ID to decimal amount owed by that user, in the expense's currency.
+     * @param owedBy The amounts owed per user, or null for none.
+     * @throws IllegalArgumentException if an amount is null or has more decimals than the currency allows.
+     */
+    public void setOwedBy(Map<String, BigDecimal> owedBy) {
+        Map<String, ExpenseShare> newShares = new LinkedHashMap<>();
+        if (owedBy != null) {
+            owedBy.forEach((userId, amount) -> {
+                if (amount == null) {
+                    throw new IllegalArgumentException("owedBy amounts must not be null");
+                }
+                newShares.put(userId, new ExpenseShare(Money.toMinor(amount, currency)));
+            });
+        }
+        this.shares = newShares;
     }
 
     public LocalDateTime getDate() {
@@ -96,16 +228,26 @@ public class Expense {
         this.date = date;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Expense{" +
                 "id='" + id + '\'' +
                 ", groupId='" + groupId + '\'' +
                 ", description='" + description + '\'' +
-                ", amount=" + amount +
+                ", currency='" + currency + '\'' +
+                ", amountMinor=" + amountMinor +
                 ", paidBy='" + paidBy + '\'' +
-                ", owedBy=" + owedBy +
+                ", owedBy=" + getOwedBy() +
                 ", date=" + date +
+                ", version=" + version +
                 '}';
     }
 }
@@ -0,0 +1,77 @@
+// src/main/java/com/acabra/expenseshare/model/ExpenseCursor.java
+package com.acabra.expenseshare.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset pagination cursor over expenses ordered by (date, id).
+ * It points at the last expense of a page; the next page starts strictly after it.
+ * Clients receive it as an opaque URL-safe string.
+ */
+public final class ExpenseCursor {
+
+    private final LocalDateTime date;
+    private final String id;
+
+    public ExpenseCursor(LocalDateTime date, String id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    /**
+     * Builds the cursor pointing at the given expense.
+     * @param expense The last expense of a page.
+     * @return The cursor for the page that follows it.
+     */
+    public static ExpenseCursor after(Expense expense) {
+        return new ExpenseCursor(expense.getDate(), expense.getId());
+    }
+
+    /**
+     * Decodes a cursor previously produced by encode().
+     * @param encoded The opaque cursor string.
+     * @return The decoded cursor.
+     * @throws IllegalArgumentException if the string is not a valid cursor.
+     */
+    public static ExpenseCursor decode(String encoded) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + encoded);
+            }
+            return new ExpenseCursor(LocalDateTime.parse(decoded.substring(0, separator)), decoded.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + encoded, e);
+        }
+    }
+
+    /**
+     * Encodes this cursor as an opaque URL-safe string.
+     * @return The encoded cursor.
+     */
+    public String encode() {
+        String raw = date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Getters
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "ExpenseCursor{" +
+                "date=" + date +
+                ", id='" + id + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,40 @@
+// src/main/java/com/acabra/expenseshare/model/ExpenseShare.java
+package com.acabra.expenseshare.model;
+
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Represents the share of an expense owed by a single user.
+ * This entity is mapped to the 'expense_shares' table and belongs to the Expense aggregate:
+ * the owning expense ID and the user ID are the key columns of Expense.shares.
+ * The amount is in minor units of the expense's currency.
+ */
+@Table("EXPENSE_SHARES") // Ensure this matches your Liquibase tableName for expense shares
+public class ExpenseShare {
+
+    private long amountMinor; // Amount owed by the user, in minor units
+
+    // Constructors
+    public ExpenseShare() {
+    }
+
+    public ExpenseShare(long amountMinor) {
+        this.amountMinor = amountMinor;
+    }
+
+    // Getters and Setters
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public void setAmountMinor(long amountMinor) {
+        this.amountMinor = amountMinor;
+    }
+
+    @Override
+    public String toString() {
+        return "ExpenseShare{" +
+                "amountMinor=" + amountMinor +
+                '}';
+    }
+}
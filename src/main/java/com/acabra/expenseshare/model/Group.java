@@ -1,9 +1,17 @@
 package com.acabra.expenseshare.model;
 
+import com.acabra.expenseshare.util.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.MappedCollection;
 import org.springframework.data.relational.core.mapping.Table;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.UUID;
 
@@ -17,9 +25,15 @@ public class Group {
     @Id // Marks 'id' as the primary key
     private String id;
     private String name;
-    private List<String> members; // Stores member IDs. Will be handled by JSON serialization/deserialization.
+    @MappedCollection(idColumn = "GROUP_ID", keyColumn = "MEMBER_INDEX") // One 'group_members' row per member, in order
+    private List<GroupMember> memberships = new ArrayList<>();
     private LocalDateTime createdAt;
     private String createdBy; // User ID of the creator
+    private String currency = Money.DEFAULT_CURRENCY; // ISO 4217 code of every expense and balance in the group
+    @Version // Checked and incremented by save() and by the member patches; expense changes leave it alone
+    private Long version;
+    @ReadOnlyProperty // Only ever changed by the increments in GroupRepository, never written back by save()
+    private Long contentVersion;
 
     // Constructors
     public Group() {
@@ -30,7 +44,7 @@ public class Group {
     public Group(String name, List<String> members, String createdBy) {
         this(); // Call default constructor to initialize id and createdAt
         this.name = name;
-        this.members = members;
+        setMembers(members);
         this.createdBy = createdBy;
     }
 
@@ -51,12 +65,35 @@ public class Group {
         this.name = name;
     }
 
+    @JsonIgnore // Exposed to clients as the flat 'members' list
+    public List<GroupMember> getMemberships() {
+        return memberships;
+    }
+
+    @JsonIgnore
+    public void setMemberships(List<GroupMember> memberships) {
+        this.memberships = memberships;
+    }
+
+    /**
+     * Returns the member IDs, as exchanged with clients.
+     * @return A new list built from the persisted memberships.
+     */
+    @Transient // A view over 'memberships', not a column of its own
     public List<String> getMembers() {
-        return members;
+        return memberships.stream().map(GroupMember::getUserId).toList();
     }
 
+    /**
+     * Replaces the memberships from a list of member IDs. Duplicates are dropped, keeping the first occurrence.
+     * @param members The member IDs, or null for none.
+     */
     public void setMembers(List<String> members) {
-        this.members = members;
+        List<GroupMember> newMemberships = new ArrayList<>();
+        if (members != null) {
+            new LinkedHashSet<>(members).forEach(userId -> newMemberships.add(new GroupMember(userId)));
+        }
+        this.memberships = newMemberships;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -75,14 +112,58 @@ public class Group {
         this.createdBy = createdBy;
     }
 
+    public String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Sets the group's currency. Only taken into account when the group is created.
+     * @param currency The ISO 4217 currency code.
+     * @throws IllegalArgumentException if the currency is unknown.
+     */
+    public void setCurrency(String currency) {
+        this.currency = Money.checkCurrency(currency);
+    }
+
+    /**
+     * Returns the group's optimistic locking version, incremented whenever the group or its members change.
+     * Clients send it back with updates to detect lost updates; expense changes do not affect it.
+     * @return The version as of when the group was loaded, or null for a group that was never saved.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Returns the group's change counter, incremented whenever the group, its members or its expenses change.
+     * Backs the ETags of the group and its expense list, which are sent as headers rather than in the body.
+     * @return The counter as of when the group was loaded, or null for a group that was never saved.
+     */
+    @JsonIgnore
+    public Long getContentVersion() {
+        return contentVersion;
+    }
+
+    @JsonIgnore
+    public void setContentVersion(Long contentVersion) {
+        this.contentVersion = contentVersion;
+    }
+
     @Override
     public String toString() {
         return "Group{" +
                 "id='" + id + '\'' +
                 ", name='" + name + '\'' +
-                ", members=" + members +
+                ", members=" + getMembers() +
                 ", createdAt=" + createdAt +
                 ", createdBy='" + createdBy + '\'' +
+                ", currency='" + currency + '\'' +
+                ", version=" + version +
+                ", contentVersion=" + contentVersion +
                 '}';
     }
 }
@@ -0,0 +1,90 @@
+// src/main/java/com/acabra/expenseshare/model/GroupBalance.java
+package com.acabra.expenseshare.model;
+
+import com.acabra.expenseshare.util.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.ReadOnlyProperty;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+
+/**
+ * Represents the net balance of a single member within a group.
+ * This entity is mapped to the 'group_balances' table, which is maintained incrementally
+ * on every expense write so balances can be read without scanning the group's expenses.
+ * The balance is in minor units of the group's currency.
+ */
+@Table("GROUP_BALANCES") // Ensure this matches your Liquibase tableName for group balances
+public class GroupBalance {
+
+    private String groupId;
+    private String userId;
+    private long balanceMinor; // Positive: the member is owed money. Negative: the member owes money.
+    @ReadOnlyProperty // Joined in from 'groups'
+    private String currency = Money.DEFAULT_CURRENCY;
+
+    // Constructors
+    public GroupBalance() {
+    }
+
+    public GroupBalance(String groupId, String userId, long balanceMinor, String currency) {
+        this.groupId = groupId;
+        this.userId = userId;
+        this.balanceMinor = balanceMinor;
+        this.currency = currency;
+    }
+
+    // Getters and Setters
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(String groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    @JsonIgnore // Exposed to clients as the decimal 'balance'
+    public long getBalanceMinor() {
+        return balanceMinor;
+    }
+
+    public void setBalanceMinor(long balanceMinor) {
+        this.balanceMinor = balanceMinor;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    /**
+     * Returns the balance as a decimal in the group's currency, as exchanged with clients.
+     * @return The balance.
+     */
+    @Transient // A view over 'balanceMinor', not a column of its own
+    public BigDecimal getBalance() {
+        return Money.toDecimal(balanceMinor, currency);
+    }
+
+    @Override
+    public String toString() {
+        return "GroupBalance{" +
+                "groupId='" + groupId + '\'' +
+                ", userId='" + userId + '\'' +
+                ", balanceMinor=" + balanceMinor +
+                ", currency='" + currency + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,38 @@
+// src/main/java/com/acabra/expenseshare/model/GroupMember.java
+package com.acabra.expenseshare.model;
+
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Represents the membership of a single user in a group.
+ * This entity is mapped to the 'group_members' table and belongs to the Group aggregate.
+ */
+@Table("GROUP_MEMBERS") // Ensure this matches your Liquibase tableName for group members
+public class GroupMember {
+
+    private String userId; // User ID of the member
+
+    // Constructors
+    public GroupMember() {
+    }
+
+    public GroupMember(String userId) {
+        this.userId = userId;
+    }
+
+    // Getters and Setters
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    @Override
+    public String toString() {
+        return "GroupMember{" +
+                "userId='" + userId + '\'' +
+                '}';
+    }
+}
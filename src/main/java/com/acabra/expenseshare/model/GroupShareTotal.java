@@ -0,0 +1,72 @@
+// src/main/java/com/acabra/expenseshare/model/GroupShareTotal.java
+package com.acabra.expenseshare.model;
+
+import com.acabra.expenseshare.util.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+
+/**
+ * Represents the total of a user's expense shares within one group.
+ * Read-only projection aggregated from the 'expense_shares' table; not persisted.
+ * The total is in minor units of the group's currency.
+ */
+public class GroupShareTotal {
+
+    private String groupId;
+    private String currency = Money.DEFAULT_CURRENCY;
+    private long totalMinor; // Sum of the user's shares across the group's expenses
+
+    // Constructors
+    public GroupShareTotal() {
+    }
+
+    public GroupShareTotal(String groupId, String currency, long totalMinor) {
+        this.groupId = groupId;
+        this.currency = currency;
+        this.totalMinor = totalMinor;
+    }
+
+    // Getters and Setters
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(String groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    @JsonIgnore // Exposed to clients as the decimal 'total'
+    public long getTotalMinor() {
+        return totalMinor;
+    }
+
+    public void setTotalMinor(long totalMinor) {
+        this.totalMinor = totalMinor;
+    }
+
+    /**
+     * Returns the total as a decimal in the group's currency, as exchanged with clients.
+     * @return The total.
+     */
+    public BigDecimal getTotal() {
+        return Money.toDecimal(totalMinor, currency);
+    }
+
+    @Override
+    public String toString() {
+        return "GroupShareTotal{" +
+                "groupId='" + groupId + '\'' +
+                ", currency='" + currency + '\'' +
+                ", totalMinor=" + totalMinor +
+                '}';
+    }
+}
@@ -0,0 +1,93 @@
+// src/main/java/com/acabra/expenseshare/model/ImportReport.java
+package com.acabra.expenseshare.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Summary of a streamed expense import, returned once the whole upload has been read.
+ * Only the first errors are kept, so the report stays small however many rows were rejected.
+ */
+public class ImportReport {
+
+    private long rowsRead; // Data rows parsed from the upload (header and blank lines excluded)
+    private long imported; // Rows written to the database
+    private long rejected; // Rows skipped because they were invalid or their chunk failed to insert
+    private List<String> errors = new ArrayList<>(); // First errors, each prefixed with its line number
+    private boolean errorsTruncated; // True if more errors occurred than are listed
+    private long elapsedMillis;
+    private double rowsPerSecond;
+
+    // Constructors
+    public ImportReport() {
+    }
+
+    // Getters and Setters
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{" +
+                "rowsRead=" + rowsRead +
+                ", imported=" + imported +
+                ", rejected=" + rejected +
+                ", errors=" + errors.size() + (errorsTruncated ? "+" : "") +
+                ", elapsedMillis=" + elapsedMillis +
+                ", rowsPerSecond=" + rowsPerSecond +
+                '}';
+    }
+}
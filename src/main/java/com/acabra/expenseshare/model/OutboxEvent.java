@@ -0,0 +1,96 @@
+// src/main/java/com/acabra/expenseshare/model/OutboxEvent.java
+package com.acabra.expenseshare.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents an expense or group event waiting to be published.
+ * This entity is mapped to the 'outbox_events' table. Events are written in the same transaction as the change
+ * they describe and deleted once the relay has handed them to the message broker.
+ */
+@Table("OUTBOX_EVENTS") // Ensure this matches your Liquibase tableName for outbox events
+public class OutboxEvent {
+
+    @Id // Marks 'id' as the primary key, generated by the database
+    private Long id;
+    private String eventType; // e.g. expense.created; used as the routing key
+    private String aggregateId; // ID of the expense or group the event is about
+    private String groupId;
+    private String payload; // JSON representation of the expense or group
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public OutboxEvent() {
+    }
+
+    public OutboxEvent(String eventType, String aggregateId, String groupId, String payload, LocalDateTime createdAt) {
+        this.eventType = eventType;
+        this.aggregateId = aggregateId;
+        this.groupId = groupId;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(String aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public void setGroupId(String groupId) {
+        this.groupId = groupId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxEvent{" +
+                "id=" + id +
+                ", eventType='" + eventType + '\'' +
+                ", aggregateId='" + aggregateId + '\'' +
+                ", groupId='" + groupId + '\'' +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+// src/main/java/com/acabra/expenseshare/model/RefreshToken.java
+package com.acabra.expenseshare.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents a refresh token issued to a user at login.
+ * This entity is mapped to the 'refresh_tokens' table. Only a SHA-256 hash of the token is stored,
+ * so a leaked table cannot be used to mint access tokens.
+ */
+@Table("REFRESH_TOKENS") // Ensure this matches your Liquibase tableName for refresh tokens
+public class RefreshToken {
+
+    @Id // Marks 'tokenHash' as the primary key
+    private String tokenHash;
+    private Long userAccessId; // ID of the owning USER_ACCESS row
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+
+    // Constructors
+    public RefreshToken() {
+    }
+
+    public RefreshToken(String tokenHash, Long userAccessId, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.userAccessId = userAccessId;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public Long getUserAccessId() {
+        return userAccessId;
+    }
+
+    public void setUserAccessId(Long userAccessId) {
+        this.userAccessId = userAccessId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshToken{" +
+                "userAccessId=" + userAccessId +
+                ", createdAt=" + createdAt +
+                ", expiresAt=" + expiresAt +
+                '}'; // The hash is left out on purpose
+    }
+}
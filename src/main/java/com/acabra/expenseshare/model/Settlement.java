@@ -0,0 +1,58 @@
+// src/main/java/com/acabra/expenseshare/model/Settlement.java
+package com.acabra.expenseshare.model;
+
+import com.acabra.expenseshare.util.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+
+/**
+ * Represents a single transfer of a settlement plan: the member 'from' pays 'amount' to the member 'to'.
+ * Settlements are computed from a group's balances and are not persisted.
+ */
+public class Settlement {
+
+    private final String from; // User ID who pays
+    private final String to;   // User ID who receives
+    private final long amountMinor; // In minor units of the currency
+    private final String currency;
+
+    public Settlement(String from, String to, long amountMinor, String currency) {
+        this.from = from;
+        this.to = to;
+        this.amountMinor = amountMinor;
+        this.currency = currency;
+    }
+
+    // Getters
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    @JsonIgnore // Exposed to clients as the decimal 'amount'
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public BigDecimal getAmount() {
+        return Money.toDecimal(amountMinor, currency);
+    }
+
+    @Override
+    public String toString() {
+        return "Settlement{" +
+                "from='" + from + '\'' +
+                ", to='" + to + '\'' +
+                ", amountMinor=" + amountMinor +
+                ", currency='" + currency + '\'' +
+                '}';
+    }
+}
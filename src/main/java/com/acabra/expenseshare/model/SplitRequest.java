@@ -0,0 +1,74 @@
+// src/main/java/com/acabra/expenseshare/model/SplitRequest.java
+package com.acabra.expenseshare.model;
+
+import com.acabra.expenseshare.util.Money;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An amount to divide among participants, as sent to the split endpoints.
+ * The result is the owedBy map of an expense, in the order of the weights.
+ */
+public class SplitRequest {
+
+    private String currency = Money.DEFAULT_CURRENCY;
+    private BigDecimal amount;
+    private SplitStrategy strategy;
+    private Map<String, BigDecimal> weights = new LinkedHashMap<>(); // Participant user ID -> weight, see SplitStrategy
+
+    // Constructors
+    public SplitRequest() {
+    }
+
+    public SplitRequest(String currency, BigDecimal amount, SplitStrategy strategy, Map<String, BigDecimal> weights) {
+        this.currency = currency;
+        this.amount = amount;
+        this.strategy = strategy;
+        this.weights = weights;
+    }
+
+    // Getters and Setters
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public SplitStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(SplitStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public Map<String, BigDecimal> getWeights() {
+        return weights;
+    }
+
+    public void setWeights(Map<String, BigDecimal> weights) {
+        this.weights = weights;
+    }
+
+    @Override
+    public String toString() {
+        return "SplitRequest{" +
+               "currency='" + currency + '\'' +
+               ", amount=" + amount +
+               ", strategy=" + strategy +
+               ", weights=" + weights +
+               '}';
+    }
+}
@@ -0,0 +1,12 @@
+// src/main/java/com/acabra/expenseshare/model/SplitStrategy.java
+package com.acabra.expenseshare.model;
+
+/**
+ * How an expense's amount is divided among its participants, and how the participants' weights are read.
+ */
+public enum SplitStrategy {
+    EQUAL, // Every participant owes the same amount; weights are ignored
+    PERCENTAGE, // Weights are percentages with at most two decimals and must add up to 100
+    SHARES, // Weights are whole numbers of shares, e.g. 2 for a couple and 1 for a single person
+    EXACT // Weights are the amounts owed, in the expense's currency, and must add up to the amount
+}
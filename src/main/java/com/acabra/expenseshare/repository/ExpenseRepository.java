@@ -2,21 +2,80 @@
 package com.acabra.expenseshare.repository;
 
 import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.GroupShareTotal;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository; // Provides basic CRUD operations
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Spring Data JDBC Repository for the Expense entity.
  * Provides standard CRUD operations and custom query methods for expense data.
+ * Inserts, group listings, keyset pagination and streaming are provided by the ExpenseRepositoryCustom fragment.
  */
-public interface ExpenseRepository extends CrudRepository<Expense, String> {
+public interface ExpenseRepository extends CrudRepository<Expense, String>, ExpenseRepositoryCustom {
 
     /**
-     * Finds all expenses associated with a specific group ID.
-     * Spring Data JDBC automatically generates the query for this method.
-     * @param groupId The ID of the group.
-     * @return A list of Expenses belonging to the specified group.
+     * Sums a user's expense shares per group, in minor units of each group's currency.
+     * Served from the (user_id, expense_id) index on 'expense_shares' instead of loading every expense.
+     * @param userId The ID of the user.
+     * @return One GroupShareTotal per group the user owes a share in.
      */
-    List<Expense> findByGroupId(String groupId);
+    @Query("SELECT e.group_id, e.currency, SUM(s.amount_minor) AS total_minor FROM expense_shares s " +
+            "JOIN expenses e ON e.id = s.expense_id " +
+            "WHERE s.user_id = :userId GROUP BY e.group_id, e.currency ORDER BY e.group_id")
+    List<GroupShareTotal> findShareTotalsByUserId(@Param("userId") String userId);
+
+    /**
+     * Increments an expense's version if it still has the version the caller read.
+     * This is the optimistic lock check of partial updates; the row lock it takes also orders them.
+     * @param expenseId The ID of the expense.
+     * @param expectedVersion The version the caller based its change on.
+     * @return 1 if the version matched, 0 if the expense changed meanwhile or does not exist.
+     */
+    @Modifying
+    @Query("UPDATE expenses SET version = version + 1 WHERE id = :expenseId AND version = :expectedVersion")
+    int incrementVersionIfMatches(@Param("expenseId") String expenseId, @Param("expectedVersion") long expectedVersion);
+
+    /**
+     * Increments an expense's version unconditionally, for partial updates sent without a version.
+     * @param expenseId The ID of the expense.
+     * @return 1 if the expense exists, 0 otherwise.
+     */
+    @Modifying
+    @Query("UPDATE expenses SET version = version + 1 WHERE id = :expenseId")
+    int incrementVersion(@Param("expenseId") String expenseId);
+
+    /**
+     * Sets one member's share of an expense without rewriting the expense or its other shares.
+     * @param expenseId The ID of the expense.
+     * @param userId The ID of the member.
+     * @param amount The new share, in minor units.
+     * @return The number of rows updated (0 if the member has no share).
+     */
+    @Modifying
+    @Query("UPDATE expense_shares SET amount_minor = :amount WHERE expense_id = :expenseId AND user_id = :userId")
+    int updateShareAmount(@Param("expenseId") String expenseId, @Param("userId") String userId,
+                          @Param("amount") long amount);
+
+    /**
+     * Sets an expense's amount without rewriting the expense or its shares.
+     * @param expenseId The ID of the expense.
+     * @param amount The new amount, in minor units.
+     * @return The number of rows updated (0 if the expense does not exist).
+     */
+    @Modifying
+    @Query("UPDATE expenses SET amount_minor = :amount WHERE id = :expenseId")
+    int updateAmount(@Param("expenseId") String expenseId, @Param("amount") long amount);
+
+    /**
+     * Finds which of the given expense IDs are already taken, so a batch can be rejected before it is inserted.
+     * @param ids The IDs to look up.
+     * @return The IDs that exist.
+     */
+    @Query("SELECT id FROM expenses WHERE id IN (:ids)")
+    List<String> findExistingIds(@Param("ids") Collection<String> ids);
 }
@@ -0,0 +1,63 @@
+// src/main/java/com/acabra/expenseshare/repository/ExpenseRepositoryCustom.java
+package com.acabra.expenseshare.repository;
+
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.ExpenseCursor;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Custom query methods for expenses that need direct control over the generated SQL
+ * (joined share loading, keyset pagination) or the JDBC cursor (streaming). Implemented by ExpenseRepositoryImpl.
+ */
+public interface ExpenseRepositoryCustom {
+
+    /**
+     * Inserts a new expense and its shares. CrudRepository.save treats an entity with an ID as existing
+     * and issues an UPDATE, so expenses, whose IDs are assigned up front, are created through this method.
+     * @param expense The Expense to insert.
+     * @return The inserted Expense.
+     */
+    Expense insert(Expense expense);
+
+    /**
+     * Inserts many new expenses and their shares with JDBC batch statements, in chunks of a configurable size.
+     * Each chunk costs one round trip for the expenses and one for their shares, instead of one aggregate
+     * insert per expense.
+     * @param expenses The Expenses to insert; IDs and dates must already be set.
+     */
+    void insertAll(List<Expense> expenses);
+
+    /**
+     * Finds all expenses associated with a specific group ID, ordered by (date, id).
+     * Expenses and their shares are loaded with a single joined query instead of one query per expense.
+     * @param groupId The ID of the group.
+     * @return A list of Expenses belonging to the specified group.
+     */
+    List<Expense> findByGroupId(String groupId);
+
+    /**
+     * Finds all expenses ordered by (date, id), loading their shares with a single joined query.
+     * @return A list of all Expenses.
+     */
+    List<Expense> findAllWithShares();
+
+    /**
+     * Finds one page of expenses ordered by (date, id), optionally restricted to a group.
+     * @param groupId The ID of the group, or null for all expenses.
+     * @param after The cursor of the previous page's last expense, or null for the first page.
+     * @param limit The maximum number of expenses to return.
+     * @return A list of at most limit Expenses.
+     */
+    List<Expense> findPage(String groupId, ExpenseCursor after, int limit);
+
+    /**
+     * Passes expenses ordered by (date, id) to the action as they come off a forward-only JDBC cursor
+     * with a bounded fetch size. On PostgreSQL this must run inside a transaction, otherwise the driver
+     * ignores the fetch size and buffers every row.
+     * @param groupId The ID of the group, or null for all expenses.
+     * @param action The action to apply to each expense.
+     */
+    void forEach(String groupId, Consumer<Expense> action);
+}
@@ -0,0 +1,214 @@
+// src/main/java/com/acabra/expenseshare/repository/ExpenseRepositoryImpl.java
+package com.acabra.expenseshare.repository;
+
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.ExpenseCursor;
+import com.acabra.expenseshare.model.ExpenseShare;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jdbc.core.JdbcAggregateOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * JdbcTemplate-based implementation of ExpenseRepositoryCustom.
+ * Spring Data picks it up as a fragment of ExpenseRepository by its "Impl" suffix.
+ */
+class ExpenseRepositoryImpl implements ExpenseRepositoryCustom {
+
+    private static final String EXPENSE_COLUMNS = "e.id, e.group_id, e.description, e.currency, e.amount_minor, e.paid_by, e.date, e.version";
+    private static final String SELECT_EXPENSES_WITH_SHARES =
+            "SELECT " + EXPENSE_COLUMNS + ", s.user_id AS share_user_id, s.amount_minor AS share_amount_minor " +
+            "FROM expenses e LEFT JOIN expense_shares s ON s.expense_id = e.id ";
+    private static final String ORDER_BY_KEYSET = " ORDER BY e.date, e.id";
+    // Package-private so the query plan tests EXPLAIN the statements this class actually runs
+    static final String FIND_ALL_WITH_SHARES = SELECT_EXPENSES_WITH_SHARES + ORDER_BY_KEYSET;
+    static final String FIND_BY_GROUP_ID_WITH_SHARES = SELECT_EXPENSES_WITH_SHARES + "WHERE e.group_id = :groupId" + ORDER_BY_KEYSET;
+    static final String FIND_SHARES_BY_EXPENSE_IDS = "SELECT expense_id, user_id, amount_minor FROM expense_shares WHERE expense_id IN (:ids)";
+    private static final String INSERT_EXPENSE = "INSERT INTO expenses (id, group_id, description, currency, amount_minor, paid_by, date, version) " +
+            "VALUES (:id, :groupId, :description, :currency, :amountMinor, :paidBy, :date, 0)";
+    private static final String INSERT_SHARE = "INSERT INTO expense_shares (expense_id, user_id, amount_minor) " +
+            "VALUES (:expenseId, :userId, :amountMinor)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+    private final JdbcAggregateOperations aggregateOperations;
+    private final int batchChunkSize;
+
+    @Autowired // Injects the DataSource, the aggregate template, the streaming fetch size and the batch chunk size
+    ExpenseRepositoryImpl(DataSource dataSource, JdbcAggregateOperations aggregateOperations,
+                          @Value("${expenses.stream.fetch-size:500}") int fetchSize,
+                          @Value("${expenses.batch.chunk-size:500}") int batchChunkSize) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(fetchSize); // Rows held in memory per round trip while streaming
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+        this.aggregateOperations = aggregateOperations;
+        this.batchChunkSize = Math.max(1, batchChunkSize);
+    }
+
+    @Override
+    public Expense insert(Expense expense) {
+        return aggregateOperations.insert(expense);
+    }
+
+    @Override
+    public void insertAll(List<Expense> expenses) {
+        for (int from = 0; from < expenses.size(); from += batchChunkSize) {
+            List<Expense> chunk = expenses.subList(from, Math.min(from + batchChunkSize, expenses.size()));
+            List<MapSqlParameterSource> expenseRows = new ArrayList<>(chunk.size());
+            List<MapSqlParameterSource> shareRows = new ArrayList<>();
+            for (Expense expense : chunk) {
+                expense.setVersion(0L); // The initial version, as written by INSERT_EXPENSE
+                expenseRows.add(new MapSqlParameterSource()
+                        .addValue("id", expense.getId())
+                        .addValue("groupId", expense.getGroupId())
+                        .addValue("description", expense.getDescription())
+                        .addValue("currency", expense.getCurrency())
+                        .addValue("amountMinor", expense.getAmountMinor())
+                        .addValue("paidBy", expense.getPaidBy())
+                        .addValue("date", expense.getDate()));
+                expense.getShares().forEach((userId, share) -> shareRows.add(new MapSqlParameterSource()
+                        .addValue("expenseId", expense.getId())
+                        .addValue("userId", userId)
+                        .addValue("amountMinor", share.getAmountMinor())));
+            }
+            // Expenses first: every share row references an expense of the same chunk
+            jdbcTemplate.batchUpdate(INSERT_EXPENSE, expenseRows.toArray(MapSqlParameterSource[]::new));
+            if (!shareRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SHARE, shareRows.toArray(MapSqlParameterSource[]::new));
+            }
+        }
+    }
+
+    @Override
+    public List<Expense> findByGroupId(String groupId) {
+        List<Expense> expenses = new ArrayList<>();
+        queryWithShares(jdbcTemplate, FIND_BY_GROUP_ID_WITH_SHARES, Map.of("groupId", groupId), expenses::add);
+        return expenses;
+    }
+
+    @Override
+    public List<Expense> findAllWithShares() {
+        List<Expense> expenses = new ArrayList<>();
+        queryWithShares(jdbcTemplate, FIND_ALL_WITH_SHARES, Map.of(), expenses::add);
+        return expenses;
+    }
+
+    @Override
+    public List<Expense> findPage(String groupId, ExpenseCursor after, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit);
+        if (groupId != null) {
+            params.addValue("groupId", groupId);
+        }
+        if (after != null) {
+            params.addValue("afterDate", after.getDate()).addValue("afterId", after.getId());
+        }
+        List<Expense> expenses = jdbcTemplate.query(pageSql(groupId != null, after != null), params,
+                (rs, rowNum) -> mapExpense(rs));
+        loadShares(expenses);
+        return expenses;
+    }
+
+    /**
+     * Builds the SQL of findPage, with named parameters groupId, afterDate, afterId and limit.
+     * @param byGroup Whether the page is restricted to one group.
+     * @param afterCursor Whether the page starts after a cursor.
+     * @return The SQL.
+     */
+    static String pageSql(boolean byGroup, boolean afterCursor) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(EXPENSE_COLUMNS).append(" FROM expenses e WHERE 1 = 1");
+        if (byGroup) {
+            sql.append(" AND e.group_id = :groupId");
+        }
+        if (afterCursor) {
+            // Row-value comparison lets the database seek the (date, id) index instead of counting an OFFSET
+            sql.append(" AND (e.date, e.id) > (:afterDate, :afterId)");
+        }
+        return sql.append(ORDER_BY_KEYSET).append(" LIMIT :limit").toString();
+    }
+
+    @Override
+    public void forEach(String groupId, Consumer<Expense> action) {
+        if (groupId == null) {
+            queryWithShares(streamingJdbcTemplate, FIND_ALL_WITH_SHARES, Map.of(), action);
+        } else {
+            queryWithShares(streamingJdbcTemplate, FIND_BY_GROUP_ID_WITH_SHARES, Map.of("groupId", groupId), action);
+        }
+    }
+
+    /**
+     * Runs the expenses-with-shares join and folds consecutive rows of the same expense into one Expense.
+     * Rows arrive ordered by (date, id), so only the expense being assembled is held in memory.
+     */
+    private void queryWithShares(NamedParameterJdbcTemplate template, String sql, Map<String, ?> params,
+                                 Consumer<Expense> action) {
+        ExpenseAssembler assembler = new ExpenseAssembler(action);
+        template.query(sql, params, assembler);
+        assembler.finish();
+    }
+
+    /**
+     * Loads the shares of a page of expenses with one IN query.
+     */
+    private void loadShares(List<Expense> expenses) {
+        if (expenses.isEmpty()) {
+            return;
+        }
+        Map<String, Expense> byId = new LinkedHashMap<>();
+        expenses.forEach(expense -> byId.put(expense.getId(), expense));
+        jdbcTemplate.query(FIND_SHARES_BY_EXPENSE_IDS, Map.of("ids", byId.keySet()),
+                (RowCallbackHandler) rs -> byId.get(rs.getString("expense_id")).getShares()
+                        .put(rs.getString("user_id"), new ExpenseShare(rs.getLong("amount_minor"))));
+    }
+
+    private static Expense mapExpense(ResultSet rs) throws SQLException {
+        return Expense.fromRow(rs.getString("id"), rs.getString("group_id"), rs.getString("description"),
+                rs.getString("currency"), rs.getLong("amount_minor"), rs.getString("paid_by"),
+                rs.getTimestamp("date").toLocalDateTime(), rs.getLong("version"));
+    }
+
+    /**
+     * Folds the rows of the expenses-with-shares join into Expenses, emitting each one once its last row was read.
+     */
+    private static final class ExpenseAssembler implements RowCallbackHandler {
+
+        private final Consumer<Expense> action;
+        private Expense current;
+
+        private ExpenseAssembler(Consumer<Expense> action) {
+            this.action = action;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            String id = rs.getString("id");
+            if (current == null || !current.getId().equals(id)) {
+                finish();
+                current = mapExpense(rs);
+            }
+            String shareUserId = rs.getString("share_user_id");
+            if (shareUserId != null) { // LEFT JOIN: an expense without shares yields one row of NULLs
+                current.getShares().put(shareUserId, new ExpenseShare(rs.getLong("share_amount_minor")));
+            }
+        }
+
+        private void finish() {
+            if (current != null) {
+                action.accept(current);
+                current = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+// src/main/java/com/acabra/expenseshare/repository/GroupBalanceRepository.java
+package com.acabra.expenseshare.repository;
+
+import com.acabra.expenseshare.model.GroupBalance;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Spring Data JDBC Repository for the GroupBalance ledger.
+ * Rows are keyed by (group_id, user_id) and only ever change by deltas, so this repository
+ * exposes an atomic increment and an insert for a member's first delta instead of the usual CrudRepository save.
+ */
+public interface GroupBalanceRepository extends Repository<GroupBalance, String> {
+
+    /**
+     * Finds the net balances of every member of a group.
+     * Served from the (group_id, user_id) primary key, so the cost is proportional to the number of members.
+     * @param groupId The ID of the group.
+     * @return A list of GroupBalances for the specified group, in minor units of the group's currency.
+     */
+    @Query("SELECT b.group_id, b.user_id, b.balance_minor, g.currency FROM group_balances b " +
+            "JOIN groups g ON g.id = b.group_id WHERE b.group_id = :groupId ORDER BY b.user_id")
+    List<GroupBalance> findByGroupId(@Param("groupId") String groupId);
+
+    /**
+     * Adds a delta to an existing ledger row. A plain UPDATE locks the row and re-reads it once a concurrent
+     * writer commits, so concurrent deltas to the same member all land.
+     * @param groupId The ID of the group.
+     * @param userId The ID of the member.
+     * @param delta The amount to add (negative to subtract), in minor units of the group's currency.
+     * @return The number of rows updated: 0 if the member has no ledger row yet.
+     */
+    @Modifying
+    @Query("UPDATE group_balances SET balance_minor = balance_minor + :delta " +
+            "WHERE group_id = :groupId AND user_id = :userId")
+    int addToBalance(@Param("groupId") String groupId, @Param("userId") String userId, @Param("delta") long delta);
+
+    /**
+     * Creates a member's ledger row. Two transactions creating the same row race: the second one fails with a
+     * duplicate key once the first commits, so callers run this in a savepoint and fall back to addToBalance.
+     * @param groupId The ID of the group.
+     * @param userId The ID of the member.
+     * @param balance The initial balance, in minor units of the group's currency.
+     */
+    @Modifying
+    @Query("INSERT INTO group_balances (group_id, user_id, balance_minor) VALUES (:groupId, :userId, :balance)")
+    void insertBalance(@Param("groupId") String groupId, @Param("userId") String userId, @Param("balance") long balance);
+}
@@ -2,17 +2,127 @@
 package com.acabra.expenseshare.repository;
 
 import com.acabra.expenseshare.model.Group;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
 import org.springframework.data.repository.CrudRepository; // Provides basic CRUD operations
+import org.springframework.data.repository.query.Param;
 
 import java.util.List; // For findAll which CrudRepository returns as Iterable
+import java.util.Optional;
 
 /**
  * Spring Data JDBC Repository for the Group entity.
  * Provides standard CRUD operations and can include custom query methods if needed.
+ * Inserts are provided by the GroupRepositoryCustom fragment.
  */
-public interface GroupRepository extends CrudRepository<Group, String> {
+public interface GroupRepository extends CrudRepository<Group, String>, GroupRepositoryCustom {
 
     // CrudRepository already provides findById, save, findAll, deleteById, existsById
     // You can add custom query methods here if needed, e.g.,
     List<Group> findByCreatedBy(String userId);
+
+    /**
+     * Finds all groups a user is a member of.
+     * Served from the user_id index on 'group_members' instead of loading every group.
+     * @param userId The ID of the member.
+     * @return A list of Groups the user belongs to.
+     */
+    @Query("SELECT g.* FROM groups g JOIN group_members m ON m.group_id = g.id WHERE m.user_id = :userId ORDER BY g.created_at")
+    List<Group> findByMember(@Param("userId") String userId);
+
+    /**
+     * Finds the IDs of a group's members without loading the group aggregate.
+     * Served from the (group_id, user_id) primary key of 'group_members'.
+     * @param groupId The ID of the group.
+     * @return The member IDs, in no particular order.
+     */
+    @Query("SELECT user_id FROM group_members WHERE group_id = :groupId")
+    List<String> findMemberIds(@Param("groupId") String groupId);
+
+    /**
+     * Reads a group's currency without loading the group aggregate.
+     * @param groupId The ID of the group.
+     * @return An Optional containing the currency code if the group exists.
+     */
+    @Query("SELECT currency FROM groups WHERE id = :groupId")
+    Optional<String> findCurrencyById(@Param("groupId") String groupId);
+
+    /**
+     * Increments a group's change counter without touching its optimistic locking version, for changes to its
+     * expenses. The row lock this takes also orders concurrent changes to the group.
+     * @param groupId The ID of the group.
+     * @return The number of rows updated (0 if the group does not exist).
+     */
+    @Modifying
+    @Query("UPDATE groups SET content_version = content_version + 1 WHERE id = :groupId")
+    int incrementContentVersion(@Param("groupId") String groupId);
+
+    /**
+     * Increments a group's version and change counter. The row lock this takes also orders concurrent changes
+     * to the group.
+     * @param groupId The ID of the group.
+     * @return The number of rows updated (0 if the group does not exist).
+     */
+    @Modifying
+    @Query("UPDATE groups SET version = version + 1, content_version = content_version + 1 WHERE id = :groupId")
+    int incrementVersion(@Param("groupId") String groupId);
+
+    /**
+     * Increments a group's version and change counter if it still has the version the caller read.
+     * This is the optimistic lock check of partial updates; the row lock it takes also orders them.
+     * @param groupId The ID of the group.
+     * @param expectedVersion The version the caller based its change on.
+     * @return 1 if the version matched, 0 if the group changed meanwhile or does not exist.
+     */
+    @Modifying
+    @Query("UPDATE groups SET version = version + 1, content_version = content_version + 1 " +
+            "WHERE id = :groupId AND version = :expectedVersion")
+    int incrementVersionIfMatches(@Param("groupId") String groupId, @Param("expectedVersion") long expectedVersion);
+
+    /**
+     * Appends a member to a group, after its current last member.
+     * @param groupId The ID of the group.
+     * @param userId The ID of the new member; must not already be a member.
+     */
+    @Modifying
+    @Query("INSERT INTO group_members (group_id, user_id, member_index) " +
+            "SELECT :groupId, :userId, COALESCE(MAX(member_index), -1) + 1 FROM group_members WHERE group_id = :groupId")
+    void addMember(@Param("groupId") String groupId, @Param("userId") String userId);
+
+    /**
+     * Finds the position of a member in a group's member list, using the (group_id, user_id) primary key.
+     * @param groupId The ID of the group.
+     * @param userId The ID of the member.
+     * @return The zero-based position, or empty if the user is not a member.
+     */
+    @Query("SELECT member_index FROM group_members WHERE group_id = :groupId AND user_id = :userId")
+    Optional<Integer> findMemberIndex(@Param("groupId") String groupId, @Param("userId") String userId);
+
+    /**
+     * Removes a member from a group.
+     * @param groupId The ID of the group.
+     * @param userId The ID of the member.
+     * @return The number of rows deleted (0 if the user was not a member).
+     */
+    @Modifying
+    @Query("DELETE FROM group_members WHERE group_id = :groupId AND user_id = :userId")
+    int removeMember(@Param("groupId") String groupId, @Param("userId") String userId);
+
+    /**
+     * Moves every member listed after a removed one up by one position, keeping member_index contiguous
+     * as the List mapping of Group.memberships expects.
+     * @param groupId The ID of the group.
+     * @param memberIndex The position of the removed member.
+     */
+    @Modifying
+    @Query("UPDATE group_members SET member_index = member_index - 1 WHERE group_id = :groupId AND member_index > :memberIndex")
+    void closeMemberIndexGap(@Param("groupId") String groupId, @Param("memberIndex") int memberIndex);
+
+    /**
+     * Reads a group's change counter without loading the group aggregate, using the primary key.
+     * @param groupId The ID of the group.
+     * @return The counter, or empty if the group does not exist.
+     */
+    @Query("SELECT content_version FROM groups WHERE id = :groupId")
+    Optional<Long> findContentVersionById(@Param("groupId") String groupId);
 }
@@ -0,0 +1,18 @@
+// src/main/java/com/acabra/expenseshare/repository/GroupRepositoryCustom.java
+package com.acabra.expenseshare.repository;
+
+import com.acabra.expenseshare.model.Group;
+
+/**
+ * Custom persistence methods for groups. Implemented by GroupRepositoryImpl.
+ */
+public interface GroupRepositoryCustom {
+
+    /**
+     * Inserts a new group and its memberships. CrudRepository.save treats an entity with an ID as existing
+     * and issues an UPDATE, so groups, whose IDs are assigned up front, are created through this method.
+     * @param group The Group to insert.
+     * @return The inserted Group.
+     */
+    Group insert(Group group);
+}
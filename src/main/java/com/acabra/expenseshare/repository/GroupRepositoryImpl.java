@@ -0,0 +1,25 @@
+// src/main/java/com/acabra/expenseshare/repository/GroupRepositoryImpl.java
+package com.acabra.expenseshare.repository;
+
+import com.acabra.expenseshare.model.Group;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jdbc.core.JdbcAggregateOperations;
+
+/**
+ * Implementation of GroupRepositoryCustom.
+ * Spring Data picks it up as a fragment of GroupRepository by its "Impl" suffix.
+ */
+class GroupRepositoryImpl implements GroupRepositoryCustom {
+
+    private final JdbcAggregateOperations aggregateOperations;
+
+    @Autowired // Injects the aggregate template
+    GroupRepositoryImpl(JdbcAggregateOperations aggregateOperations) {
+        this.aggregateOperations = aggregateOperations;
+    }
+
+    @Override
+    public Group insert(Group group) {
+        return aggregateOperations.insert(group);
+    }
+}
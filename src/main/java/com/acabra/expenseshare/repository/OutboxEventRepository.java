@@ -0,0 +1,64 @@
+// src/main/java/com/acabra/expenseshare/repository/OutboxEventRepository.java
+package com.acabra.expenseshare.repository;
+
+import com.acabra.expenseshare.model.OutboxEvent;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data JDBC Repository for OutboxEvent.
+ * Events are only appended, claimed oldest first by the relay and deleted once published,
+ * so this repository exposes just those operations.
+ */
+public interface OutboxEventRepository extends Repository<OutboxEvent, Long> {
+
+    /**
+     * Appends events to the outbox; their IDs are generated by the database.
+     * @param events The events to store.
+     * @return The stored events, with their IDs set.
+     */
+    List<OutboxEvent> saveAll(Iterable<OutboxEvent> events);
+
+    /**
+     * Locks and returns the oldest unclaimed events, or events whose claim has expired. Rows already locked by
+     * another relay are skipped, so several application instances can claim batches concurrently.
+     * @param now The current time; claims that end before it are ignored.
+     * @param limit The maximum number of events to return.
+     * @return Up to limit events, oldest first.
+     */
+    @Query("SELECT id, event_type, aggregate_id, group_id, payload, created_at FROM outbox_events " +
+            "WHERE claimed_until IS NULL OR claimed_until < :now ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED")
+    List<OutboxEvent> lockOldest(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Claims events for publishing until the given time, or releases the claim when it is null.
+     * @param ids The IDs of the events.
+     * @param claimedUntil When the claim expires, or null to release it.
+     * @return The number of rows updated.
+     */
+    @Modifying
+    @Query("UPDATE outbox_events SET claimed_until = :claimedUntil WHERE id IN (:ids)")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    /**
+     * Deletes published events.
+     * @param ids The IDs of the events.
+     * @return The number of rows deleted.
+     */
+    @Modifying
+    @Query("DELETE FROM outbox_events WHERE id IN (:ids)")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Counts the events still waiting to be published.
+     * @return The number of events in the outbox.
+     */
+    @Query("SELECT COUNT(*) FROM outbox_events")
+    long countPending();
+}
@@ -0,0 +1,70 @@
+// src/main/java/com/acabra/expenseshare/repository/RefreshTokenRepository.java
+package com.acabra.expenseshare.repository;
+
+import com.acabra.expenseshare.model.RefreshToken;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Spring Data JDBC Repository for RefreshToken.
+ * Tokens are keyed by their hash, which is assigned up front, and are only ever inserted or deleted,
+ * so this repository exposes explicit statements instead of the usual CrudRepository save.
+ */
+public interface RefreshTokenRepository extends Repository<RefreshToken, String> {
+
+    /**
+     * Stores a newly issued refresh token.
+     * @param tokenHash The SHA-256 hash of the token.
+     * @param userAccessId The ID of the owning USER_ACCESS row.
+     * @param createdAt When the token was issued.
+     * @param expiresAt When the token stops being accepted.
+     */
+    @Modifying
+    @Query("INSERT INTO refresh_tokens (token_hash, user_access_id, created_at, expires_at) " +
+            "VALUES (:tokenHash, :userAccessId, :createdAt, :expiresAt)")
+    void insert(@Param("tokenHash") String tokenHash, @Param("userAccessId") Long userAccessId,
+                @Param("createdAt") LocalDateTime createdAt, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Finds a refresh token by its hash, using the primary key.
+     * @param tokenHash The SHA-256 hash of the token.
+     * @return An Optional containing the RefreshToken if it exists.
+     */
+    @Query("SELECT token_hash, user_access_id, created_at, expires_at FROM refresh_tokens WHERE token_hash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Deletes a refresh token if it has not expired. Used to consume a token when it is rotated: of two concurrent
+     * refreshes with the same token, only one sees a deleted row.
+     * @param tokenHash The SHA-256 hash of the token.
+     * @param now The current time; a token that expired before it is not deleted.
+     * @return The number of rows deleted (0 or 1).
+     */
+    @Modifying
+    @Query("DELETE FROM refresh_tokens WHERE token_hash = :tokenHash AND expires_at >= :now")
+    int deleteValid(@Param("tokenHash") String tokenHash, @Param("now") LocalDateTime now);
+
+    /**
+     * Deletes every refresh token of a user, e.g. on logout.
+     * @param userAccessId The ID of the USER_ACCESS row.
+     * @return The number of rows deleted.
+     */
+    @Modifying
+    @Query("DELETE FROM refresh_tokens WHERE user_access_id = :userAccessId")
+    int deleteByUserAccessId(@Param("userAccessId") Long userAccessId);
+
+    /**
+     * Deletes a user's expired refresh tokens, so the table does not grow with every login.
+     * @param userAccessId The ID of the USER_ACCESS row.
+     * @param now The current time.
+     * @return The number of rows deleted.
+     */
+    @Modifying
+    @Query("DELETE FROM refresh_tokens WHERE user_access_id = :userAccessId AND expires_at < :now")
+    int deleteExpiredByUserAccessId(@Param("userAccessId") Long userAccessId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,156 @@
+// src/main/java/com/acabra/expenseshare/service/BalanceService.java
+package com.acabra.expenseshare.service;
+
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.GroupBalance;
+import com.acabra.expenseshare.repository.GroupBalanceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Service layer for the per-group balance ledger.
+ * Every expense write is translated into per-member deltas that are applied to the
+ * 'group_balances' table inside the caller's transaction, so reading a group's balances
+ * never requires loading its expenses.
+ * Ledger rows are always updated in (group, member) ID order, so two transactions touching the same rows lock
+ * them in the same order.
+ */
+@Service // Marks this class as a Spring service
+@Transactional // Joins the transaction of the calling ExpenseService method
+public class BalanceService {
+
+    private final GroupBalanceRepository groupBalanceRepository;
+    private final TransactionTemplate savepoint;
+
+    @Autowired // Injects GroupBalanceRepository and the transaction manager used for savepoints
+    public BalanceService(GroupBalanceRepository groupBalanceRepository, PlatformTransactionManager transactionManager) {
+        this.groupBalanceRepository = groupBalanceRepository;
+        this.savepoint = new TransactionTemplate(transactionManager);
+        this.savepoint.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    /**
+     * Adds the effect of an expense to its group's ledger.
+     * @param expense The expense that was created.
+     */
+    public void recordExpense(Expense expense) {
+        applyExpense(expense, 1);
+    }
+
+    /**
+     * Adds the effect of many expenses to their groups' ledgers.
+     * Deltas are summed per (group, member) first, so each ledger row is updated once per batch
+     * no matter how many of the expenses touch it.
+     * @param expenses The expenses that were created.
+     */
+    public void recordExpenses(Collection<Expense> expenses) {
+        Map<String, Map<String, long[]>> deltasByGroup = new TreeMap<>();
+        for (Expense expense : expenses) {
+            if (expense.getGroupId() != null) {
+                addDeltas(expense, deltasByGroup.computeIfAbsent(expense.getGroupId(), id -> new TreeMap<>()));
+            }
+        }
+        deltasByGroup.forEach((groupId, groupDeltas) -> groupDeltas.forEach((userId, delta) -> {
+            if (delta[0] != 0) {
+                applyDelta(groupId, userId, delta[0]);
+            }
+        }));
+    }
+
+    /**
+     * Removes the effect of an expense from its group's ledger.
+     * @param expense The expense as it was last recorded (before an update or a delete).
+     */
+    public void reverseExpense(Expense expense) {
+        applyExpense(expense, -1);
+    }
+
+    /**
+     * Applies the change of one member's share of an expense to the group's ledger. The expense amount moves
+     * with the share, so the payer's credit changes by the same delta and the group's balances still sum to zero.
+     * @param groupId The ID of the expense's group.
+     * @param userId The ID of the member.
+     * @param paidBy The ID of the expense's payer.
+     * @param previousShare The share that was recorded, in minor units.
+     * @param newShare The share that replaces it, in minor units.
+     */
+    public void adjustShare(String groupId, String userId, String paidBy, long previousShare, long newShare) {
+        long delta = newShare - previousShare;
+        if (groupId == null || delta == 0 || userId.equals(paidBy)) {
+            return; // A payer's own share is both credited and debited: the net change is zero
+        }
+        if (paidBy != null && paidBy.compareTo(userId) < 0) {
+            applyDelta(groupId, paidBy, delta);
+            applyDelta(groupId, userId, -delta); // Owing more lowers the balance
+        } else {
+            applyDelta(groupId, userId, -delta);
+            if (paidBy != null) {
+                applyDelta(groupId, paidBy, delta);
+            }
+        }
+    }
+
+    /**
+     * Finds the net balances of every member of a group.
+     * @param groupId The ID of the group.
+     * @return A list of GroupBalances, one per member that has taken part in an expense.
+     */
+    @Transactional(readOnly = true)
+    public List<GroupBalance> findBalancesByGroupId(String groupId) {
+        return groupBalanceRepository.findByGroupId(groupId);
+    }
+
+    /**
+     * Adds the net change an expense causes per member, in minor units, to running totals: the payer is credited
+     * with the amount and every debtor is debited with their share, so a member that both paid and owes gets a
+     * single netted delta. Totals are single-element arrays, updated in place instead of boxing a Long per addition.
+     */
+    private static void addDeltas(Expense expense, Map<String, long[]> deltas) {
+        if (expense.getPaidBy() != null && expense.getAmountMinor() != null) {
+            deltas.computeIfAbsent(expense.getPaidBy(), userId -> new long[1])[0] += expense.getAmountMinor();
+        }
+        expense.getShares().forEach((userId, share) ->
+                deltas.computeIfAbsent(userId, id -> new long[1])[0] -= share.getAmountMinor());
+    }
+
+    private void applyExpense(Expense expense, long sign) {
+        if (expense.getGroupId() == null) {
+            return;
+        }
+        Map<String, long[]> deltas = new TreeMap<>();
+        addDeltas(expense, deltas);
+        deltas.forEach((userId, delta) -> {
+            if (delta[0] != 0) {
+                applyDelta(expense.getGroupId(), userId, sign * delta[0]);
+            }
+        });
+    }
+
+    /**
+     * Adds a delta to a member's ledger row. The row is incremented in place when it exists, which is safe
+     * under concurrent writes to the same group. A member's first delta inserts the row inside a savepoint:
+     * if a concurrent transaction inserted it first, the insert fails once that transaction commits, the
+     * savepoint is rolled back (PostgreSQL would otherwise abort the whole transaction) and the delta is added
+     * to the now visible row.
+     */
+    private void applyDelta(String groupId, String userId, long delta) {
+        if (groupBalanceRepository.addToBalance(groupId, userId, delta) > 0) {
+            return;
+        }
+        try {
+            savepoint.executeWithoutResult(status -> groupBalanceRepository.insertBalance(groupId, userId, delta));
+        } catch (DuplicateKeyException e) {
+            groupBalanceRepository.addToBalance(groupId, userId, delta);
+        }
+    }
+}
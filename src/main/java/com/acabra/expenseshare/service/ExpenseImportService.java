@@ -0,0 +1,351 @@
+// src/main/java/com/acabra/expenseshare/service/ExpenseImportService.java
+package com.acabra.expenseshare.service;
+
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.ImportReport;
+import com.acabra.expenseshare.repository.GroupRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Imports expenses from CSV or NDJSON uploads of any size.
+ * The upload is read one line at a time and valid rows are written in chunks through ExpenseService.insertBatch,
+ * each chunk in its own transaction. Parsing and writing alternate on the calling thread, so the request
+ * stream is never read faster than the database accepts rows and heap use does not depend on the file size.
+ * Invalid rows are skipped and reported; valid rows are kept.
+ */
+@Service // Marks this class as a Spring service
+public class ExpenseImportService {
+
+    /**
+     * Supported upload formats.
+     * CSV needs a header row naming the columns groupId, description, amount, paidBy and optionally owedBy, date and
+     * currency; owedBy is written as "user:amount;user:amount", date as an ISO-8601 local date-time, and currency as
+     * an ISO 4217 code that defaults to Money.DEFAULT_CURRENCY and must be the group's currency.
+     * NDJSON has one Expense JSON object per line.
+     */
+    public enum Format { CSV, NDJSON }
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseImportService.class);
+    private static final int MAX_CACHED_GROUPS = 1024;
+
+    private final ExpenseService expenseService;
+    private final GroupRepository groupRepository;
+    private final ObjectReader expenseReader;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final long progressIntervalNanos;
+
+    @Autowired // Injects ExpenseService, GroupRepository, Jackson's ObjectMapper and the import settings
+    public ExpenseImportService(ExpenseService expenseService, GroupRepository groupRepository, ObjectMapper objectMapper,
+                                @Value("${expenses.import.chunk-size:1000}") int chunkSize,
+                                @Value("${expenses.import.max-errors:100}") int maxErrors,
+                                @Value("${expenses.import.progress-interval:5s}") Duration progressInterval) {
+        this.expenseService = expenseService;
+        this.groupRepository = groupRepository;
+        this.expenseReader = objectMapper.readerFor(Expense.class);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxErrors = Math.max(0, maxErrors);
+        this.progressIntervalNanos = progressInterval.toNanos();
+    }
+
+    /**
+     * Reads an upload to the end, importing every valid row.
+     * @param input The upload, UTF-8 encoded. It is not closed.
+     * @param format The format of the upload.
+     * @return The import summary and the first errors.
+     * @throws IOException if the upload cannot be read.
+     */
+    public ImportReport importExpenses(InputStream input, Format format) throws IOException {
+        Run run = new Run();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        Map<String, Integer> csvColumns = null;
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && csvColumns == null) {
+                csvColumns = parseCsvHeader(line);
+                continue;
+            }
+            run.report.setRowsRead(run.report.getRowsRead() + 1);
+            try {
+                Expense expense = format == Format.CSV ? parseCsvRow(line, csvColumns) : parseJsonRow(line);
+                String error = validate(expense, run);
+                if (error != null) {
+                    run.reject(lineNumber, error);
+                    continue;
+                }
+                run.add(lineNumber, expense);
+            } catch (IllegalArgumentException e) {
+                run.reject(lineNumber, e.getMessage());
+            }
+            if (run.chunk.size() >= chunkSize) {
+                run.flush();
+            }
+            run.logProgress(false);
+        }
+        run.flush();
+        run.logProgress(true);
+        return run.finish();
+    }
+
+    private Expense parseJsonRow(String line) {
+        try {
+            return expenseReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static Map<String, Integer> parseCsvHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        for (String required : List.of("groupId", "description", "amount", "paidBy")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing the " + required + " column");
+            }
+        }
+        return columns;
+    }
+
+    private static Expense parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(line);
+        Expense expense = new Expense();
+        expense.setGroupId(field(fields, columns, "groupId"));
+        expense.setDescription(field(fields, columns, "description"));
+        expense.setPaidBy(field(fields, columns, "paidBy"));
+        String amount = field(fields, columns, "amount");
+        String owedBy = field(fields, columns, "owedBy");
+        String date = field(fields, columns, "date");
+        String currency = field(fields, columns, "currency");
+        try {
+            if (currency != null) {
+                expense.setCurrency(currency); // Before the amounts, which are converted in this currency
+            }
+            expense.setAmount(amount == null ? null : new BigDecimal(amount));
+            if (owedBy != null) {
+                Map<String, BigDecimal> shares = new LinkedHashMap<>();
+                for (String share : owedBy.split(";")) {
+                    int colon = share.lastIndexOf(':');
+                    if (colon <= 0) {
+                        throw new IllegalArgumentException("owedBy entries must look like user:amount, got " + share);
+                    }
+                    shares.put(share.substring(0, colon).trim(), new BigDecimal(share.substring(colon + 1).trim()));
+                }
+                expense.setOwedBy(shares);
+            }
+            if (date != null) {
+                expense.setDate(LocalDateTime.parse(date));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid number: " + e.getMessage());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid date: " + date);
+        }
+        return expense;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one CSV line into fields. Fields may be double-quoted, with "" standing for a quote inside them;
+     * quoted line breaks are not supported.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Checks the required fields and that the payer and every debtor are members of the expense's group.
+     * @return The problem found, or null if the expense is valid.
+     */
+    private String validate(Expense expense, Run run) {
+        if (expense.getGroupId() == null || expense.getGroupId().isEmpty()) {
+            return "groupId is required";
+        }
+        if (expense.getDescription() == null) {
+            return "description is required";
+        }
+        if (expense.getAmountMinor() == null) {
+            return "amount is required";
+        }
+        if (expense.getPaidBy() == null) {
+            return "paidBy is required";
+        }
+        Optional<GroupInfo> group = run.group(expense.getGroupId());
+        if (group.isEmpty()) {
+            return "group not found: " + expense.getGroupId();
+        }
+        if (!group.get().currency().equals(expense.getCurrency())) {
+            return "currency " + expense.getCurrency() + " does not match the group's currency " + group.get().currency();
+        }
+        Set<String> members = group.get().memberIds();
+        if (!members.contains(expense.getPaidBy())) {
+            return "paidBy is not a member of the group: " + expense.getPaidBy();
+        }
+        for (String userId : expense.getShares().keySet()) {
+            if (!members.contains(userId)) {
+                return "owedBy user is not a member of the group: " + userId;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The state of one import: the pending chunk, the report and a bounded cache of group memberships and currencies.
+     */
+    private final class Run {
+
+        private final ImportReport report = new ImportReport();
+        private final List<Expense> chunk = new ArrayList<>(chunkSize);
+        private final Map<String, Optional<GroupInfo>> groups =
+                new LinkedHashMap<>(16, 0.75f, true) { // Access-ordered, so the eldest entry is the least recently used
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Optional<GroupInfo>> eldest) {
+                        return size() > MAX_CACHED_GROUPS;
+                    }
+                };
+        private final long startNanos = System.nanoTime();
+        private long lastProgressNanos = startNanos;
+        private long firstChunkLine;
+        private long lastChunkLine;
+
+        private Optional<GroupInfo> group(String groupId) {
+            return groups.computeIfAbsent(groupId, id -> groupRepository.findCurrencyById(id)
+                    .map(currency -> new GroupInfo(new HashSet<>(groupRepository.findMemberIds(id)), currency)));
+        }
+
+        private void add(long lineNumber, Expense expense) {
+            if (chunk.isEmpty()) {
+                firstChunkLine = lineNumber;
+            }
+            lastChunkLine = lineNumber;
+            chunk.add(expense);
+        }
+
+        private void reject(long lineNumber, String error) {
+            report.setRejected(report.getRejected() + 1);
+            addError("line " + lineNumber + ": " + error);
+        }
+
+        private void addError(String error) {
+            if (report.getErrors().size() < maxErrors) {
+                report.getErrors().add(error);
+            } else {
+                report.setErrorsTruncated(true);
+            }
+        }
+
+        /**
+         * Writes the pending chunk in its own transaction. A chunk the database refuses, e.g. because of a
+         * duplicate ID, is rolled back and reported as a whole; the import carries on with the next chunk.
+         */
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                expenseService.insertBatch(chunk);
+                report.setImported(report.getImported() + chunk.size());
+            } catch (RuntimeException e) {
+                report.setRejected(report.getRejected() + chunk.size());
+                addError("lines " + firstChunkLine + "-" + lastChunkLine + ": chunk of " + chunk.size() +
+                        " rows rejected by the database: " + e.getMessage());
+            }
+            chunk.clear();
+        }
+
+        private void logProgress(boolean done) {
+            long now = System.nanoTime();
+            if (done || now - lastProgressNanos >= progressIntervalNanos) {
+                lastProgressNanos = now;
+                logger.info("Expense import {}: {} rows read, {} imported, {} rejected, {} rows/sec",
+                        done ? "finished" : "in progress", report.getRowsRead(), report.getImported(),
+                        report.getRejected(), Math.round(rowsPerSecond(now)));
+            }
+        }
+
+        private double rowsPerSecond(long now) {
+            double seconds = (now - startNanos) / 1_000_000_000.0;
+            return seconds > 0 ? report.getRowsRead() / seconds : 0.0;
+        }
+
+        private ImportReport finish() {
+            long now = System.nanoTime();
+            report.setElapsedMillis((now - startNanos) / 1_000_000);
+            report.setRowsPerSecond(rowsPerSecond(now));
+            return report;
+        }
+    }
+
+    /**
+     * What an import checks an expense against: its group's members and currency.
+     */
+    private record GroupInfo(Set<String> memberIds, String currency) {
+    }
+}
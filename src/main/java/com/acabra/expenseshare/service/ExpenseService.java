@@ -2,14 +2,33 @@
 package com.acabra.expenseshare.service;
 
 import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.ExpenseCursor;
+import com.acabra.expenseshare.model.ExpenseShare;
+import com.acabra.expenseshare.model.GroupShareTotal;
 import com.acabra.expenseshare.repository.ExpenseRepository; // Assuming you'll create this repository
+import com.acabra.expenseshare.service.cache.ReadThroughCache;
+import com.acabra.expenseshare.service.export.ExportSpillCache;
+import com.acabra.expenseshare.service.outbox.OutboxService;
+import com.acabra.expenseshare.service.settlement.SettlementService;
+import com.acabra.expenseshare.service.stream.GroupEventStreams;
+import com.acabra.expenseshare.util.Money;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Service layer for managing Expense entities.
@@ -20,26 +39,154 @@ import java.util.UUID;
 public class ExpenseService {
 
     private final ExpenseRepository expenseRepository;
+    private final BalanceService balanceService;
+    private final SettlementService settlementService;
+    private final GroupService groupService;
+    private final ExportSpillCache exportSpillCache;
+    private final OutboxService outboxService;
+    private final GroupEventStreams groupEventStreams;
+    private final ReadThroughCache<String, List<Expense>> groupExpensesCache;
 
-    @Autowired // Injects ExpenseRepository
-    public ExpenseService(ExpenseRepository expenseRepository) {
+    @Autowired // Injects the repository, the services notified of expense changes and the group expense cache
+    public ExpenseService(ExpenseRepository expenseRepository, BalanceService balanceService,
+                          SettlementService settlementService, GroupService groupService,
+                          ExportSpillCache exportSpillCache, OutboxService outboxService,
+                          GroupEventStreams groupEventStreams,
+                          ReadThroughCache<String, List<Expense>> groupExpensesCache) {
         this.expenseRepository = expenseRepository;
+        this.balanceService = balanceService;
+        this.settlementService = settlementService;
+        this.groupService = groupService;
+        this.exportSpillCache = exportSpillCache;
+        this.outboxService = outboxService;
+        this.groupEventStreams = groupEventStreams;
+        this.groupExpensesCache = groupExpensesCache;
     }
 
     /**
      * Creates a new expense.
      * If the expense ID is not set, a new UUID is generated.
-     * Sets the expense date.
+     * Sets the expense date, records the expense in the group's balance ledger and queues an expense.created event.
      * @param expense The Expense object to create.
      * @return The created Expense.
+     * @throws IllegalArgumentException if the expense's currency is not its group's currency.
      */
     public Expense createExpense(Expense expense) {
+        checkGroupCurrency(expense.getGroupId(), expense.getCurrency());
         if (expense.getId() == null || expense.getId().isEmpty()) {
             expense.setId(UUID.randomUUID().toString());
         }
+        lockGroup(expense.getGroupId());
         // Assuming date is set in Expense model's constructor or handled externally
         // expense.setDate(LocalDateTime.now());
-        return expenseRepository.save(expense);
+        Expense savedExpense = expenseRepository.insert(expense); // save() would issue an UPDATE for a preset ID
+        balanceService.recordExpense(savedExpense);
+        outboxService.expenseCreated(savedExpense);
+        groupEventStreams.publishAfterCommit(savedExpense.getGroupId(), OutboxService.EXPENSE_CREATED, savedExpense);
+        evictGroup(savedExpense.getGroupId());
+        return savedExpense;
+    }
+
+    /**
+     * Checks a batch of expenses before it is created.
+     * Every expense needs a group that exists, a description, an amount in the group's currency and a payer.
+     * Preset IDs must be unique within the batch and not taken yet.
+     * @param expenses The expenses to check.
+     * @return One message per problem found, prefixed with the index of the offending expense; empty if the batch is valid.
+     */
+    @Transactional(readOnly = true)
+    public List<String> validateExpenses(List<Expense> expenses) {
+        List<String> errors = new ArrayList<>();
+        Set<String> presetIds = new HashSet<>();
+        for (Expense expense : expenses) {
+            if (expense != null && expense.getId() != null && !expense.getId().isEmpty()) {
+                presetIds.add(expense.getId());
+            }
+        }
+        Set<String> takenIds = presetIds.isEmpty() ? Set.of()
+                : new HashSet<>(expenseRepository.findExistingIds(presetIds)); // One query for the whole batch
+        Set<String> seenIds = new HashSet<>();
+        Map<String, Optional<String>> groupCurrencies = new HashMap<>(); // Batches usually target a handful of groups
+        for (int i = 0; i < expenses.size(); i++) {
+            Expense expense = expenses.get(i);
+            if (expense == null) {
+                errors.add("[" + i + "] expense is null");
+                continue;
+            }
+            if (expense.getId() != null && !expense.getId().isEmpty()) {
+                if (takenIds.contains(expense.getId())) {
+                    errors.add("[" + i + "] id already exists: " + expense.getId());
+                } else if (!seenIds.add(expense.getId())) {
+                    errors.add("[" + i + "] duplicate id in the batch: " + expense.getId());
+                }
+            }
+            if (expense.getGroupId() == null || expense.getGroupId().isEmpty()) {
+                errors.add("[" + i + "] groupId is required");
+            } else {
+                Optional<String> currency = groupCurrencies.computeIfAbsent(expense.getGroupId(),
+                        groupService::findGroupCurrency);
+                if (currency.isEmpty()) {
+                    errors.add("[" + i + "] group not found: " + expense.getGroupId());
+                } else if (!currency.get().equals(expense.getCurrency())) {
+                    errors.add("[" + i + "] currency " + expense.getCurrency() + " does not match the group's currency "
+                            + currency.get());
+                }
+            }
+            if (expense.getDescription() == null) {
+                errors.add("[" + i + "] description is required");
+            }
+            if (expense.getAmount() == null) {
+                errors.add("[" + i + "] amount is required");
+            }
+            if (expense.getPaidBy() == null) {
+                errors.add("[" + i + "] paidBy is required");
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Creates a batch of expenses in one transaction.
+     * Rows are written with JDBC batch inserts, and the balance ledger and settlement cache are updated
+     * once for the whole batch rather than once per expense.
+     * @param expenses The expenses to create; they are checked with validateExpenses here, so callers that already
+     *                 did so (and want the error list) should call insertBatch instead.
+     * @return The created Expenses.
+     * @throws IllegalArgumentException if the batch is invalid.
+     */
+    public List<Expense> createExpenses(List<Expense> expenses) {
+        List<String> errors = validateExpenses(expenses);
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Invalid expense batch: " + errors);
+        }
+        insertBatch(expenses);
+        return expenses;
+    }
+
+    /**
+     * Inserts a batch of expenses that the caller has already checked with validateExpenses, updating the balance
+     * ledger and the settlement cache once for the whole batch.
+     * @param expenses The expenses to insert; missing IDs and dates are filled in.
+     */
+    public void insertBatch(List<Expense> expenses) {
+        Set<String> groupIds = new TreeSet<>(); // Sorted, so concurrent batches lock their groups in the same order
+        for (Expense expense : expenses) {
+            if (expense.getId() == null || expense.getId().isEmpty()) {
+                expense.setId(UUID.randomUUID().toString());
+            }
+            if (expense.getDate() == null) {
+                expense.setDate(LocalDateTime.now());
+            }
+            groupIds.add(expense.getGroupId());
+        }
+        groupIds.forEach(this::lockGroup);
+        expenseRepository.insertAll(expenses);
+        balanceService.recordExpenses(expenses);
+        outboxService.expensesCreated(expenses);
+        for (Expense expense : expenses) {
+            groupEventStreams.publishAfterCommit(expense.getGroupId(), OutboxService.EXPENSE_CREATED, expense);
+        }
+        groupIds.forEach(this::evictGroup);
     }
 
     /**
@@ -56,45 +203,185 @@ public class ExpenseService {
      * @return A list of all Expenses.
      */
     public List<Expense> findAllExpenses() {
-        return (List<Expense>) expenseRepository.findAll();
+        return expenseRepository.findAllWithShares();
     }
 
     /**
-     * Finds expenses by their associated group ID.
+     * Finds expenses by their associated group ID, through the group expense cache.
      * Requires a custom method in ExpenseRepository.
      * @param groupId The ID of the group.
-     * @return A list of Expenses belonging to the specified group.
+     * @return An unmodifiable list of Expenses belonging to the specified group. The Expenses may be shared
+     *         and must not be modified.
      */
+    @Transactional(readOnly = true)
     public List<Expense> findExpensesByGroupId(String groupId) {
-        return expenseRepository.findByGroupId(groupId); // This method needs to be defined in ExpenseRepository
+        // This method needs to be defined in ExpenseRepository
+        return groupExpensesCache.get(groupId, key -> List.copyOf(expenseRepository.findByGroupId(key)));
+    }
+
+    /**
+     * Sums a user's expense shares per group, across every group the user takes part in.
+     * @param userId The ID of the user.
+     * @return One GroupShareTotal per group the user owes a share in.
+     */
+    @Transactional(readOnly = true)
+    public List<GroupShareTotal> findShareTotalsByUserId(String userId) {
+        return expenseRepository.findShareTotalsByUserId(userId);
+    }
+
+    /**
+     * Finds one page of expenses ordered by (date, id), using keyset pagination.
+     * @param groupId The ID of the group, or null for all expenses.
+     * @param after The cursor of the previous page's last expense, or null for the first page.
+     * @param limit The maximum number of expenses to return.
+     * @return A list of at most limit Expenses.
+     */
+    @Transactional(readOnly = true)
+    public List<Expense> findExpensesPage(String groupId, ExpenseCursor after, int limit) {
+        return expenseRepository.findPage(groupId, after, limit);
+    }
+
+    /**
+     * Passes every expense, optionally restricted to a group, to the given action one row at a time,
+     * in (date, id) order. Rows come straight off the JDBC cursor, so memory does not grow with the
+     * number of expenses. The read-only transaction keeps the cursor open while the action runs.
+     * @param groupId The ID of the group, or null for all expenses.
+     * @param action The action to apply to each expense.
+     */
+    @Transactional(readOnly = true)
+    public void forEachExpense(String groupId, Consumer<Expense> action) {
+        expenseRepository.forEach(groupId, action);
     }
 
     /**
      * Updates an existing expense.
+     * The previous version is reversed out of the balance ledger before the new one is recorded.
+     * The update is rejected if the expense changed since the caller read it: either the given version is not
+     * the current one, or a concurrent transaction incremented it first.
      * @param id The ID of the expense to update.
-     * @param updatedExpense The updated Expense object.
+     * @param updatedExpense The updated Expense object; its version, if set, is the one the caller read.
      * @return The updated Expense, or null if the original expense was not found.
+     * @throws OptimisticLockingFailureException if the expense was changed concurrently.
+     * @throws IllegalArgumentException if the updated expense is not in the currency of the existing one.
      */
     public Expense updateExpense(String id, Expense updatedExpense) {
         return expenseRepository.findById(id).map(existingExpense -> {
+            if (updatedExpense.getVersion() != null && !updatedExpense.getVersion().equals(existingExpense.getVersion())) {
+                throw new OptimisticLockingFailureException("Expense " + id + " was modified (version "
+                        + existingExpense.getVersion() + ", expected " + updatedExpense.getVersion() + ")");
+            }
+            if (!existingExpense.getCurrency().equals(updatedExpense.getCurrency())) {
+                throw new IllegalArgumentException("Expense " + id + " is in " + existingExpense.getCurrency()
+                        + ", not " + updatedExpense.getCurrency());
+            }
+            lockGroup(existingExpense.getGroupId()); // The group ID never changes, so the unlocked read is enough
+            balanceService.reverseExpense(existingExpense); // Must run before the fields below are overwritten
             existingExpense.setDescription(updatedExpense.getDescription());
-            existingExpense.setAmount(updatedExpense.getAmount());
+            existingExpense.setAmountMinor(updatedExpense.getAmountMinor());
             existingExpense.setPaidBy(updatedExpense.getPaidBy());
-            existingExpense.setOwedBy(updatedExpense.getOwedBy());
-            return expenseRepository.save(existingExpense);
+            existingExpense.setShares(updatedExpense.getShares());
+            Expense savedExpense = expenseRepository.save(existingExpense); // Increments the version if it is unchanged
+            balanceService.recordExpense(savedExpense);
+            outboxService.expenseUpdated(savedExpense);
+            groupEventStreams.publishAfterCommit(savedExpense.getGroupId(), OutboxService.EXPENSE_UPDATED, savedExpense);
+            evictGroup(savedExpense.getGroupId());
+            return savedExpense;
         }).orElse(null);
     }
 
     /**
-     * Deletes an expense by its ID.
+     * Sets one member's share of an expense with targeted statements, without rewriting the expense or its
+     * other shares. The expense amount changes by the same delta as the share, so the shares keep adding up to
+     * the amount: the member's balance moves by the delta and the payer's credit by the opposite one.
+     * @param id The ID of the expense.
+     * @param userId The ID of the member whose share is adjusted.
+     * @param amount The new share, as a decimal in the expense's currency.
+     * @param expectedVersion The version the caller read, or null to skip the check.
+     * @return The updated Expense, or empty if the expense was not found.
+     * @throws OptimisticLockingFailureException if expectedVersion is not the expense's current version.
+     * @throws IllegalArgumentException if the member has no share in the expense, or the amount does not fit
+     *         the currency.
+     */
+    public Optional<Expense> adjustShare(String id, String userId, BigDecimal amount, Long expectedVersion) {
+        Optional<String> groupId = expenseRepository.findById(id).map(Expense::getGroupId);
+        if (groupId.isEmpty()) {
+            return Optional.empty();
+        }
+        lockGroup(groupId.get()); // Before the expense row, in the same order as the other expense writes
+        // Incrementing the version locks the expense row, so the expense read below cannot go stale
+        int updated = expectedVersion == null
+                ? expenseRepository.incrementVersion(id)
+                : expenseRepository.incrementVersionIfMatches(id, expectedVersion);
+        if (updated == 0) {
+            if (expectedVersion != null && expenseRepository.existsById(id)) {
+                throw new OptimisticLockingFailureException("Expense " + id + " was modified (expected version "
+                        + expectedVersion + ")");
+            }
+            return Optional.empty();
+        }
+        Expense savedExpense = expenseRepository.findById(id).orElseThrow();
+        ExpenseShare share = savedExpense.getShares().get(userId);
+        if (share == null) {
+            throw new IllegalArgumentException("User " + userId + " has no share in expense " + id);
+        }
+        long previous = share.getAmountMinor();
+        share.setAmountMinor(Money.toMinor(amount, savedExpense.getCurrency()));
+        savedExpense.setAmountMinor(Math.addExact(savedExpense.getAmountMinor(), share.getAmountMinor() - previous));
+        expenseRepository.updateShareAmount(id, userId, share.getAmountMinor());
+        expenseRepository.updateAmount(id, savedExpense.getAmountMinor());
+        balanceService.adjustShare(savedExpense.getGroupId(), userId, savedExpense.getPaidBy(), previous,
+                share.getAmountMinor());
+        outboxService.expenseUpdated(savedExpense);
+        groupEventStreams.publishAfterCommit(savedExpense.getGroupId(), OutboxService.EXPENSE_UPDATED, savedExpense);
+        evictGroup(savedExpense.getGroupId());
+        return Optional.of(savedExpense);
+    }
+
+    /**
+     * Deletes an expense by its ID and reverses it out of the group's balance ledger.
      * @param id The ID of the expense to delete.
      * @return True if the expense was deleted, false otherwise.
      */
     public boolean deleteExpense(String id) {
-        if (expenseRepository.existsById(id)) {
+        return expenseRepository.findById(id).map(existingExpense -> {
+            lockGroup(existingExpense.getGroupId());
+            balanceService.reverseExpense(existingExpense);
             expenseRepository.deleteById(id);
+            outboxService.expenseDeleted(existingExpense);
+            groupEventStreams.publishAfterCommit(existingExpense.getGroupId(), OutboxService.EXPENSE_DELETED,
+                    existingExpense);
+            evictGroup(existingExpense.getGroupId());
             return true;
+        }).orElse(false);
+    }
+
+    /**
+     * Rejects an expense whose currency is not the one of its group. Expenses of unknown groups are left to the
+     * database's foreign key.
+     */
+    private void checkGroupCurrency(String groupId, String currency) {
+        Optional<String> groupCurrency = groupId == null ? Optional.empty() : groupService.findGroupCurrency(groupId);
+        if (groupCurrency.isPresent() && !groupCurrency.get().equals(currency)) {
+            throw new IllegalArgumentException("Currency " + currency + " does not match the group's currency "
+                    + groupCurrency.get());
         }
-        return false;
+    }
+
+    /**
+     * Bumps a group's change counter so clients holding its ETag refetch. Every expense write calls this before
+     * it touches the expense or the balance ledger: the UPDATE locks the group row, so concurrent writes to a group
+     * queue on that row instead of locking the group's ledger rows in different orders and deadlocking.
+     */
+    private void lockGroup(String groupId) {
+        groupService.incrementContentVersion(groupId);
+    }
+
+    /**
+     * Drops everything cached about a group whose expenses changed.
+     */
+    private void evictGroup(String groupId) {
+        groupExpensesCache.invalidate(groupId);
+        settlementService.evictGroup(groupId);
+        exportSpillCache.evictGroup(groupId);
     }
 }
@@ -1,9 +1,15 @@
 // src/main/java/com/acabra/expenseshare/service/GroupService.java
 package com.acabra.expenseshare.service;
 
+import com.acabra.expenseshare.model.Expense;
 import com.acabra.expenseshare.model.Group;
 import com.acabra.expenseshare.repository.GroupRepository; // Assuming you'll create this repository
+import com.acabra.expenseshare.service.cache.ReadThroughCache;
+import com.acabra.expenseshare.service.export.ExportSpillCache;
+import com.acabra.expenseshare.service.outbox.OutboxService;
+import com.acabra.expenseshare.service.settlement.SettlementService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional; // For transactional operations
 
@@ -20,10 +26,23 @@ import java.util.UUID;
 public class GroupService {
 
     private final GroupRepository groupRepository;
+    private final SettlementService settlementService;
+    private final ExportSpillCache exportSpillCache;
+    private final OutboxService outboxService;
+    private final ReadThroughCache<String, Group> groupCache;
+    private final ReadThroughCache<String, List<Expense>> groupExpensesCache;
 
-    @Autowired // Injects GroupRepository
-    public GroupService(GroupRepository groupRepository) {
+    @Autowired // Injects GroupRepository, the services and caches that depend on a group's state
+    public GroupService(GroupRepository groupRepository, SettlementService settlementService,
+                        ExportSpillCache exportSpillCache, OutboxService outboxService,
+                        ReadThroughCache<String, Group> groupCache,
+                        ReadThroughCache<String, List<Expense>> groupExpensesCache) {
         this.groupRepository = groupRepository;
+        this.settlementService = settlementService;
+        this.exportSpillCache = exportSpillCache;
+        this.outboxService = outboxService;
+        this.groupCache = groupCache;
+        this.groupExpensesCache = groupExpensesCache;
     }
 
     /**
@@ -41,16 +60,60 @@ public class GroupService {
         // If not, uncomment/add lines like:
         // group.setCreatedAt(LocalDateTime.now());
         // group.setCreatedBy(SecurityContextHolder.getContext().getAuthentication().getName()); // Example for actual user
-        return groupRepository.save(group);
+        Group savedGroup = groupRepository.insert(group); // save() would issue an UPDATE for a preset ID
+        outboxService.groupCreated(savedGroup);
+        return savedGroup;
     }
 
     /**
-     * Finds a group by its ID.
+     * Finds a group by its ID, through the group cache.
      * @param id The ID of the group.
-     * @return An Optional containing the Group if found.
+     * @return An Optional containing the Group if found. The Group may be shared and must not be modified.
      */
+    @Transactional(readOnly = true)
     public Optional<Group> findGroupById(String id) {
-        return groupRepository.findById(id);
+        return Optional.ofNullable(groupCache.get(id, key -> groupRepository.findById(key).orElse(null)));
+    }
+
+    /**
+     * Checks whether a group exists without loading it.
+     * @param id The ID of the group.
+     * @return True if the group exists, false otherwise.
+     */
+    public boolean existsGroupById(String id) {
+        return groupRepository.existsById(id);
+    }
+
+    /**
+     * Reads a group's currency without loading the group.
+     * @param id The ID of the group.
+     * @return An Optional containing the currency code if the group exists.
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> findGroupCurrency(String id) {
+        return groupRepository.findCurrencyById(id);
+    }
+
+    /**
+     * Reads a group's change counter, which changes whenever the group, its members or its expenses change,
+     * without loading the group.
+     * @param id The ID of the group.
+     * @return An Optional containing the counter if the group exists.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> findGroupContentVersion(String id) {
+        return groupRepository.findContentVersionById(id);
+    }
+
+    /**
+     * Marks a group's contents as changed by incrementing its change counter. Called for every expense change
+     * in the group; the group's optimistic locking version is left alone, so a client updating the group itself
+     * does not conflict with expense writes.
+     * @param id The ID of the group.
+     */
+    public void incrementContentVersion(String id) {
+        groupRepository.incrementContentVersion(id);
+        groupCache.invalidate(id); // The cached group carries the old counter
     }
 
     /**
@@ -63,20 +126,105 @@ public class GroupService {
     }
 
     /**
-     * Updates an existing group.
+     * Finds all groups a user is a member of.
+     * @param userId The ID of the member.
+     * @return A list of Groups the user belongs to.
+     */
+    @Transactional(readOnly = true)
+    public List<Group> findGroupsByMember(String userId) {
+        return groupRepository.findByMember(userId);
+    }
+
+    /**
+     * Updates an existing group, replacing its name and member list.
+     * The update is rejected if the group changed since the caller read it: either the given version is not the
+     * current one, or a concurrent transaction incremented it first.
      * @param id The ID of the group to update.
-     * @param updatedGroup The updated Group object.
+     * @param updatedGroup The updated Group object; its version, if set, is the one the caller read.
      * @return The updated Group, or null if the original group was not found.
+     * @throws OptimisticLockingFailureException if the group was changed concurrently.
      */
     public Group updateGroup(String id, Group updatedGroup) {
         return groupRepository.findById(id).map(existingGroup -> {
+            if (updatedGroup.getVersion() != null && !updatedGroup.getVersion().equals(existingGroup.getVersion())) {
+                throw new OptimisticLockingFailureException("Group " + id + " was modified (version "
+                        + existingGroup.getVersion() + ", expected " + updatedGroup.getVersion() + ")");
+            }
             existingGroup.setName(updatedGroup.getName());
             // Update members cautiously, typically you might have separate methods for adding/removing members
             existingGroup.setMembers(updatedGroup.getMembers());
-            return groupRepository.save(existingGroup);
+            exportSpillCache.evictGroup(id);
+            Group savedGroup = groupRepository.save(existingGroup); // Increments the version if it is unchanged
+            groupRepository.incrementContentVersion(id);
+            savedGroup.setContentVersion(savedGroup.getContentVersion() + 1);
+            groupCache.invalidate(id);
+            outboxService.groupUpdated(savedGroup);
+            return savedGroup;
         }).orElse(null);
     }
 
+    /**
+     * Adds one member to a group with targeted statements, without rewriting the group or its other members.
+     * @param id The ID of the group.
+     * @param userId The ID of the member to add; adding an existing member changes nothing but the version.
+     * @param expectedVersion The version the caller read, or null to skip the check.
+     * @return The updated Group, or empty if the group was not found.
+     * @throws OptimisticLockingFailureException if expectedVersion is not the group's current version.
+     */
+    public Optional<Group> addMember(String id, String userId, Long expectedVersion) {
+        if (!lockVersion(id, expectedVersion)) {
+            return Optional.empty();
+        }
+        if (groupRepository.findMemberIndex(id, userId).isEmpty()) {
+            groupRepository.addMember(id, userId);
+        }
+        return Optional.of(memberPatched(id));
+    }
+
+    /**
+     * Removes one member from a group with targeted statements, without rewriting the group or its other members.
+     * @param id The ID of the group.
+     * @param userId The ID of the member to remove; removing a non-member changes nothing but the version.
+     * @param expectedVersion The version the caller read, or null to skip the check.
+     * @return The updated Group, or empty if the group was not found.
+     * @throws OptimisticLockingFailureException if expectedVersion is not the group's current version.
+     */
+    public Optional<Group> removeMember(String id, String userId, Long expectedVersion) {
+        if (!lockVersion(id, expectedVersion)) {
+            return Optional.empty();
+        }
+        groupRepository.findMemberIndex(id, userId).ifPresent(memberIndex -> {
+            groupRepository.removeMember(id, userId);
+            groupRepository.closeMemberIndexGap(id, memberIndex);
+        });
+        return Optional.of(memberPatched(id));
+    }
+
+    /**
+     * Increments a group's version and change counter, checking the version against the expected one.
+     * The row lock this takes serializes the partial update with any other change to the group until the
+     * transaction ends.
+     * @return False if the group does not exist.
+     * @throws OptimisticLockingFailureException if the group exists with another version.
+     */
+    private boolean lockVersion(String id, Long expectedVersion) {
+        int updated = expectedVersion == null
+                ? groupRepository.incrementVersion(id)
+                : groupRepository.incrementVersionIfMatches(id, expectedVersion);
+        if (updated == 0 && expectedVersion != null && groupRepository.existsById(id)) {
+            throw new OptimisticLockingFailureException("Group " + id + " was modified (expected version "
+                    + expectedVersion + ")");
+        }
+        return updated > 0;
+    }
+
+    private Group memberPatched(String id) {
+        groupCache.invalidate(id);
+        Group group = groupRepository.findById(id).orElseThrow();
+        outboxService.groupUpdated(group);
+        return group;
+    }
+
     /**
      * Deletes a group by its ID.
      * @param id The ID of the group to delete.
@@ -85,6 +233,11 @@ public class GroupService {
     public boolean deleteGroup(String id) {
         if (groupRepository.existsById(id)) {
             groupRepository.deleteById(id);
+            groupCache.invalidate(id);
+            groupExpensesCache.invalidate(id);
+            outboxService.groupDeleted(id);
+            settlementService.evictGroup(id);
+            exportSpillCache.evictGroup(id);
             return true;
         }
         return false;
@@ -0,0 +1,172 @@
+// src/main/java/com/acabra/expenseshare/service/cache/InMemoryReadThroughCache.java
+package com.acabra.expenseshare.service.cache;
+
+import com.acabra.expenseshare.util.TransactionCallbacks;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-process ReadThroughCache bounded by entry count, by total estimated weight and by a TTL.
+ * Entries are kept in an access-ordered LinkedHashMap, so the least recently used ones are evicted first when
+ * either bound is exceeded. The weight of a value is estimated by the given weigher (in bytes), which gives an
+ * approximate memory footprint to size the cache with.
+ * <p>
+ * Loads run outside the lock, so a slow query does not block hits on other keys. A value loaded while its key was
+ * invalidated (or the whole cache cleared) is returned to its caller but not cached, since it may predate the write.
+ * Invalidations are tracked per key, and only for keys with a load in flight, so a write to one key does not keep
+ * the values of other keys from being cached.
+ */
+public class InMemoryReadThroughCache<K, V> implements ReadThroughCache<K, V> {
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final long ttlMillis;
+    private final ToLongFunction<? super V> weigher;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true); // Guarded by this
+    private long weight; // Guarded by this
+    private final Map<K, Load> loads = new HashMap<>(); // Guarded by this; only keys with a load in flight
+    private long clears; // Guarded by this; bumped by every invalidateAll
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache. A maxEntries of 0 disables caching: every get calls the loader.
+     * @param maxEntries The maximum number of entries.
+     * @param maxWeight The maximum total estimated weight of the entries, in bytes.
+     * @param ttl How long an entry may be served after it was loaded.
+     * @param weigher Estimates the weight of a value, in bytes.
+     */
+    public InMemoryReadThroughCache(int maxEntries, long maxWeight, Duration ttl, ToLongFunction<? super V> weigher) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.ttlMillis = ttl.toMillis();
+        this.weigher = weigher;
+    }
+
+    @Override
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        if (maxEntries <= 0) {
+            return loader.apply(key);
+        }
+        long now = System.currentTimeMillis();
+        Load load;
+        long generation;
+        long clearStamp;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits++;
+                return entry.value;
+            }
+            if (entry != null) {
+                remove(key); // Expired
+                evictions++;
+            }
+            misses++;
+            load = loads.computeIfAbsent(key, k -> new Load());
+            load.loaders++;
+            generation = load.generation;
+            clearStamp = clears;
+        }
+        V value = null;
+        try {
+            value = loader.apply(key);
+        } finally {
+            long valueWeight = value == null ? 0 : weigher.applyAsLong(value);
+            synchronized (this) {
+                if (--load.loaders == 0) {
+                    loads.remove(key);
+                }
+                if (value != null && generation == load.generation && clearStamp == clears
+                        && valueWeight <= maxWeight) {
+                    remove(key);
+                    entries.put(key, new Entry<>(value, valueWeight, now + ttlMillis));
+                    weight += valueWeight;
+                    evictEldest();
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void invalidate(K key) {
+        TransactionCallbacks.nowAndAfterCompletion(() -> {
+            synchronized (this) {
+                Load load = loads.get(key);
+                if (load != null) {
+                    load.generation++;
+                }
+                remove(key);
+            }
+        });
+    }
+
+    @Override
+    public void invalidateAll() {
+        TransactionCallbacks.nowAndAfterCompletion(() -> {
+            synchronized (this) {
+                clears++;
+                entries.clear();
+                weight = 0;
+            }
+        });
+    }
+
+    /**
+     * Returns the cache counters, used to size the cache against real traffic.
+     * @return A map with size, maxEntries, weightBytes (estimated footprint), maxWeightBytes, hits, misses,
+     *         evictions and hitRatio.
+     */
+    @Override
+    public synchronized Map<String, Object> getStats() {
+        long requests = hits + misses;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("weightBytes", weight);
+        stats.put("maxWeightBytes", maxWeight);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("hitRatio", requests == 0 ? 0.0 : (double) hits / requests);
+        return stats;
+    }
+
+    private void remove(K key) {
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            weight -= removed.weight;
+        }
+    }
+
+    private void evictEldest() {
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * A cached value with its estimated weight and expiry time.
+     */
+    private record Entry<V>(V value, long weight, long expiresAt) {
+    }
+
+    /**
+     * The loads in flight for one key, and how many times the key was invalidated since the first of them started.
+     */
+    private static final class Load {
+        private int loaders;
+        private long generation;
+    }
+}
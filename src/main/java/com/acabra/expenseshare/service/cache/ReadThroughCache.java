@@ -0,0 +1,42 @@
+// src/main/java/com/acabra/expenseshare/service/cache/ReadThroughCache.java
+package com.acabra.expenseshare.service.cache;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A read-through cache: callers ask for a key together with the loader that reads it from the database,
+ * and the cache decides whether to call the loader.
+ * Services only depend on this interface, so the in-process implementation can be replaced by one backed
+ * by a distributed cache without touching them.
+ * @param <K> The key type.
+ * @param <V> The value type. Values are shared between callers and must not be modified.
+ */
+public interface ReadThroughCache<K, V> {
+
+    /**
+     * Returns the cached value of a key, loading and caching it on a miss.
+     * @param key The key.
+     * @param loader Reads the value from the source of truth; may return null, which is not cached.
+     * @return The value, or null if the loader returned null.
+     */
+    V get(K key, Function<? super K, ? extends V> loader);
+
+    /**
+     * Removes a key, now and again after the current transaction completes, so a value loaded
+     * from the pre-commit state by a concurrent reader cannot outlive the write.
+     * @param key The key.
+     */
+    void invalidate(K key);
+
+    /**
+     * Removes every key, now and again after the current transaction completes.
+     */
+    void invalidateAll();
+
+    /**
+     * Returns the cache counters.
+     * @return A map with at least size, hits, misses, evictions and hitRatio.
+     */
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,45 @@
+// src/main/java/com/acabra/expenseshare/service/export/ExportFormat.java
+package com.acabra.expenseshare.service.export;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formats a group's expenses can be exported in.
+ * CSV uses the same columns as the CSV import (plus the expense ID), so an export can be imported again.
+ */
+public enum ExportFormat {
+
+    CSV(MediaType.parseMediaType("text/csv"), "csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Looks a format up by its file extension, ignoring case.
+     * @param extension "csv" or "ndjson".
+     * @return The matching format.
+     * @throws IllegalArgumentException if the extension is not supported.
+     */
+    public static ExportFormat fromExtension(String extension) {
+        for (ExportFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(extension)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + extension);
+    }
+}
@@ -0,0 +1,253 @@
+// src/main/java/com/acabra/expenseshare/service/export/ExportSpillCache.java
+package com.acabra.expenseshare.service.export;
+
+import com.acabra.expenseshare.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of rendered group exports, spilled to temp files and memory-mapped.
+ * A repeat download is served straight from the page cache, without querying the database or rendering again,
+ * until the group's next change. Entries are bounded by count (LRU); evicted files are deleted.
+ */
+@Service // Marks this class as a Spring service
+public class ExportSpillCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportSpillCache.class);
+    private static final long MAX_SEGMENT_BYTES = 1L << 30; // A single mapping is limited to 2 GB
+    private static final int STAMP_STRIPES = 4096; // A power of two
+
+    private final Path directory;
+    private final int maxFiles;
+    private final Map<String, Spill> cache;
+    // Change stamps, one per stripe of group IDs, so memory stays fixed however many groups change. An export
+    // rendered across a change of its stripe is not cached; a change to another group of the stripe only costs
+    // that export its caching
+    private final AtomicLongArray changeStamps = new AtomicLongArray(STAMP_STRIPES);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired // Injects the spill directory and the maximum number of cached files
+    public ExportSpillCache(@Value("${expenses.export.spill-dir:${java.io.tmpdir}/expenseshare-exports}") Path directory,
+                            @Value("${expenses.export.cache.max-files:64}") int maxFiles) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxFiles = maxFiles;
+        // Access-ordered LinkedHashMap gives a simple LRU bound on the number of cached files
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Spill> eldest) {
+                if (size() > maxFiles) {
+                    evictions.increment();
+                    eldest.getValue().delete();
+                    return true;
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Finds the cached export of a group, counting a hit or a miss.
+     * @param groupId The ID of the group.
+     * @param format The export format.
+     * @return The cached export, or null if there is none.
+     */
+    public Spill find(String groupId, ExportFormat format) {
+        Spill spill = cache.get(key(groupId, format));
+        (spill != null ? hits : misses).increment();
+        return spill;
+    }
+
+    /**
+     * Returns the group's current change stamp. Read it before rendering an export and pass it to publish.
+     * @param groupId The ID of the group.
+     * @return An opaque value that changes whenever evictGroup is called for the group.
+     */
+    public long stamp(String groupId) {
+        return changeStamps.get(stripe(groupId));
+    }
+
+    /**
+     * Creates an empty temp file in the spill directory for an export to be rendered into.
+     * @return The path of the new file.
+     * @throws IOException if the file cannot be created.
+     */
+    public Path createSpillFile() throws IOException {
+        return Files.createTempFile(directory, "export-", ".tmp");
+    }
+
+    /**
+     * Maps a fully rendered export file and caches it, unless the group changed since the export started,
+     * in which case the file is deleted.
+     * @param groupId The ID of the group.
+     * @param format The export format.
+     * @param stamp The change stamp read before the export started.
+     * @param file The rendered export; ownership passes to the cache.
+     */
+    public void publish(String groupId, ExportFormat format, long stamp, Path file) {
+        Spill spill;
+        try {
+            spill = Spill.map(file);
+        } catch (IOException e) {
+            logger.warn("Could not map export spill file {}: {}", file, e.getMessage());
+            deleteQuietly(file);
+            return;
+        }
+        synchronized (cache) {
+            if (maxFiles <= 0 || stamp(groupId) != stamp) {
+                spill.delete();
+                return;
+            }
+            Spill previous = cache.put(key(groupId, format), spill);
+            if (previous != null) {
+                previous.delete();
+            }
+        }
+    }
+
+    /**
+     * Drops every cached export of a group. Must be called on every change to the group or its expenses.
+     * Runs again after the current transaction completes, so an export that read the pre-commit state
+     * is not cached either.
+     * @param groupId The ID of the group that changed.
+     */
+    public void evictGroup(String groupId) {
+        TransactionCallbacks.nowAndAfterCompletion(() -> {
+            synchronized (cache) {
+                changeStamps.incrementAndGet(stripe(groupId));
+                for (ExportFormat format : ExportFormat.values()) {
+                    Spill removed = cache.remove(key(groupId, format));
+                    if (removed != null) {
+                        removed.delete();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the counters of this cache.
+     * @return A map with the number of cached files, their total size and the hit/miss/eviction counters.
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        long bytes;
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+            bytes = cache.values().stream().mapToLong(Spill::size).sum();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("maxFiles", maxFiles);
+        stats.put("bytes", bytes);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRatio", requests == 0 ? 0.0 : (double) hitCount / requests);
+        return stats;
+    }
+
+    @PreDestroy
+    void deleteAll() {
+        synchronized (cache) {
+            cache.values().forEach(Spill::delete);
+            cache.clear();
+        }
+    }
+
+    private static int stripe(String groupId) {
+        int hash = groupId.hashCode();
+        return (hash ^ (hash >>> 16)) & (STAMP_STRIPES - 1);
+    }
+
+    private static String key(String groupId, ExportFormat format) {
+        return groupId + ':' + format.name();
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete export spill file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * A rendered export mapped into memory. The mappings stay valid after the file is deleted,
+     * so downloads in progress are not affected by eviction.
+     */
+    public static final class Spill {
+
+        private final Path file;
+        private final long size;
+        private final List<MappedByteBuffer> segments;
+
+        private Spill(Path file, long size, List<MappedByteBuffer> segments) {
+            this.file = file;
+            this.size = size;
+            this.segments = segments;
+        }
+
+        private static Spill map(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                List<MappedByteBuffer> segments = new ArrayList<>();
+                for (long position = 0; position < size; position += MAX_SEGMENT_BYTES) {
+                    segments.add(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                            Math.min(MAX_SEGMENT_BYTES, size - position)));
+                }
+                return new Spill(file, size, segments);
+            }
+        }
+
+        public long size() {
+            return size;
+        }
+
+        /**
+         * Writes the whole export to a stream. Each call reads through its own view of the mappings,
+         * so concurrent downloads do not interfere.
+         * @param out The stream to write to. It is not closed.
+         * @throws IOException if writing fails.
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            WritableByteChannel channel = Channels.newChannel(out);
+            for (MappedByteBuffer segment : segments) {
+                ByteBuffer view = segment.duplicate();
+                while (view.hasRemaining()) {
+                    channel.write(view);
+                }
+            }
+        }
+
+        private void delete() {
+            deleteQuietly(file);
+        }
+    }
+}
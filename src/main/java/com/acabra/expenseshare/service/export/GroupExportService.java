@@ -0,0 +1,196 @@
+// src/main/java/com/acabra/expenseshare/service/export/GroupExportService.java
+package com.acabra.expenseshare.service.export;
+
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.service.ExpenseService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Service layer for exporting every expense of a group.
+ * Expenses are rendered straight from the forward-only JDBC cursor of ExpenseService.forEachExpense
+ * to the output, so memory use does not depend on the size of the group. Exports of at least
+ * expenses.export.spill-min-size are also written to a spill file, and repeat downloads are served
+ * from ExportSpillCache until the group changes.
+ */
+@Service // Marks this class as a Spring service
+public class GroupExportService {
+
+    static final String CSV_HEADER = "id,groupId,description,amount,paidBy,owedBy,date,currency\n";
+
+    private final ExpenseService expenseService;
+    private final ExportSpillCache spillCache;
+    private final ObjectWriter expenseWriter;
+    private final long spillMinBytes;
+
+    @Autowired // Injects ExpenseService, the spill cache, Jackson's ObjectMapper and the spill threshold
+    public GroupExportService(ExpenseService expenseService, ExportSpillCache spillCache, ObjectMapper objectMapper,
+                              @Value("${expenses.export.spill-min-size:1MB}") DataSize spillMinSize) {
+        this.expenseService = expenseService;
+        this.spillCache = spillCache;
+        // The output is written to repeatedly, so Jackson must not close it after each expense
+        this.expenseWriter = objectMapper.writerFor(Expense.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.spillMinBytes = spillMinSize.toBytes();
+    }
+
+    /**
+     * Writes every expense of a group to a stream, in (date, id) order.
+     * @param groupId The ID of the group.
+     * @param format The export format.
+     * @param out The stream to write to. It is flushed but not closed.
+     * @throws IOException if writing fails, e.g. because the client went away.
+     */
+    public void export(String groupId, ExportFormat format, OutputStream out) throws IOException {
+        ExportSpillCache.Spill cached = spillCache.find(groupId, format);
+        if (cached != null) {
+            cached.writeTo(out);
+            out.flush();
+            return;
+        }
+        long stamp = spillCache.stamp(groupId); // Read before the cursor opens, see ExportSpillCache.publish
+        try (SpillingOutputStream spilling = new SpillingOutputStream(new BufferedOutputStream(out))) {
+            render(groupId, format, spilling);
+            spilling.flush();
+            Path spillFile = spilling.complete();
+            if (spillFile != null) {
+                spillCache.publish(groupId, format, stamp, spillFile);
+            }
+        }
+    }
+
+    private void render(String groupId, ExportFormat format, OutputStream out) throws IOException {
+        if (format == ExportFormat.CSV) {
+            out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            expenseService.forEachExpense(groupId, expense -> {
+                try {
+                    if (format == ExportFormat.CSV) {
+                        out.write(toCsv(expense).getBytes(StandardCharsets.UTF_8));
+                    } else {
+                        expenseWriter.writeValue(out, expense);
+                        out.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // Client went away: abort and release the cursor
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Renders one expense as a CSV row, with owedBy written as "user:amount;user:amount".
+     */
+    static String toCsv(Expense expense) {
+        StringBuilder owedBy = new StringBuilder();
+        Iterator<Map.Entry<String, BigDecimal>> shares = expense.getOwedBy().entrySet().iterator();
+        while (shares.hasNext()) {
+            Map.Entry<String, BigDecimal> share = shares.next();
+            owedBy.append(share.getKey()).append(':').append(share.getValue().toPlainString());
+            if (shares.hasNext()) {
+                owedBy.append(';');
+            }
+        }
+        return csvField(expense.getId()) + ',' + csvField(expense.getGroupId()) + ',' +
+                csvField(expense.getDescription()) + ',' + expense.getAmount().toPlainString() + ',' +
+                csvField(expense.getPaidBy()) + ',' + csvField(owedBy.toString()) + ',' + expense.getDate() + ',' +
+                expense.getCurrency() + '\n';
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Passes everything through to the response and, once the output reaches the spill threshold,
+     * also to a spill file. Output below the threshold is only held in memory until the threshold is
+     * reached, so small exports never touch the disk.
+     */
+    private final class SpillingOutputStream extends OutputStream {
+
+        private final OutputStream response;
+        private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private Path file;
+        private OutputStream fileOut;
+        private boolean completed;
+
+        private SpillingOutputStream(OutputStream response) {
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            response.write(b, off, len);
+            if (fileOut != null) {
+                fileOut.write(b, off, len);
+            } else if (pending != null) {
+                pending.write(b, off, len);
+                if (pending.size() >= spillMinBytes) {
+                    file = spillCache.createSpillFile();
+                    fileOut = new BufferedOutputStream(Files.newOutputStream(file));
+                    pending.writeTo(fileOut);
+                    pending = null;
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            response.flush();
+        }
+
+        /**
+         * Marks the output as complete and hands over the spill file.
+         * @return The spill file, or null if the output stayed below the spill threshold.
+         */
+        private Path complete() throws IOException {
+            completed = true;
+            if (fileOut == null) {
+                return null;
+            }
+            fileOut.close();
+            return file;
+        }
+
+        /**
+         * Releases the spill file of an incomplete export. The response stream is left open.
+         */
+        @Override
+        public void close() throws IOException {
+            if (!completed && fileOut != null) {
+                fileOut.close();
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
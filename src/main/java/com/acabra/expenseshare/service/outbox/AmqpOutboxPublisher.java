@@ -0,0 +1,69 @@
+// src/main/java/com/acabra/expenseshare/service/outbox/AmqpOutboxPublisher.java
+package com.acabra.expenseshare.service.outbox;
+
+import com.acabra.expenseshare.model.OutboxEvent;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Publishes outbox events to an AMQP topic exchange, with the event type as routing key.
+ * A batch is sent on one channel and confirmed with a single wait for publisher confirms
+ * (spring.rabbitmq.publisher-confirm-type=simple), instead of a round trip per message.
+ */
+@Component // Marks this class as a Spring component
+public class AmqpOutboxPublisher implements OutboxPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final String exchange;
+    private final long confirmTimeoutMillis;
+
+    @Autowired // Injects the RabbitTemplate and the exchange settings
+    public AmqpOutboxPublisher(RabbitTemplate rabbitTemplate,
+                               @Value("${outbox.exchange:expenseshare.events}") String exchange,
+                               @Value("${outbox.confirm-timeout:10s}") Duration confirmTimeout) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.exchange = exchange;
+        this.confirmTimeoutMillis = confirmTimeout.toMillis();
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        rabbitTemplate.invoke(operations -> {
+            for (OutboxEvent event : events) {
+                operations.send(exchange, event.getEventType(), toMessage(event));
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMillis); // Throws if any message was nacked
+            return null;
+        });
+    }
+
+    /**
+     * Builds the AMQP message for an event: the JSON payload as a persistent message,
+     * with the event ID as message ID so consumers can drop redeliveries.
+     * @param event The event.
+     * @return The message.
+     */
+    static Message toMessage(OutboxEvent event) {
+        return MessageBuilder.withBody(event.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                .setMessageId(String.valueOf(event.getId()))
+                .setType(event.getEventType())
+                .setTimestamp(Timestamp.valueOf(event.getCreatedAt()))
+                .setHeader("aggregateId", event.getAggregateId())
+                .setHeader("groupId", event.getGroupId())
+                .build();
+    }
+}
@@ -0,0 +1,20 @@
+// src/main/java/com/acabra/expenseshare/service/outbox/OutboxPublisher.java
+package com.acabra.expenseshare.service.outbox;
+
+import com.acabra.expenseshare.model.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Hands outbox events to a message broker.
+ */
+public interface OutboxPublisher {
+
+    /**
+     * Publishes a batch of events, in order, and returns once the broker has accepted all of them.
+     * @param events The events to publish.
+     * @throws RuntimeException if any event could not be published; the whole batch is then retried later,
+     *         so consumers must tolerate duplicates (every message carries the event ID as its message ID).
+     */
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,100 @@
+// src/main/java/com/acabra/expenseshare/service/outbox/OutboxRelay.java
+package com.acabra.expenseshare.service.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background relay that drains the transactional outbox to the message broker.
+ * Every outbox.relay.interval it publishes pending events in batches of outbox.relay.batch-size until the outbox is
+ * empty. While the broker is unreachable it backs off exponentially up to outbox.relay.max-backoff, so an outage
+ * costs one failed attempt per backoff period rather than one per interval; events simply wait in the table.
+ * The relay is off unless outbox.relay.enabled is set, since it needs a broker to publish to.
+ */
+@Component // Marks this class as a Spring component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxService outboxService;
+    private final OutboxPublisher publisher;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long intervalMillis;
+    private final long maxBackoffMillis;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile long backoffMillis;
+    private volatile long nextAttemptMillis;
+
+    @Autowired // Injects the OutboxService, the broker publisher and the relay settings
+    public OutboxRelay(OutboxService outboxService, OutboxPublisher publisher,
+                       @Value("${outbox.relay.enabled:false}") boolean enabled,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.interval:1s}") Duration interval,
+                       @Value("${outbox.relay.max-backoff:1m}") Duration maxBackoff) {
+        this.outboxService = outboxService;
+        this.publisher = publisher;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.intervalMillis = interval.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+    }
+
+    /**
+     * Scheduled entry point; skips the run while disabled or backing off after a failure.
+     */
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:1s}")
+    void poll() {
+        if (!enabled || System.currentTimeMillis() < nextAttemptMillis) {
+            return;
+        }
+        try {
+            relayPending();
+            backoffMillis = 0;
+        } catch (RuntimeException e) {
+            failures.increment();
+            backoffMillis = Math.min(maxBackoffMillis, Math.max(intervalMillis, backoffMillis * 2));
+            nextAttemptMillis = System.currentTimeMillis() + backoffMillis;
+            logger.warn("Outbox relay failed, retrying in {} ms: {}", backoffMillis, e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes pending events batch by batch until the outbox is empty.
+     * @return The number of events published.
+     * @throws RuntimeException if a batch could not be published; earlier batches stay published.
+     */
+    public int relayPending() {
+        int total = 0;
+        int count;
+        do {
+            count = outboxService.publishBatch(publisher, batchSize);
+            total += count;
+            published.add(count);
+        } while (count == batchSize);
+        return total;
+    }
+
+    /**
+     * Returns the relay's counters.
+     * @return A map with the number of pending events, events published, failed attempts and the current backoff.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", outboxService.countPending());
+        stats.put("published", published.sum());
+        stats.put("failures", failures.sum());
+        stats.put("backoffMillis", backoffMillis);
+        return stats;
+    }
+}
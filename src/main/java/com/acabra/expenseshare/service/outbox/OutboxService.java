@@ -0,0 +1,185 @@
+// src/main/java/com/acabra/expenseshare/service/outbox/OutboxService.java
+package com.acabra.expenseshare.service.outbox;
+
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.Group;
+import com.acabra.expenseshare.model.OutboxEvent;
+import com.acabra.expenseshare.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service layer for the transactional outbox.
+ * Expense and group mutations record their events here, inside the mutation's own transaction, so an event exists
+ * if and only if the change was committed. OutboxRelay later publishes the events to the broker in batches.
+ * Recording is skipped unless outbox.enabled is set (it defaults to outbox.relay.enabled): with nothing draining
+ * the table, every event would stay in it for good.
+ */
+@Service // Marks this class as a Spring service component
+@Transactional(propagation = Propagation.MANDATORY) // Events must commit or roll back with the change they describe
+public class OutboxService {
+
+    public static final String EXPENSE_CREATED = "expense.created";
+    public static final String EXPENSE_UPDATED = "expense.updated";
+    public static final String EXPENSE_DELETED = "expense.deleted";
+    public static final String GROUP_CREATED = "group.created";
+    public static final String GROUP_UPDATED = "group.updated";
+    public static final String GROUP_DELETED = "group.deleted";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration claimTimeout;
+    private final boolean enabled;
+
+    @Autowired // Injects the OutboxEventRepository, the ObjectMapper used for payloads and the outbox settings
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${outbox.relay.claim-timeout:1m}") Duration claimTimeout,
+                         @Value("${outbox.enabled:${outbox.relay.enabled:false}}") boolean enabled) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.claimTimeout = claimTimeout;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Records that expenses were created.
+     * @param expenses The created expenses; one event is recorded per expense, with one batched insert.
+     */
+    public void expensesCreated(List<Expense> expenses) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            events.add(new OutboxEvent(EXPENSE_CREATED, expense.getId(), expense.getGroupId(), toJson(expense), now));
+        }
+        outboxEventRepository.saveAll(events);
+    }
+
+    /**
+     * Records that an expense was created.
+     * @param expense The created expense.
+     */
+    public void expenseCreated(Expense expense) {
+        expensesCreated(List.of(expense));
+    }
+
+    /**
+     * Records that an expense was updated.
+     * @param expense The expense as saved.
+     */
+    public void expenseUpdated(Expense expense) {
+        record(EXPENSE_UPDATED, expense.getId(), expense.getGroupId(), expense);
+    }
+
+    /**
+     * Records that an expense was deleted.
+     * @param expense The expense as it was before the delete, so consumers can reverse it.
+     */
+    public void expenseDeleted(Expense expense) {
+        record(EXPENSE_DELETED, expense.getId(), expense.getGroupId(), expense);
+    }
+
+    /**
+     * Records that a group was created.
+     * @param group The created group.
+     */
+    public void groupCreated(Group group) {
+        record(GROUP_CREATED, group.getId(), group.getId(), group);
+    }
+
+    /**
+     * Records that a group was updated.
+     * @param group The group as saved.
+     */
+    public void groupUpdated(Group group) {
+        record(GROUP_UPDATED, group.getId(), group.getId(), group);
+    }
+
+    /**
+     * Records that a group was deleted.
+     * @param groupId The ID of the deleted group.
+     */
+    public void groupDeleted(String groupId) {
+        record(GROUP_DELETED, groupId, groupId, Map.of("id", groupId));
+    }
+
+    /**
+     * Publishes the oldest pending events and deletes them from the outbox.
+     * The events are claimed for outbox.relay.claim-timeout in a short transaction, published with no transaction
+     * or row lock held while the broker confirms, and deleted in a second short transaction. If publishing fails
+     * the claim is released and the same events are picked up again by the next attempt; if the relay dies
+     * mid-batch the claim expires and another relay publishes them again.
+     * @param publisher The publisher to hand the events to.
+     * @param batchSize The maximum number of events to publish.
+     * @return The number of events published.
+     */
+    @Transactional(propagation = Propagation.NEVER) // Each step commits on its own
+    public int publishBatch(OutboxPublisher publisher, int batchSize) {
+        List<OutboxEvent> events = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> claimed = outboxEventRepository.lockOldest(now, batchSize);
+            if (!claimed.isEmpty()) {
+                outboxEventRepository.claim(ids(claimed), now.plus(claimTimeout));
+            }
+            return claimed;
+        });
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+        try {
+            publisher.publish(events);
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.claim(ids(events), null));
+            throw e;
+        }
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteByIds(ids(events)));
+        return events.size();
+    }
+
+    /**
+     * Counts the events waiting to be published.
+     * @return The number of events in the outbox.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public long countPending() {
+        return outboxEventRepository.countPending();
+    }
+
+    private static List<Long> ids(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::getId).toList();
+    }
+
+    private void record(String eventType, String aggregateId, String groupId, Object payload) {
+        if (!enabled) {
+            return;
+        }
+        outboxEventRepository.saveAll(List.of(
+                new OutboxEvent(eventType, aggregateId, groupId, toJson(payload), LocalDateTime.now())));
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox payload", e); // Models are plain beans
+        }
+    }
+}
@@ -0,0 +1,115 @@
+// src/main/java/com/acabra/expenseshare/service/security/CachingUserDetailsService.java
+package com.acabra.expenseshare.service.security;
+
+import com.acabra.expenseshare.model.UserAccess;
+import com.acabra.expenseshare.service.cache.InMemoryReadThroughCache;
+import com.acabra.expenseshare.service.cache.ReadThroughCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.relational.core.mapping.event.AbstractRelationalEventListener;
+import org.springframework.data.relational.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.relational.core.mapping.event.AfterSaveEvent;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caching layer in front of UserDetailsServiceImpl for the per-request user check in JwtRequestFilter.
+ * Entries are kept in an InMemoryReadThroughCache, bounded (LRU) and expiring after a TTL, so a user loaded while
+ * its row is being changed is never cached over the invalidation. Each entry keeps the user's authorities already
+ * built, so a hit does not re-parse the roles string. Entries are invalidated whenever a UserAccess row is saved or
+ * deleted through Spring Data JDBC.
+ * Login keeps using UserDetailsServiceImpl directly, so password checks always see the stored hash.
+ */
+@Service // Marks this class as a Spring service component
+public class CachingUserDetailsService extends AbstractRelationalEventListener<UserAccess> implements UserDetailsService {
+
+    private final UserDetailsServiceImpl delegate;
+    private final ReadThroughCache<String, CachedUser> cache;
+
+    @Autowired // Injects UserDetailsServiceImpl and the cache properties
+    public CachingUserDetailsService(UserDetailsServiceImpl delegate,
+                                     @Value("${security.user-cache.max-entries:10000}") int maxEntries,
+                                     @Value("${security.user-cache.ttl:5m}") Duration ttl) {
+        this.delegate = delegate;
+        this.cache = new InMemoryReadThroughCache<>(maxEntries, Long.MAX_VALUE, ttl, user -> 1);
+    }
+
+    /**
+     * Locates the user based on the username, serving it from the cache when a fresh entry exists.
+     * Unknown users are not cached.
+     *
+     * @param username the username identifying the user whose data is required.
+     * @return a fully populated user record (an instance of UserDetails).
+     * @throws UsernameNotFoundException if the user could not be found.
+     */
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return cache.get(username, name -> new CachedUser(delegate.loadUserByUsername(name)))
+                .toUserDetails(); // A fresh copy: User is mutable (eraseCredentials)
+    }
+
+    /**
+     * Removes a user from the cache, now and again after the current transaction completes.
+     * @param username The user whose cached details are dropped.
+     */
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    /**
+     * Removes every user from the cache, now and again after the current transaction completes.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the cache counters, used to size the cache against the actual user population.
+     * @return A map with size, maxEntries, hits, misses, evictions and hitRatio, among others.
+     */
+    public Map<String, Object> getStats() {
+        return cache.getStats();
+    }
+
+    @Override
+    protected void onAfterSave(AfterSaveEvent<UserAccess> event) {
+        invalidateAll(); // A save may rename the user, and the entry cached under the old name is unknown here
+    }
+
+    @Override
+    protected void onAfterDelete(AfterDeleteEvent<UserAccess> event) {
+        UserAccess deleted = event.getEntity();
+        if (deleted != null) {
+            invalidate(deleted.getUsername());
+        } else {
+            invalidateAll(); // Deleted by ID only: the username is unknown, and deletes are rare
+        }
+    }
+
+    /**
+     * Immutable cache entry with the authorities precomputed by UserDetailsServiceImpl.
+     */
+    private static final class CachedUser {
+        private final String username;
+        private final String password;
+        private final List<GrantedAuthority> authorities;
+
+        private CachedUser(UserDetails userDetails) {
+            this.username = userDetails.getUsername();
+            this.password = userDetails.getPassword();
+            this.authorities = List.copyOf(userDetails.getAuthorities());
+        }
+
+        private UserDetails toUserDetails() {
+            return new User(username, password, authorities);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+// src/main/java/com/acabra/expenseshare/service/security/LoginThrottleService.java
+package com.acabra.expenseshare.service.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory throttling of failed login attempts, per username and per client IP.
+ * Once a username or an IP reaches its failure limit within the window, further attempts are refused
+ * without verifying the password until the window ends, so guessing costs no BCrypt work.
+ * <p>
+ * An allowed attempt is counted as a failure up front, in the same step as the check, so concurrent attempts
+ * cannot all pass the check before any of them is recorded. The caller then either keeps that count (the password
+ * was wrong), clears it on success, or releases it when the password could not be verified at all.
+ * A successful login clears the username's failures. Counters are per instance and bounded in number (LRU).
+ */
+@Service // Marks this class as a Spring service component
+public class LoginThrottleService {
+
+    private final int maxFailuresPerUser;
+    private final int maxFailuresPerIp;
+    private final long windowMillis;
+    private final Clock clock;
+    private final Map<String, FailureWindow> userFailures;
+    private final Map<String, FailureWindow> ipFailures;
+    private final LongAdder throttled = new LongAdder();
+
+    @Autowired // Injects the throttling limits
+    public LoginThrottleService(@Value("${login.throttle.max-failures-per-user:5}") int maxFailuresPerUser,
+                                @Value("${login.throttle.max-failures-per-ip:20}") int maxFailuresPerIp,
+                                @Value("${login.throttle.window:15m}") Duration window,
+                                @Value("${login.throttle.max-entries:100000}") int maxEntries) {
+        this(maxFailuresPerUser, maxFailuresPerIp, window, maxEntries, Clock.systemUTC());
+    }
+
+    LoginThrottleService(int maxFailuresPerUser, int maxFailuresPerIp, Duration window, int maxEntries, Clock clock) {
+        this.maxFailuresPerUser = maxFailuresPerUser;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+        this.userFailures = boundedMap(maxEntries);
+        this.ipFailures = boundedMap(maxEntries);
+    }
+
+    /**
+     * Checks whether a login attempt may go ahead and, if so, reserves it: the attempt is counted as a failure
+     * of both the username and the IP until recordSuccess or releaseAttempt says otherwise.
+     * @param username The username being logged into.
+     * @param ip The client IP address.
+     * @return Null if the attempt is allowed (and reserved), otherwise how long until the username or IP may try again.
+     */
+    public synchronized Duration checkAttempt(String username, String ip) {
+        long now = clock.millis();
+        long retryAfter = Math.max(retryAfterMillis(userFailures, username, maxFailuresPerUser, now),
+                retryAfterMillis(ipFailures, ip, maxFailuresPerIp, now));
+        if (retryAfter <= 0) {
+            increment(userFailures, username, now);
+            increment(ipFailures, ip, now);
+            return null;
+        }
+        throttled.increment();
+        return Duration.ofMillis(retryAfter);
+    }
+
+    /**
+     * Clears the failures of a username after a successful login and releases the attempt reserved against the IP.
+     * The IP's other failures are kept.
+     * @param username The username that logged in.
+     * @param ip The client IP address.
+     */
+    public synchronized void recordSuccess(String username, String ip) {
+        userFailures.remove(username);
+        decrement(ipFailures, ip, clock.millis());
+    }
+
+    /**
+     * Releases an attempt reserved by checkAttempt whose password could not be verified (e.g. the login executor
+     * was saturated), so it does not count as a failure.
+     * @param username The username that was tried.
+     * @param ip The client IP address.
+     */
+    public synchronized void releaseAttempt(String username, String ip) {
+        long now = clock.millis();
+        decrement(userFailures, username, now);
+        decrement(ipFailures, ip, now);
+    }
+
+    /**
+     * Returns the counters of this throttle.
+     * @return A map with the number of tracked usernames and IPs and the number of refused attempts.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedUsers", userFailures.size());
+        stats.put("trackedIps", ipFailures.size());
+        stats.put("throttled", throttled.sum());
+        return stats;
+    }
+
+    private long retryAfterMillis(Map<String, FailureWindow> failures, String key, int maxFailures, long now) {
+        FailureWindow window = failures.get(key);
+        if (window == null || now - window.startMillis >= windowMillis || window.count < maxFailures) {
+            return 0;
+        }
+        return window.startMillis + windowMillis - now;
+    }
+
+    private void increment(Map<String, FailureWindow> failures, String key, long now) {
+        failures.compute(key, (k, window) -> window == null || now - window.startMillis >= windowMillis
+                ? new FailureWindow(now, 1)
+                : new FailureWindow(window.startMillis, window.count + 1));
+    }
+
+    private void decrement(Map<String, FailureWindow> failures, String key, long now) {
+        failures.computeIfPresent(key, (k, window) -> now - window.startMillis >= windowMillis || window.count <= 1
+                ? null
+                : new FailureWindow(window.startMillis, window.count - 1));
+    }
+
+    private static Map<String, FailureWindow> boundedMap(int maxEntries) {
+        // Access-ordered LinkedHashMap gives a simple LRU bound, so a spray of usernames or IPs cannot exhaust memory
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, FailureWindow> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Failures counted since the start of a fixed window.
+     */
+    private record FailureWindow(long startMillis, int count) {
+    }
+}
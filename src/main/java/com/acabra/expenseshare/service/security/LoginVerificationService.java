@@ -0,0 +1,141 @@
+// src/main/java/com/acabra/expenseshare/service/security/LoginVerificationService.java
+package com.acabra.expenseshare.service.security;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs password verification (BCrypt, via the AuthenticationManager) on a small dedicated pool of platform threads
+ * with a bounded queue. However many logins arrive, at most login.executor.threads cores hash at once, and once the
+ * queue is full further logins are rejected immediately instead of piling up, so a login burst cannot starve the
+ * rest of the API of CPU or request threads.
+ * <p>
+ * The timeout bounds how long a request waits, not how long a worker is busy: BCrypt does not check for
+ * interruption, so a verification that already started runs to completion after its caller gave up.
+ */
+@Service // Marks this class as a Spring service component
+public class LoginVerificationService {
+
+    private final AuthenticationManager authenticationManager;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutNanos;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder verificationNanos = new LongAdder();
+    private final LongAccumulator maxVerificationNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder queueWaitNanos = new LongAdder();
+
+    @Autowired // Injects the AuthenticationManager and the executor settings
+    public LoginVerificationService(AuthenticationManager authenticationManager,
+                                    @Value("${login.executor.threads:0}") int threads,
+                                    @Value("${login.executor.queue-capacity:64}") int queueCapacity,
+                                    @Value("${login.executor.timeout:5s}") Duration timeout) {
+        this.authenticationManager = authenticationManager;
+        // BCrypt is pure CPU work: by default leave at least half of the cores to the other endpoints
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "login-verify-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /**
+     * Verifies a username and password on the login executor, waiting at most login.executor.timeout for the result.
+     * On timeout a verification still in the queue is dropped, while one already hashing keeps its worker busy.
+     * @param username The username.
+     * @param password The raw password.
+     * @return The successful Authentication.
+     * @throws org.springframework.security.core.AuthenticationException if the credentials are wrong.
+     * @throws RejectedExecutionException if the executor is saturated or the verification timed out;
+     *         the caller should answer 503 and let the client retry.
+     */
+    public Authentication authenticate(String username, String password) {
+        long submitted = System.nanoTime();
+        Future<Authentication> result;
+        try {
+            result = executor.submit(() -> {
+                long started = System.nanoTime();
+                queueWaitNanos.add(started - submitted);
+                try {
+                    return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+                } finally {
+                    long elapsed = System.nanoTime() - started;
+                    verifications.increment();
+                    verificationNanos.add(elapsed);
+                    maxVerificationNanos.accumulate(elapsed);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+        try {
+            return result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(false); // Drops a queued verification; a running hash cannot be interrupted
+            timedOut.increment();
+            throw new RejectedExecutionException("Login verification timed out", e);
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for login verification", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause; // Typically an AuthenticationException, rethrown on the request thread
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the executor's load and timing counters.
+     * @return A map with the pool size, active threads, queue depth and capacity, rejection and timeout counts,
+     *         and the mean and max verification (hash) time and mean queue wait in milliseconds.
+     */
+    public Map<String, Object> getStats() {
+        long count = verifications.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getMaximumPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("verifications", count);
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("meanHashMillis", count == 0 ? 0.0 : verificationNanos.sum() / 1_000_000.0 / count);
+        stats.put("maxHashMillis", maxVerificationNanos.get() / 1_000_000.0);
+        stats.put("meanQueueWaitMillis", count == 0 ? 0.0 : queueWaitNanos.sum() / 1_000_000.0 / count);
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,98 @@
+// src/main/java/com/acabra/expenseshare/service/security/RefreshTokenService.java
+package com.acabra.expenseshare.service.security;
+
+import com.acabra.expenseshare.model.RefreshToken;
+import com.acabra.expenseshare.model.UserAccess;
+import com.acabra.expenseshare.repository.RefreshTokenRepository;
+import com.acabra.expenseshare.repository.UserAccessRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Service layer for refresh tokens.
+ * A refresh token is an opaque random string that can be exchanged for a new access token without the password,
+ * so clients only go through the BCrypt login once per refresh-token lifetime instead of once per access token.
+ * Tokens are single use: every refresh consumes the presented token and issues a new one.
+ */
+@Service // Marks this class as a Spring service component
+@Transactional // Ensures methods are transactional (rollback on error)
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserAccessRepository userAccessRepository;
+    private final Duration refreshExpiration;
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired // Injects the repositories and the refresh token lifetime
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserAccessRepository userAccessRepository,
+                               @Value("${jwt.refresh-expiration:30d}") Duration refreshExpiration) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userAccessRepository = userAccessRepository;
+        this.refreshExpiration = refreshExpiration;
+    }
+
+    /**
+     * Issues a new refresh token to a user and drops the user's expired ones.
+     * @param username The user to issue the token to.
+     * @return The token, to be handed to the client. Only its hash is stored.
+     * @throws IllegalArgumentException if the user does not exist.
+     */
+    public String issue(String username) {
+        UserAccess user = userAccessRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with username: " + username));
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.deleteExpiredByUserAccessId(user.getId(), now);
+        refreshTokenRepository.insert(hash(token), user.getId(), now, now.plus(refreshExpiration));
+        return token;
+    }
+
+    /**
+     * Consumes a refresh token. A single conditional delete decides whether the token was still valid, so of two
+     * concurrent refreshes with the same token only one succeeds. Expired tokens are left for issue to purge.
+     * @param token The token presented by the client.
+     * @return The username the token was issued to, or empty if the token is unknown, expired or already used.
+     */
+    public Optional<String> consume(String token) {
+        String tokenHash = hash(token);
+        Optional<RefreshToken> refreshToken = refreshTokenRepository.findByTokenHash(tokenHash);
+        if (refreshToken.isEmpty() || refreshTokenRepository.deleteValid(tokenHash, LocalDateTime.now()) == 0) {
+            return Optional.empty(); // Unknown, expired, or consumed by a concurrent refresh
+        }
+        return userAccessRepository.findById(refreshToken.get().getUserAccessId()).map(UserAccess::getUsername);
+    }
+
+    /**
+     * Revokes every refresh token of a user, e.g. on logout.
+     * @param username The user whose tokens are revoked.
+     */
+    public void revokeAll(String username) {
+        userAccessRepository.findByUsername(username)
+                .ifPresent(user -> refreshTokenRepository.deleteByUserAccessId(user.getId()));
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Every JRE must provide it
+        }
+    }
+}
@@ -0,0 +1,53 @@
+// src/main/java/com/acabra/expenseshare/service/security/TokenRevocationService.java
+package com.acabra.expenseshare.service.security;
+
+import com.acabra.expenseshare.util.security.ParsedToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory token revocation registry.
+ * Revoking a user records the current time in milliseconds; any token of that user issued at or before it is
+ * rejected. Tokens carry their issue time in milliseconds (see ParsedToken#getIssuedAt), so a login right after a
+ * logout is not caught by it.
+ * Lookups are a single map read, so the check can run on every request without touching the database.
+ * The registry is per instance: deployments with several instances need to revoke on each of them.
+ */
+@Service // Marks this class as a Spring service component
+public class TokenRevocationService {
+
+    // Username to the epoch millisecond at which all of that user's tokens were revoked
+    private final Map<String, Long> revokedAtMillis = new ConcurrentHashMap<>();
+
+    @Value("${jwt.expiration:86400000}") // Tokens never outlive this, so older revocations can be forgotten
+    private long expiration;
+
+    /**
+     * Revokes every token issued to a user so far.
+     * @param username The user whose tokens are revoked.
+     */
+    public void revokeAllTokens(String username) {
+        long nowMillis = System.currentTimeMillis();
+        revokedAtMillis.put(username, nowMillis);
+        long forgetBefore = nowMillis - expiration;
+        revokedAtMillis.values().removeIf(revokedAt -> revokedAt < forgetBefore);
+    }
+
+    /**
+     * Checks whether a verified token has been revoked.
+     * @param parsedToken The verified token.
+     * @return True if the token was issued at or before its user's last revocation.
+     */
+    public boolean isRevoked(ParsedToken parsedToken) {
+        Long revokedAt = revokedAtMillis.get(parsedToken.getUsername());
+        if (revokedAt == null) {
+            return false;
+        }
+        Date issuedAt = parsedToken.getIssuedAt();
+        return issuedAt == null || issuedAt.getTime() <= revokedAt;
+    }
+}
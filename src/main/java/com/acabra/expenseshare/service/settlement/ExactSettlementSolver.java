@@ -0,0 +1,74 @@
+// src/main/java/com/acabra/expenseshare/service/settlement/ExactSettlementSolver.java
+package com.acabra.expenseshare.service.settlement;
+
+import com.acabra.expenseshare.model.Settlement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exact solver for small groups. The minimum number of transfers equals n minus the maximum number
+ * of disjoint zero-sum subsets the members can be partitioned into, which is found with a DP over
+ * subsets in O(2^n * n). Each zero-sum subset is then settled greedily with |subset| - 1 transfers.
+ */
+class ExactSettlementSolver implements SettlementSolver {
+
+    // 2^20 subsets is the largest table that still solves in a few milliseconds
+    static final int MAX_MEMBERS = 20;
+
+    private final GreedySettlementSolver subsetSolver = new GreedySettlementSolver();
+
+    @Override
+    public List<Settlement> solve(String[] userIds, long[] cents, String currency) {
+        int n = cents.length;
+        if (n > MAX_MEMBERS) {
+            throw new IllegalArgumentException("Exact settlement supports at most " + MAX_MEMBERS + " members, got " + n);
+        }
+        int full = (1 << n) - 1;
+        long[] sum = new long[full + 1];
+        int[] zeroSubsets = new int[full + 1]; // Max number of zero-sum prefixes on any chain from the empty set to mask
+        for (int mask = 1; mask <= full; mask++) {
+            int lowest = Integer.numberOfTrailingZeros(mask);
+            sum[mask] = sum[mask & (mask - 1)] + cents[lowest];
+            int best = 0;
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                best = Math.max(best, zeroSubsets[mask ^ Integer.lowestOneBit(rest)]);
+            }
+            zeroSubsets[mask] = best + (sum[mask] == 0 ? 1 : 0);
+        }
+
+        // Walk an optimal chain back from the full set; the members removed between two zero-sum masks form one subset
+        List<Settlement> settlements = new ArrayList<>();
+        int mask = full;
+        int subset = 0;
+        while (mask != 0) {
+            int target = zeroSubsets[mask] - (sum[mask] == 0 ? 1 : 0);
+            if (sum[mask] == 0 && subset != 0) {
+                settlements.addAll(solveSubset(userIds, cents, subset, currency));
+                subset = 0;
+            }
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                int bit = Integer.lowestOneBit(rest);
+                if (zeroSubsets[mask ^ bit] == target) {
+                    subset |= bit;
+                    mask ^= bit;
+                    break;
+                }
+            }
+        }
+        settlements.addAll(solveSubset(userIds, cents, subset, currency));
+        return settlements;
+    }
+
+    private List<Settlement> solveSubset(String[] userIds, long[] cents, int subset, String currency) {
+        int size = Integer.bitCount(subset);
+        String[] subsetUserIds = new String[size];
+        long[] subsetCents = new long[size];
+        for (int i = 0, rest = subset; rest != 0; i++, rest &= rest - 1) {
+            int index = Integer.numberOfTrailingZeros(rest);
+            subsetUserIds[i] = userIds[index];
+            subsetCents[i] = cents[index];
+        }
+        return subsetSolver.solve(subsetUserIds, subsetCents, currency);
+    }
+}
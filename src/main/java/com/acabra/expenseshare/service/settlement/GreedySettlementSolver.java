@@ -0,0 +1,48 @@
+// src/main/java/com/acabra/expenseshare/service/settlement/GreedySettlementSolver.java
+package com.acabra.expenseshare.service.settlement;
+
+import com.acabra.expenseshare.model.Settlement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Heap-based greedy solver: repeatedly matches the largest creditor with the largest debtor.
+ * Runs in O(n log n) and produces at most n - 1 transfers, which makes it suitable for any group size,
+ * although it is not guaranteed to find the minimum number of transfers.
+ */
+class GreedySettlementSolver implements SettlementSolver {
+
+    @Override
+    public List<Settlement> solve(String[] userIds, long[] cents, String currency) {
+        // Heaps hold member indexes, ordered by the remaining absolute balance (largest first)
+        long[] remaining = cents.clone();
+        PriorityQueue<Integer> creditors = new PriorityQueue<>((a, b) -> Long.compare(remaining[b], remaining[a]));
+        PriorityQueue<Integer> debtors = new PriorityQueue<>((a, b) -> Long.compare(remaining[a], remaining[b]));
+        for (int i = 0; i < remaining.length; i++) {
+            if (remaining[i] > 0) {
+                creditors.add(i);
+            } else if (remaining[i] < 0) {
+                debtors.add(i);
+            }
+        }
+
+        List<Settlement> settlements = new ArrayList<>();
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            int creditor = creditors.poll();
+            int debtor = debtors.poll();
+            long transfer = Math.min(remaining[creditor], -remaining[debtor]);
+            settlements.add(new Settlement(userIds[debtor], userIds[creditor], transfer, currency));
+            remaining[creditor] -= transfer;
+            remaining[debtor] += transfer;
+            if (remaining[creditor] > 0) {
+                creditors.add(creditor);
+            }
+            if (remaining[debtor] < 0) {
+                debtors.add(debtor);
+            }
+        }
+        return settlements;
+    }
+}
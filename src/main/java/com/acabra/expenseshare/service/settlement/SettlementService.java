@@ -0,0 +1,83 @@
+// src/main/java/com/acabra/expenseshare/service/settlement/SettlementService.java
+package com.acabra.expenseshare.service.settlement;
+
+import com.acabra.expenseshare.model.GroupBalance;
+import com.acabra.expenseshare.model.Settlement;
+import com.acabra.expenseshare.service.BalanceService;
+import com.acabra.expenseshare.service.cache.InMemoryReadThroughCache;
+import com.acabra.expenseshare.service.cache.ReadThroughCache;
+import com.acabra.expenseshare.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Service layer for settlement plans ("who pays whom").
+ * Plans are computed from the balance ledger, using the exact solver for small groups and the greedy
+ * solver otherwise, and are cached per group until the group's next expense write. The cache is a
+ * ReadThroughCache, so a plan computed while a write to its group committed is not cached.
+ */
+@Service // Marks this class as a Spring service
+public class SettlementService {
+
+    private final BalanceService balanceService;
+    private final SettlementSolver exactSolver = new ExactSettlementSolver();
+    private final SettlementSolver greedySolver = new GreedySettlementSolver();
+    private final int exactSolverMaxMembers;
+    private final ReadThroughCache<String, List<Settlement>> cache;
+
+    @Autowired // Injects BalanceService and the settlement properties
+    public SettlementService(BalanceService balanceService,
+                             @Value("${settlement.exact-solver.max-members:12}") int exactSolverMaxMembers,
+                             @Value("${settlement.cache.max-groups:10000}") int cacheMaxGroups,
+                             @Value("${settlement.cache.ttl:1h}") Duration cacheTtl) {
+        this.balanceService = balanceService;
+        this.exactSolverMaxMembers = Math.min(exactSolverMaxMembers, ExactSettlementSolver.MAX_MEMBERS);
+        // Bounded by the number of groups only (LRU): plans are a few transfers each
+        this.cache = new InMemoryReadThroughCache<>(cacheMaxGroups, Long.MAX_VALUE, cacheTtl, List::size);
+    }
+
+    /**
+     * Finds the settlement plan of a group, computing it only if it is not cached.
+     * @param groupId The ID of the group.
+     * @return An unmodifiable list of transfers that settles every member's balance.
+     */
+    public List<Settlement> findSettlementsByGroupId(String groupId) {
+        return cache.get(groupId, id -> computeSettlements(balanceService.findBalancesByGroupId(id)));
+    }
+
+    /**
+     * Drops the cached plan of a group. When called inside a transaction the plan is dropped again
+     * after commit, so a read that raced with the write cannot leave a stale plan behind.
+     * @param groupId The ID of the group whose balances changed.
+     */
+    public void evictGroup(String groupId) {
+        cache.invalidate(groupId);
+    }
+
+    /**
+     * Computes a settlement plan from a group's balances. Members that are already settled are left out.
+     * @param balances The net balances of the group's members, all in the group's currency.
+     * @return An unmodifiable list of transfers.
+     */
+    List<Settlement> computeSettlements(List<GroupBalance> balances) {
+        List<String> userIds = new ArrayList<>(balances.size());
+        long[] cents = new long[balances.size()];
+        for (GroupBalance balance : balances) {
+            long value = balance.getBalanceMinor();
+            if (value != 0) {
+                cents[userIds.size()] = value;
+                userIds.add(balance.getUserId());
+            }
+        }
+        int members = userIds.size();
+        SettlementSolver solver = members <= exactSolverMaxMembers ? exactSolver : greedySolver;
+        String currency = balances.isEmpty() ? Money.DEFAULT_CURRENCY : balances.get(0).getCurrency();
+        return List.copyOf(solver.solve(userIds.toArray(new String[0]), Arrays.copyOf(cents, members), currency));
+    }
+}
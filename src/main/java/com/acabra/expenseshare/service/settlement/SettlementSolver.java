@@ -0,0 +1,21 @@
+// src/main/java/com/acabra/expenseshare/service/settlement/SettlementSolver.java
+package com.acabra.expenseshare.service.settlement;
+
+import com.acabra.expenseshare.model.Settlement;
+
+import java.util.List;
+
+/**
+ * Computes a list of transfers that brings every member's balance to zero (the min-cash-flow problem).
+ * Balances are given in minor units of the group's currency ("cents") so solvers can compare them exactly.
+ */
+interface SettlementSolver {
+
+    /**
+     * @param userIds The members, index-aligned with cents.
+     * @param cents The net balance of each member in minor units (positive: owed money, negative: owes money).
+     * @param currency The currency of the balances, carried over to the transfers.
+     * @return The transfers that settle the given balances.
+     */
+    List<Settlement> solve(String[] userIds, long[] cents, String currency);
+}
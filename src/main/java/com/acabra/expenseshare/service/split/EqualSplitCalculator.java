@@ -0,0 +1,19 @@
+// src/main/java/com/acabra/expenseshare/service/split/EqualSplitCalculator.java
+package com.acabra.expenseshare.service.split;
+
+/**
+ * Gives every participant the same share. The units that do not divide evenly go one each to the first
+ * participants, which is what the largest remainder method does when all remainders tie.
+ */
+class EqualSplitCalculator implements SplitCalculator {
+
+    @Override
+    public void split(long total, long[] weights, int count, long[] shares, long[] scratch) {
+        long base = total / count;
+        long left = Math.abs(total % count);
+        long unit = total < 0 ? -1 : 1;
+        for (int i = 0; i < count; i++) {
+            shares[i] = i < left ? base + unit : base;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+// src/main/java/com/acabra/expenseshare/service/split/ExactSplitCalculator.java
+package com.acabra.expenseshare.service.split;
+
+/**
+ * Uses the weights as the shares themselves, after checking that they cover the amount exactly.
+ */
+class ExactSplitCalculator implements SplitCalculator {
+
+    @Override
+    public void split(long total, long[] weights, int count, long[] shares, long[] scratch) {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum = Math.addExact(sum, weights[i]);
+        }
+        if (sum != total) {
+            throw new IllegalArgumentException("Exact shares add up to " + sum + " minor units, not " + total);
+        }
+        System.arraycopy(weights, 0, shares, 0, count);
+    }
+}
@@ -0,0 +1,19 @@
+// src/main/java/com/acabra/expenseshare/service/split/SplitCalculator.java
+package com.acabra.expenseshare.service.split;
+
+/**
+ * Divides an amount in minor units among participants. Calculators work on caller-owned primitive arrays
+ * and allocate nothing, so one set of arrays can be reused across thousands of expenses.
+ */
+interface SplitCalculator {
+
+    /**
+     * @param total The amount to divide, in minor units.
+     * @param weights The participants' weights, as defined by the calculator's SplitStrategy; only the first count are read.
+     * @param count The number of participants.
+     * @param shares Receives the amount owed by each participant in its first count elements; they sum to total.
+     * @param scratch Working space of at least 2 * count elements.
+     * @throws IllegalArgumentException if the weights are invalid for the strategy.
+     */
+    void split(long total, long[] weights, int count, long[] shares, long[] scratch);
+}
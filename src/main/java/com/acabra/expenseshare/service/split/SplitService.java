@@ -0,0 +1,145 @@
+// src/main/java/com/acabra/expenseshare/service/split/SplitService.java
+package com.acabra.expenseshare.service.split;
+
+import com.acabra.expenseshare.model.SplitRequest;
+import com.acabra.expenseshare.model.SplitStrategy;
+import com.acabra.expenseshare.util.Money;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service layer for dividing expense amounts among participants, so clients no longer compute owedBy themselves.
+ * The calculators work on primitive arrays in minor units; BigDecimals appear only when requests are read
+ * and owedBy maps are built.
+ */
+@Service // Marks this class as a Spring service component
+public class SplitService {
+
+    private static final int PERCENT_SCALE = 2; // Percentages are read as basis points
+    private static final long HUNDRED_PERCENT = 100L * 100;
+
+    private final SplitCalculator equalCalculator = new EqualSplitCalculator();
+    private final SplitCalculator percentageCalculator = new WeightedSplitCalculator(HUNDRED_PERCENT, PERCENT_SCALE);
+    private final SplitCalculator sharesCalculator = new WeightedSplitCalculator(0, 0);
+    private final SplitCalculator exactCalculator = new ExactSplitCalculator();
+
+    /**
+     * Divides an amount among participants.
+     * @param strategy How to divide the amount.
+     * @param total The amount in minor units.
+     * @param weights The participants' weights in the strategy's units: ignored for EQUAL, basis points for
+     *                PERCENTAGE, share counts for SHARES and minor units for EXACT.
+     * @return The amount owed by each participant in minor units, index-aligned with weights.
+     * @throws IllegalArgumentException if there are no participants or the weights are invalid for the strategy.
+     */
+    public long[] split(SplitStrategy strategy, long total, long[] weights) {
+        if (weights.length == 0) {
+            throw new IllegalArgumentException("A split needs at least one participant");
+        }
+        long[] shares = new long[weights.length];
+        calculator(strategy).split(total, weights, weights.length, shares, new long[2 * weights.length]);
+        return shares;
+    }
+
+    /**
+     * Computes the owedBy map of an expense.
+     * @param request The amount, strategy and participant weights.
+     * @return The amount owed by each participant, in the order of the request's weights.
+     * @throws IllegalArgumentException if the request is invalid.
+     */
+    public Map<String, BigDecimal> split(SplitRequest request) {
+        return splitAll(List.of(request)).get(0);
+    }
+
+    /**
+     * Computes the owedBy maps of many expenses in one call, e.g. while preparing an import.
+     * The working arrays are allocated once for the largest request and reused for every other one.
+     * @param requests The requests to evaluate.
+     * @return The owedBy maps, index-aligned with requests.
+     * @throws IllegalArgumentException naming the index of the first invalid request.
+     */
+    public List<Map<String, BigDecimal>> splitAll(List<SplitRequest> requests) {
+        int maxParticipants = 0;
+        for (SplitRequest request : requests) {
+            if (request.getWeights() != null) {
+                maxParticipants = Math.max(maxParticipants, request.getWeights().size());
+            }
+        }
+        long[] weights = new long[maxParticipants];
+        long[] shares = new long[maxParticipants];
+        long[] scratch = new long[2 * maxParticipants];
+        List<Map<String, BigDecimal>> owedBys = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                owedBys.add(split(requests.get(i), weights, shares, scratch));
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                throw new IllegalArgumentException("[" + i + "] " + e.getMessage(), e);
+            }
+        }
+        return owedBys;
+    }
+
+    private Map<String, BigDecimal> split(SplitRequest request, long[] weights, long[] shares, long[] scratch) {
+        if (request.getStrategy() == null) {
+            throw new IllegalArgumentException("strategy is required");
+        }
+        if (request.getAmount() == null) {
+            throw new IllegalArgumentException("amount is required");
+        }
+        if (request.getWeights() == null || request.getWeights().isEmpty()) {
+            throw new IllegalArgumentException("A split needs at least one participant");
+        }
+        String currency = Money.checkCurrency(request.getCurrency());
+        long total = Money.toMinor(request.getAmount(), currency);
+        int count = 0;
+        for (Map.Entry<String, BigDecimal> participant : request.getWeights().entrySet()) {
+            weights[count++] = toWeight(request.getStrategy(), participant, currency);
+        }
+        calculator(request.getStrategy()).split(total, weights, count, shares, scratch);
+
+        int scale = Money.scale(currency);
+        Map<String, BigDecimal> owedBy = new LinkedHashMap<>((int) (count / 0.75f) + 1);
+        int i = 0;
+        for (String userId : request.getWeights().keySet()) {
+            owedBy.put(userId, BigDecimal.valueOf(shares[i++], scale));
+        }
+        return owedBy;
+    }
+
+    /**
+     * Reads a participant's weight in the minor units the calculators expect.
+     */
+    private static long toWeight(SplitStrategy strategy, Map.Entry<String, BigDecimal> participant, String currency) {
+        BigDecimal weight = participant.getValue();
+        if (strategy == SplitStrategy.EQUAL) {
+            return 1;
+        }
+        if (weight == null) {
+            throw new IllegalArgumentException("Weight of " + participant.getKey() + " is required");
+        }
+        try {
+            return switch (strategy) {
+                case PERCENTAGE -> weight.movePointRight(PERCENT_SCALE).longValueExact();
+                case SHARES -> weight.longValueExact();
+                default -> Money.toMinor(weight, currency);
+            };
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid " + strategy + " weight of " + participant.getKey() + ": "
+                    + weight.toPlainString());
+        }
+    }
+
+    private SplitCalculator calculator(SplitStrategy strategy) {
+        return switch (strategy) {
+            case EQUAL -> equalCalculator;
+            case PERCENTAGE -> percentageCalculator;
+            case SHARES -> sharesCalculator;
+            case EXACT -> exactCalculator;
+        };
+    }
+}
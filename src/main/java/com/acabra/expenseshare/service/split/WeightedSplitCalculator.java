@@ -0,0 +1,37 @@
+// src/main/java/com/acabra/expenseshare/service/split/WeightedSplitCalculator.java
+package com.acabra.expenseshare.service.split;
+
+import com.acabra.expenseshare.util.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * Splits in proportion to the weights with the largest remainder method (see Money.split).
+ * Serves both SHARES, where weights may add up to anything, and PERCENTAGE, where they are basis points
+ * (hundredths of a percent) that must add up to 10000.
+ */
+class WeightedSplitCalculator implements SplitCalculator {
+
+    private final long requiredWeightSum; // 0 if any positive sum is accepted
+    private final int weightScale; // Decimals of the weights as the client wrote them, for error messages
+
+    WeightedSplitCalculator(long requiredWeightSum, int weightScale) {
+        this.requiredWeightSum = requiredWeightSum;
+        this.weightScale = weightScale;
+    }
+
+    @Override
+    public void split(long total, long[] weights, int count, long[] shares, long[] scratch) {
+        if (requiredWeightSum > 0) {
+            long weightSum = 0;
+            for (int i = 0; i < count; i++) {
+                weightSum += weights[i];
+            }
+            if (weightSum != requiredWeightSum) {
+                throw new IllegalArgumentException("Weights add up to " + BigDecimal.valueOf(weightSum, weightScale)
+                        .toPlainString() + ", not " + BigDecimal.valueOf(requiredWeightSum, weightScale).toPlainString());
+            }
+        }
+        Money.split(total, weights, count, shares, scratch);
+    }
+}
@@ -0,0 +1,316 @@
+// src/main/java/com/acabra/expenseshare/service/stream/GroupEventStreams.java
+package com.acabra.expenseshare.service.stream;
+
+import com.acabra.expenseshare.util.TransactionCallbacks;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fans committed expense changes out to Server-Sent Event subscribers, per group.
+ * <p>
+ * Each group with subscribers has a channel holding its subscribers and its most recent events
+ * (events.stream.replay-size), so a client that reconnects with Last-Event-ID gets what it missed instead of
+ * refetching the group. Event IDs are only meaningful to this instance: a client presenting an unknown or
+ * expired ID gets a "reset" event and should reload the group's expenses. A channel whose last subscriber left is
+ * dropped, with its replay buffer, once it has been idle for events.stream.idle-timeout; its group's events are then
+ * no longer kept.
+ * <p>
+ * Publishing never blocks the writer: every subscriber has a bounded queue (events.stream.subscriber-buffer) drained
+ * by its own sender task, and a subscriber whose queue is full is disconnected rather than allowed to hold memory.
+ * Heartbeat comments keep idle connections open through proxies and reveal dead ones.
+ */
+@Service // Marks this class as a Spring service component
+public class GroupEventStreams {
+
+    public static final String RESET = "reset";
+
+    private static final StreamEvent HEARTBEAT = new StreamEvent(-1, null, null);
+
+    private final ObjectMapper objectMapper;
+    private final int subscriberBuffer;
+    private final int replaySize;
+    private final long timeoutMillis;
+    private final long idleTimeoutMillis;
+    private final Map<String, GroupChannel> channels;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor(); // Sends may block on slow sockets
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36); // Tells this instance's IDs apart
+    private final LongAdder published = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+    private final LongAdder droppedSubscribers = new LongAdder();
+
+    @Autowired // Injects the ObjectMapper used for payloads and the stream settings
+    public GroupEventStreams(ObjectMapper objectMapper,
+                             @Value("${events.stream.subscriber-buffer:64}") int subscriberBuffer,
+                             @Value("${events.stream.replay-size:256}") int replaySize,
+                             @Value("${events.stream.timeout:30m}") Duration timeout,
+                             @Value("${events.stream.idle-timeout:2m}") Duration idleTimeout,
+                             @Value("${events.stream.max-groups:10000}") int maxGroups) {
+        this.objectMapper = objectMapper;
+        this.subscriberBuffer = subscriberBuffer;
+        this.replaySize = replaySize;
+        this.timeoutMillis = timeout.toMillis();
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        // Access-ordered LRU of channels; channels with live subscribers are never evicted
+        this.channels = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, GroupChannel> eldest) {
+                return size() > maxGroups && eldest.getValue().subscribers.isEmpty();
+            }
+        });
+    }
+
+    /**
+     * Subscribes to a group's expense events.
+     * @param groupId The ID of the group.
+     * @param lastEventId The Last-Event-ID sent by a reconnecting client, or null for a new subscription.
+     * @return The emitter to return from the controller; it first replays the missed events, if any.
+     */
+    public SseEmitter subscribe(String groupId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber;
+        // Holding the map's lock keeps the channel from being dropped as idle or evicted before the registration
+        synchronized (channels) {
+            GroupChannel channel = channels.computeIfAbsent(groupId, id -> new GroupChannel());
+            subscriber = new Subscriber(channel, emitter);
+            synchronized (channel) { // No event can be published between the replay and the registration
+                List<StreamEvent> missed = channel.eventsAfter(lastEventId);
+                if (missed == null) {
+                    resets.increment();
+                    subscriber.offer(new StreamEvent(channel.sequence, RESET, "{\"groupId\":\"" + groupId + "\"}"));
+                } else {
+                    replayed.add(missed.size());
+                    missed.forEach(subscriber::offer);
+                }
+                channel.subscribers.add(subscriber);
+            }
+        }
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscriber.offer(HEARTBEAT); // Flushes the response headers right away
+        return emitter;
+    }
+
+    /**
+     * Publishes an event to a group's subscribers once the current transaction commits; nothing is sent
+     * if it rolls back. Groups nobody has subscribed to are skipped without serializing the payload.
+     * @param groupId The ID of the group.
+     * @param eventType The event name, e.g. expense.created.
+     * @param payload The object to send as JSON, serialized now so later changes to it are not seen.
+     */
+    public void publishAfterCommit(String groupId, String eventType, Object payload) {
+        if (!channels.containsKey(groupId)) {
+            return;
+        }
+        String json = toJson(payload);
+        TransactionCallbacks.afterCommit(() -> publish(groupId, eventType, json));
+    }
+
+    /**
+     * Sends a heartbeat comment to every subscriber.
+     */
+    @Scheduled(fixedDelayString = "${events.stream.heartbeat-interval:15s}")
+    void sendHeartbeats() {
+        for (GroupChannel channel : snapshot()) {
+            channel.subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+        }
+    }
+
+    /**
+     * Drops the channels that have had no subscriber for events.stream.idle-timeout, so groups nobody watches any
+     * more stop collecting events for replay.
+     */
+    @Scheduled(fixedDelayString = "${events.stream.idle-timeout:2m}")
+    void releaseIdleChannels() {
+        long idleBefore = System.currentTimeMillis() - idleTimeoutMillis;
+        synchronized (channels) {
+            channels.values().removeIf(channel -> channel.subscribers.isEmpty() && channel.idleSince < idleBefore);
+        }
+    }
+
+    /**
+     * Returns the counters of the event streams.
+     * @return A map with the number of groups and subscribers, events published and replayed, resets sent and
+     *         subscribers dropped for falling behind.
+     */
+    public Map<String, Object> getStats() {
+        List<GroupChannel> channels = snapshot();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("groups", channels.size());
+        stats.put("subscribers", channels.stream().mapToInt(channel -> channel.subscribers.size()).sum());
+        stats.put("published", published.sum());
+        stats.put("replayed", replayed.sum());
+        stats.put("resets", resets.sum());
+        stats.put("droppedSubscribers", droppedSubscribers.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (GroupChannel channel : snapshot()) {
+            channel.subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        }
+        senders.shutdownNow();
+    }
+
+    private void publish(String groupId, String eventType, String json) {
+        GroupChannel channel = channels.get(groupId);
+        if (channel == null) {
+            return; // Evicted since the change was made
+        }
+        synchronized (channel) {
+            StreamEvent event = new StreamEvent(++channel.sequence, eventType, json);
+            channel.recent.addLast(event);
+            if (channel.recent.size() > replaySize) {
+                channel.recent.removeFirst();
+            }
+            channel.subscribers.forEach(subscriber -> subscriber.offer(event));
+        }
+        published.increment();
+    }
+
+    private List<GroupChannel> snapshot() {
+        synchronized (channels) {
+            return new ArrayList<>(channels.values());
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSse(StreamEvent event) {
+        if (event == HEARTBEAT) {
+            return SseEmitter.event().comment("heartbeat");
+        }
+        return SseEmitter.event().id(epoch + "-" + event.sequence()).name(event.type()).data(event.json());
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize event payload", e); // Models are plain beans
+        }
+    }
+
+    /**
+     * An event as kept for replay; the JSON is rendered once and shared by every subscriber.
+     */
+    private record StreamEvent(long sequence, String type, String json) {
+    }
+
+    /**
+     * The subscribers and recent events of one group. Publishing and subscribing synchronize on the channel.
+     */
+    private final class GroupChannel {
+
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final ArrayDeque<StreamEvent> recent = new ArrayDeque<>();
+        private long sequence;
+        private volatile long idleSince = System.currentTimeMillis(); // When the last subscriber left
+
+        /**
+         * Returns the events a client missed since the given event ID, or null if they cannot be replayed:
+         * the ID is from another instance or malformed, or the events have left the replay window or would
+         * overflow the subscriber's buffer.
+         */
+        private List<StreamEvent> eventsAfter(String lastEventId) {
+            if (lastEventId == null || lastEventId.isBlank()) {
+                return List.of();
+            }
+            int separator = lastEventId.lastIndexOf('-');
+            long last;
+            try {
+                if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+                    return null;
+                }
+                last = Long.parseLong(lastEventId.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (last > sequence) {
+                return null;
+            }
+            long oldest = recent.isEmpty() ? sequence + 1 : recent.getFirst().sequence();
+            if (last + 1 < oldest || sequence - last > subscriberBuffer - 1) {
+                return null;
+            }
+            return recent.stream().filter(event -> event.sequence() > last).toList();
+        }
+    }
+
+    /**
+     * One connected client: a bounded queue of pending events and at most one sender task draining it.
+     */
+    private final class Subscriber {
+
+        private final GroupChannel channel;
+        private final SseEmitter emitter;
+        private final BlockingQueue<StreamEvent> queue = new ArrayBlockingQueue<>(subscriberBuffer);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(GroupChannel channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+
+        private void offer(StreamEvent event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                droppedSubscribers.increment(); // Too slow to keep up; it may reconnect with Last-Event-ID
+                close();
+                emitter.complete();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                StreamEvent event;
+                while (!closed && (event = queue.poll()) != null) {
+                    try {
+                        emitter.send(toSse(event));
+                    } catch (IOException | IllegalStateException e) {
+                        close(); // Client went away, or the emitter already completed
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (!closed && !queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void close() {
+            closed = true;
+            if (channel.subscribers.remove(this) && channel.subscribers.isEmpty()) {
+                channel.idleSince = System.currentTimeMillis();
+            }
+            queue.clear();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+// src/main/java/com/acabra/expenseshare/util/Money.java
+package com.acabra.expenseshare.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Currency;
+
+/**
+ * Helpers for money amounts. Amounts are stored and computed as longs in the minor unit of their currency
+ * (cents for USD, yen for JPY), so sums are exact; they are converted to decimals only at the API boundary.
+ */
+public final class Money {
+
+    /**
+     * The currency of groups and expenses that do not name one, and of every row that predates currencies.
+     */
+    public static final String DEFAULT_CURRENCY = "USD";
+
+    private Money() {
+    }
+
+    /**
+     * Checks that a currency code is a known ISO 4217 currency with minor units.
+     * @param currency The currency code, e.g. "EUR".
+     * @return The JDK's instance of the code, so entities loaded by the million share one String per currency.
+     * @throws IllegalArgumentException if the code is null, unknown, or a currency without minor units (e.g. XAU).
+     */
+    public static String checkCurrency(String currency) {
+        if (currency == null || fractionDigits(currency) < 0) {
+            throw new IllegalArgumentException("Unsupported currency: " + currency);
+        }
+        return Currency.getInstance(currency).getCurrencyCode();
+    }
+
+    /**
+     * Returns the number of decimals of a currency's amounts, for callers that convert many amounts at once.
+     * @param currency The currency code.
+     * @return The number of digits after the decimal point, e.g. 2 for USD and 0 for JPY.
+     * @throws IllegalArgumentException if the currency is not supported (see checkCurrency).
+     */
+    public static int scale(String currency) {
+        return fractionDigits(checkCurrency(currency));
+    }
+
+    /**
+     * Converts a decimal amount to minor units. The conversion is exact or fails.
+     * @param amount The amount, e.g. 12.34.
+     * @param currency The currency code.
+     * @return The amount in minor units, e.g. 1234.
+     * @throws IllegalArgumentException if the amount has more decimals than the currency allows or does not fit a long.
+     */
+    public static long toMinor(BigDecimal amount, String currency) {
+        try {
+            return amount.setScale(fractionDigits(checkCurrency(currency))).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid " + currency + " amount: " + amount.toPlainString());
+        }
+    }
+
+    /**
+     * Converts an amount in minor units to a decimal with the currency's number of decimals.
+     * @param minor The amount in minor units, e.g. 1234.
+     * @param currency The currency code.
+     * @return The decimal amount, e.g. 12.34.
+     */
+    public static BigDecimal toDecimal(long minor, String currency) {
+        return BigDecimal.valueOf(minor, fractionDigits(checkCurrency(currency)));
+    }
+
+    /**
+     * Splits a total in proportion to non-negative weights using the largest remainder method: every part gets
+     * the floor of its exact share, and the units left over go one each to the parts with the largest remainders
+     * (the earlier part on ties). The parts always sum exactly to the total.
+     * @param total The amount to split, in minor units; may be negative.
+     * @param weights The weight of each part; at least one must be positive.
+     * @return The parts, index-aligned with weights.
+     * @throws IllegalArgumentException if a weight is negative or all weights are zero.
+     */
+    public static long[] split(long total, long[] weights) {
+        long[] parts = new long[weights.length];
+        split(total, weights, weights.length, parts, new long[2 * weights.length]);
+        return parts;
+    }
+
+    /**
+     * Allocation-free form of split(long, long[]) for callers that split many totals with reused arrays.
+     * Runs in O(n log n) on the given arrays only.
+     * @param total The amount to split, in minor units; may be negative.
+     * @param weights The weights; only the first count are used.
+     * @param count The number of parts.
+     * @param parts Receives the parts in its first count elements.
+     * @param scratch Working space of at least 2 * count elements.
+     * @throws IllegalArgumentException if a weight is negative or all weights are zero.
+     */
+    public static void split(long total, long[] weights, int count, long[] parts, long[] scratch) {
+        long weightSum = 0;
+        for (int i = 0; i < count; i++) {
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Split weights must not be negative");
+            }
+            weightSum = Math.addExact(weightSum, weights[i]);
+        }
+        if (weightSum == 0) {
+            throw new IllegalArgumentException("At least one split weight must be positive");
+        }
+        long magnitude = Math.abs(total);
+        long allocated = 0;
+        for (int i = 0; i < count; i++) {
+            long product = magnitude * weights[i];
+            if (Math.multiplyHigh(magnitude, weights[i]) == 0 && product >= 0) {
+                parts[i] = product / weightSum;
+                scratch[i] = product % weightSum; // The remainder, in 1 / weightSum units
+            } else { // The product overflows a long: rare enough to afford BigInteger
+                BigInteger[] division = BigInteger.valueOf(magnitude).multiply(BigInteger.valueOf(weights[i]))
+                        .divideAndRemainder(BigInteger.valueOf(weightSum));
+                parts[i] = division[0].longValueExact();
+                scratch[i] = division[1].longValueExact();
+            }
+            allocated += parts[i];
+        }
+        int left = (int) (magnitude - allocated); // Fewer than count: each remainder is below one unit
+        if (left > 0) {
+            // The parts whose remainder is above the left-th largest one get a unit; ties go to the earlier parts
+            System.arraycopy(scratch, 0, scratch, count, count);
+            Arrays.sort(scratch, count, 2 * count);
+            long threshold = scratch[2 * count - left];
+            for (int i = 0; i < count; i++) {
+                if (scratch[i] > threshold) {
+                    parts[i]++;
+                    left--;
+                }
+            }
+            for (int i = 0; i < count && left > 0; i++) {
+                if (scratch[i] == threshold) {
+                    parts[i]++;
+                    left--;
+                }
+            }
+        }
+        if (total < 0) {
+            for (int i = 0; i < count; i++) {
+                parts[i] = -parts[i];
+            }
+        }
+    }
+
+    private static int fractionDigits(String currency) {
+        try {
+            return Currency.getInstance(currency).getDefaultFractionDigits();
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+}
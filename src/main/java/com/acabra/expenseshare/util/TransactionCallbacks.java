@@ -0,0 +1,50 @@
+// src/main/java/com/acabra/expenseshare/util/TransactionCallbacks.java
+package com.acabra.expenseshare.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helpers for running cache maintenance and notifications around the current transaction.
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Runs an action now and, when a transaction is active, once more after it completes.
+     * Used for cache invalidation: the second run removes anything a concurrent reader cached
+     * from the pre-commit state while the write was still in flight.
+     * @param action The (idempotent) action to run.
+     */
+    public static void nowAndAfterCompletion(Runnable action) {
+        action.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs an action once the current transaction has committed, or right away when no transaction is active.
+     * Used for notifications that must never announce a change that is later rolled back.
+     * @param action The action to run.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -2,10 +2,20 @@
 package com.acabra.expenseshare.util.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm; // Keep this import for now if SignatureAlgorithm enum is still used elsewhere
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -15,11 +25,19 @@ import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 /**
  * Utility class for generating, validating, and extracting information from JWTs.
  * Uses a secret key for signing tokens and Spring's @Value to inject properties.
+ * Signing and verification are timed as expenseshare.jwt (operation generate or verify, outcome success, expired or
+ * invalid), and the verified-token cache reports cache.gets hits and misses, cache.size and cache.hit.ratio under
+ * cache=jwtVerifiedTokens. Cache hits only increment a counter, so the per-request cost stays a few nanoseconds.
  */
 @Component
 public class JwtUtil {
@@ -34,13 +52,136 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}") // Default to 24 hours in milliseconds
     private long expiration;
 
+    // Maximum number of verified tokens kept in memory; 0 disables the cache
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    // Built once at startup: decoding the secret and building the parser on every call is wasted work
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    // Tokens whose signature was already verified, keyed by the raw token string. Entries are
+    // only served until the token's own expiration, so a hit never outlives the token.
+    private final Map<String, ParsedToken> verifiedTokens = new ConcurrentHashMap<>();
+    // Cached tokens in insertion order. Every token has the same lifetime, so this is also expiry order:
+    // the head is the entry to evict when the cache is full. Hits never touch it, so they stay lock-free.
+    private final Queue<String> cacheOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger cacheOrderSize = new AtomicInteger();
+
+    // Outside Spring (benchmarks, unit tests) meters go to the global registry, which drops them unless configured
+    private MeterRegistry meterRegistry = Metrics.globalRegistry;
+    private Timer generateTimer;
+    private Timer verifyTimer;
+    private Timer expiredTimer;
+    private Timer invalidTimer;
+    private Counter cacheHits;
+    private Counter cacheMisses;
+
+    /**
+     * Sets the registry the JWT meters are published to.
+     * @param meterRegistry The application's MeterRegistry.
+     */
+    @Autowired(required = false)
+    void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
-     * Retrieves the signing key from the base64 encoded secret.
+     * Builds the signing key and the JWT parser from the base64 encoded secret.
+     * Both are immutable and thread-safe, so they are shared by all requests.
+     */
+    @PostConstruct
+    void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(secret);
+        this.signingKey = Keys.hmacShaKeyFor(keyBytes); // Keys.hmacShaKeyFor creates a key for HS256 by default from the bytes
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.generateTimer = timer("generate", "success");
+        this.verifyTimer = timer("verify", "success");
+        this.expiredTimer = timer("verify", "expired");
+        this.invalidTimer = timer("verify", "invalid");
+        this.cacheHits = cacheCounter("hit");
+        this.cacheMisses = cacheCounter("miss");
+        Gauge.builder("cache.size", verifiedTokens, Map::size)
+                .tag("cache", "jwtVerifiedTokens")
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", this, JwtUtil::cacheHitRatio)
+                .tag("cache", "jwtVerifiedTokens")
+                .description("Hits divided by lookups since startup")
+                .register(meterRegistry);
+    }
+
+    private double cacheHitRatio() {
+        double hits = cacheHits.count();
+        double lookups = hits + cacheMisses.count();
+        return lookups == 0 ? 0.0 : hits / lookups;
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder("expenseshare.jwt")
+                .description("Latency of JWT signing and signature verification")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Counter cacheCounter(String result) {
+        return Counter.builder("cache.gets")
+                .tag("cache", "jwtVerifiedTokens")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retrieves the signing key built at startup.
      * @return The signing Key.
      */
     private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes); // Keys.hmacShaKeyFor creates a key for HS256 by default from the bytes
+        return signingKey;
+    }
+
+    /**
+     * Parses and verifies a token once, returning its claims as an immutable ParsedToken.
+     * A token that was verified recently is served from memory until its expiration,
+     * skipping the HMAC verification.
+     * @param token The JWT.
+     * @return The verified, non-expired ParsedToken.
+     * @throws JwtException if the token is malformed, has an invalid signature, or is expired.
+     */
+    public ParsedToken parseToken(String token) {
+        long now = System.currentTimeMillis();
+        ParsedToken cached = verifiedTokens.get(token);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                cacheHits.increment();
+                return cached;
+            }
+            verifiedTokens.remove(token);
+        }
+        cacheMisses.increment();
+        ParsedToken parsed = ParsedToken.from(verifyClaims(token)); // Throws ExpiredJwtException if expired
+        cacheVerifiedToken(token, parsed);
+        return parsed;
+    }
+
+    /**
+     * Verifies the signature and expiration of a token, timing the verification by outcome.
+     * @param token The JWT.
+     * @return The token's claims.
+     * @throws JwtException if the token is malformed, has an invalid signature, or is expired.
+     */
+    private Claims verifyClaims(String token) {
+        long start = System.nanoTime();
+        try {
+            Claims claims = extractAllClaims(token);
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (ExpiredJwtException e) {
+            expiredTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        } catch (JwtException | IllegalArgumentException e) {
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
     }
 
     /**
@@ -61,7 +202,7 @@ public class JwtUtil {
      * @return All claims as a Claims object.
      */
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
     }
 
     /**
@@ -70,7 +211,15 @@ public class JwtUtil {
      * @return The username.
      */
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return parseToken(token).getUsername();
+    }
+
+    /**
+     * Returns the lifetime of newly generated tokens.
+     * @return The token lifetime in milliseconds.
+     */
+    public long getExpiration() {
+        return expiration;
     }
 
     /**
@@ -79,27 +228,51 @@ public class JwtUtil {
      * @return The expiration date.
      */
     public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return parseToken(token).getExpiration();
     }
 
     /**
-     * Checks if the token is expired.
+     * Validates the token against UserDetails and checks for expiration.
      * @param token The JWT.
-     * @return True if the token is expired, false otherwise.
+     * @param userDetails The UserDetails to validate against.
+     * @return True if the token is valid, false otherwise.
      */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Boolean validateToken(String token, UserDetails userDetails) {
+        return validateToken(parseToken(token), userDetails);
     }
 
     /**
-     * Validates the token against UserDetails and checks for expiration.
-     * @param token The JWT.
+     * Validates an already parsed token against UserDetails and checks for expiration.
+     * @param parsedToken The verified token.
      * @param userDetails The UserDetails to validate against.
      * @return True if the token is valid, false otherwise.
      */
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public boolean validateToken(ParsedToken parsedToken, UserDetails userDetails) {
+        return parsedToken.getUsername().equals(userDetails.getUsername())
+                && !parsedToken.isExpired(System.currentTimeMillis());
+    }
+
+    /**
+     * Adds a verified token to the cache. When the cache is full, the oldest entries (the first to expire)
+     * are evicted, one per insert in the steady state, so memory stays bounded without scanning the cache.
+     */
+    private void cacheVerifiedToken(String token, ParsedToken parsed) {
+        if (cacheMaxEntries <= 0 || parsed.getExpiration() == null
+                || verifiedTokens.putIfAbsent(token, parsed) != null) {
+            return;
+        }
+        cacheOrder.add(token);
+        if (cacheOrderSize.incrementAndGet() <= cacheMaxEntries) {
+            return;
+        }
+        while (cacheOrderSize.get() > cacheMaxEntries) {
+            String eldest = cacheOrder.poll();
+            if (eldest == null) {
+                return; // Polled by a concurrent insert
+            }
+            cacheOrderSize.decrementAndGet();
+            verifiedTokens.remove(eldest); // A no-op if it was already dropped as expired
+        }
     }
 
     /**
@@ -113,22 +286,28 @@ public class JwtUtil {
         claims.put("roles", userDetails.getAuthorities().stream()
                 .map(grantedAuthority -> grantedAuthority.getAuthority().replace("ROLE_", "")) // Remove "ROLE_" prefix for cleaner roles
                 .toList());
-        return createToken(claims, userDetails.getUsername());
+        long start = System.nanoTime();
+        String token = createToken(claims, userDetails.getUsername());
+        generateTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return token;
     }
 
     /**
      * Creates the JWT with claims, subject (username), issued date, expiration date, and signs it.
+     * The issue time is also stored in milliseconds, so a logout only revokes tokens issued before it.
      * Uses the non-deprecated fluent API of JJWT.
      * @param claims Custom claims to include.
      * @param subject The subject of the token (username).
      * @return The signed JWT string.
      */
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(claims) // Replaced setClaims()
+                .claim(ParsedToken.ISSUED_AT_MILLIS, now)
                 .setSubject(subject) // Replaced setSubject()
-                .setIssuedAt(new Date(System.currentTimeMillis())) // Replaced setIssuedAt()
-                .setExpiration(new Date(System.currentTimeMillis() + expiration)) // Replaced setExpiration()
+                .setIssuedAt(new Date(now)) // Replaced setIssuedAt()
+                .setExpiration(new Date(now + expiration)) // Replaced setExpiration()
                 .signWith(getSigningKey()) // Replaced signWith(key, SignatureAlgorithm)
                 .compact();
     }
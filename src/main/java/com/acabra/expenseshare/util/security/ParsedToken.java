@@ -0,0 +1,89 @@
+// src/main/java/com/acabra/expenseshare/util/security/ParsedToken.java
+package com.acabra.expenseshare.util.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Immutable view of a JWT whose signature has already been verified by JwtUtil.
+ * Holds only the claims the application reads, so it can be cached and shared between requests.
+ */
+public final class ParsedToken {
+
+    /**
+     * Claim holding the issue time in epoch milliseconds; the standard 'iat' claim only has second precision.
+     */
+    static final String ISSUED_AT_MILLIS = "iatMillis";
+
+    private final String username;
+    private final List<String> roles;
+    private final Date issuedAt;
+    private final Date expiration;
+
+    ParsedToken(String username, List<String> roles, Date issuedAt, Date expiration) {
+        this.username = username;
+        this.roles = roles;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+    }
+
+    /**
+     * Builds a ParsedToken from verified claims.
+     * @param claims The claims of a token whose signature was verified.
+     * @return The immutable ParsedToken.
+     */
+    static ParsedToken from(Claims claims) {
+        Object rolesClaim = claims.get("roles");
+        List<String> roles = rolesClaim instanceof Collection<?> values
+                ? values.stream().map(String::valueOf).toList()
+                : List.of();
+        Date issuedAt = claims.get(ISSUED_AT_MILLIS) instanceof Number millis
+                ? new Date(millis.longValue())
+                : copyOf(claims.getIssuedAt()); // Tokens issued before the claim existed
+        return new ParsedToken(claims.getSubject(), roles, issuedAt, copyOf(claims.getExpiration()));
+    }
+
+    // Getters (Dates are copied on the way in and out, as java.util.Date is mutable).
+    // The issue time has millisecond precision when the token carries the iatMillis claim.
+    public String getUsername() {
+        return username;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public Date getIssuedAt() {
+        return copyOf(issuedAt);
+    }
+
+    public Date getExpiration() {
+        return copyOf(expiration);
+    }
+
+    /**
+     * Checks if the token is expired at the given instant.
+     * @param nowMillis The current time in milliseconds.
+     * @return True if the token has an expiration that is not after nowMillis.
+     */
+    public boolean isExpired(long nowMillis) {
+        return expiration != null && expiration.getTime() <= nowMillis;
+    }
+
+    private static Date copyOf(Date date) {
+        return date == null ? null : new Date(date.getTime());
+    }
+
+    @Override
+    public String toString() {
+        return "ParsedToken{" +
+                "username='" + username + '\'' +
+                ", roles=" + roles +
+                ", issuedAt=" + issuedAt +
+                ", expiration=" + expiration +
+                '}';
+    }
+}
@@ -0,0 +1,77 @@
+// src/main/java/com/acabra/expenseshare/util/security/TimedPasswordEncoder.java
+package com.acabra.expenseshare.util.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PasswordEncoder decorator that times every hash as expenseshare.password, tagged with the operation (encode or
+ * matches) and the outcome: success, failure (the password did not match) or error. BCrypt is the most expensive
+ * step of a login by far, so these timers show directly whether login latency comes from hashing or from queueing
+ * in front of it.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    static final String METRIC = "expenseshare.password";
+
+    private final PasswordEncoder delegate;
+    private final MeterRegistry meterRegistry;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer mismatchTimer;
+
+    /**
+     * Wraps an encoder.
+     * @param delegate The encoder doing the work, e.g. a BCryptPasswordEncoder.
+     * @param meterRegistry The registry the timers are published to.
+     */
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.encodeTimer = timer("encode", "success");
+        this.matchTimer = timer("matches", "success");
+        this.mismatchTimer = timer("matches", "failure");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        long start = System.nanoTime();
+        try {
+            String encoded = delegate.encode(rawPassword);
+            encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return encoded;
+        } catch (RuntimeException e) {
+            timer("encode", "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        try {
+            boolean matches = delegate.matches(rawPassword, encodedPassword);
+            (matches ? matchTimer : mismatchTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return matches;
+        } catch (RuntimeException e) {
+            timer("matches", "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder(METRIC)
+                .description("Latency of password hashing")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
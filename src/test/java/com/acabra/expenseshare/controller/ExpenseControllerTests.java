@@ -0,0 +1,299 @@
+package com.acabra.expenseshare.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ExpenseControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String groupId;
+
+    @BeforeEach
+    void createGroupWithExpenses() {
+        groupId = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO groups (id, name, created_at, created_by) VALUES (?, ?, CURRENT_TIMESTAMP, ?)",
+                groupId, "trip", "alice");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            String expenseId = "expense-" + i + "-" + groupId;
+            jdbcTemplate.update("INSERT INTO expenses (id, group_id, description, amount_minor, paid_by, date) " +
+                            "VALUES (?, ?, ?, ?, ?, ?)",
+                    expenseId, groupId, "expense " + i, 1000, "alice",
+                    Timestamp.valueOf(start.plusMinutes(i / 2))); // Pairs share a date, so the id breaks ties
+            jdbcTemplate.update("INSERT INTO expense_shares (expense_id, user_id, amount_minor) VALUES (?, ?, ?)",
+                    expenseId, "bob", 1000);
+        }
+    }
+
+    @Test
+    void keysetPaginationWalksEveryExpenseOnce() throws Exception {
+        List<String> descriptions = new ArrayList<>();
+        String cursor = null;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/expenses/group/{groupId}", groupId).param("limit", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            MvcResult page = mockMvc.perform(request).andExpect(status().isOk()).andReturn();
+            descriptions.addAll(JsonPath.read(page.getResponse().getContentAsString(), "$[*].description"));
+            cursor = page.getResponse().getHeader(ExpenseController.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        assertThat(descriptions).containsExactly("expense 0", "expense 1", "expense 2", "expense 3", "expense 4");
+    }
+
+    @Test
+    void createdExpenseRoundTripsWithItsShares() throws Exception {
+        String body = "{\"groupId\":\"" + groupId + "\",\"description\":\"hotel\",\"amount\":90.0," +
+                "\"paidBy\":\"carol\",\"owedBy\":{\"alice\":30.0,\"bob\":30.0,\"carol\":30.0}}";
+        String created = mockMvc.perform(post("/api/expenses").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(created, "$.id");
+
+        mockMvc.perform(get("/api/expenses/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.owedBy.alice").value(30.0))
+                .andExpect(jsonPath("$.shares").doesNotExist());
+        mockMvc.perform(get("/api/expenses/owed/{userId}", "bob"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.groupId == '" + groupId + "')].total").value(80.0));
+
+        mockMvc.perform(put("/api/expenses/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content(body.replace("\"bob\":30.0,\"carol\":30.0", "\"carol\":60.0")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/groups/{id}/balances", groupId))
+                .andExpect(jsonPath("$[?(@.userId == 'carol')].balance").value(30.0))
+                .andExpect(jsonPath("$[?(@.userId == 'alice')].balance").value(-30.0))
+                .andExpect(jsonPath("$[?(@.userId == 'bob')].balance").value(0.0));
+        mockMvc.perform(delete("/api/expenses/{id}", id)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/expenses/{id}", id)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void batchInsertsEveryExpenseAndUpdatesBalancesOnce() throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 3; i++) {
+            body.append(i == 0 ? "" : ",").append("{\"groupId\":\"").append(groupId).append("\",\"description\":\"batch ")
+                    .append(i).append("\",\"amount\":30.0,\"paidBy\":\"alice\",\"owedBy\":{\"bob\":30.0}}");
+        }
+        body.append("]");
+        mockMvc.perform(post("/api/expenses/batch").contentType(MediaType.APPLICATION_JSON).content(body.toString()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created").value(3))
+                .andExpect(jsonPath("$.ids.length()").value(3));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expense_shares s JOIN expenses e ON e.id = s.expense_id " +
+                "WHERE e.group_id = ? AND e.description LIKE 'batch %'", Integer.class, groupId)).isEqualTo(3);
+        mockMvc.perform(get("/api/groups/{id}/balances", groupId))
+                .andExpect(jsonPath("$[?(@.userId == 'alice')].balance").value(90.0))
+                .andExpect(jsonPath("$[?(@.userId == 'bob')].balance").value(-90.0));
+    }
+
+    @Test
+    void invalidBatchIsRejectedWithoutWritingAnything() throws Exception {
+        String body = "[{\"groupId\":\"" + groupId + "\",\"description\":\"ok\",\"amount\":10.0,\"paidBy\":\"alice\"}," +
+                "{\"groupId\":\"no-such-group\",\"description\":\"bad\",\"paidBy\":\"alice\"}]";
+        mockMvc.perform(post("/api/expenses/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("[1] group not found: no-such-group"))
+                .andExpect(jsonPath("$.errors[1]").value("[1] amount is required"));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses WHERE group_id = ?", Integer.class, groupId))
+                .isEqualTo(5);
+    }
+
+    @Test
+    void batchWithTakenOrRepeatedIdsIsRejected() throws Exception {
+        String expense = "\"groupId\":\"" + groupId + "\",\"description\":\"dup\",\"amount\":10.0,\"paidBy\":\"alice\"";
+        String body = "[{\"id\":\"expense-0-" + groupId + "\"," + expense + "}," +
+                "{\"id\":\"new-" + groupId + "\"," + expense + "},{\"id\":\"new-" + groupId + "\"," + expense + "}]";
+        mockMvc.perform(post("/api/expenses/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors[0]").value("[0] id already exists: expense-0-" + groupId))
+                .andExpect(jsonPath("$.errors[1]").value("[2] duplicate id in the batch: new-" + groupId));
+
+        mockMvc.perform(post("/api/expenses/batch").contentType(MediaType.APPLICATION_JSON).content("{\"id\":1}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/expenses/batch").contentType(MediaType.APPLICATION_JSON).content("[{\"id\":"))
+                .andExpect(status().isBadRequest());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses WHERE group_id = ?", Integer.class, groupId))
+                .isEqualTo(5);
+    }
+
+    @Test
+    void csvImportKeepsValidRowsAndReportsTheOthers() throws Exception {
+        addMembers("alice", "bob");
+        String csv = "groupId,description,amount,paidBy,owedBy,date\n" +
+                groupId + ",\"dinner, drinks\",40.0,alice,bob:20.0;alice:20.0,2024-02-01T20:00:00\n" +
+                groupId + ",taxi,12.5,mallory,bob:12.5,\n" +
+                "\n" +
+                groupId + ",museum,30.0,bob,alice:30.0,\n";
+        mockMvc.perform(post("/api/expenses/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsRead").value(3))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0]").value("line 3: paidBy is not a member of the group: mallory"));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses WHERE group_id = ? AND description = ?",
+                Integer.class, groupId, "dinner, drinks")).isEqualTo(1);
+        mockMvc.perform(get("/api/groups/{id}/balances", groupId))
+                .andExpect(jsonPath("$[?(@.userId == 'alice')].balance").value(-10.0))
+                .andExpect(jsonPath("$[?(@.userId == 'bob')].balance").value(10.0));
+    }
+
+    @Test
+    void ndjsonImportRollsBackAChunkTheDatabaseRefuses() throws Exception {
+        addMembers("alice", "bob");
+        String row = "{\"id\":\"dup-" + groupId + "\",\"groupId\":\"" + groupId +
+                "\",\"description\":\"twice\",\"amount\":5.0,\"paidBy\":\"alice\",\"owedBy\":{\"bob\":5.0}}";
+        mockMvc.perform(post("/api/expenses/import").contentType(MediaType.APPLICATION_NDJSON)
+                        .content(row + "\n{not json}\n" + row + "\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsRead").value(3))
+                .andExpect(jsonPath("$.imported").value(0))
+                .andExpect(jsonPath("$.rejected").value(3));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expenses WHERE id = ?",
+                Integer.class, "dup-" + groupId)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM group_balances WHERE group_id = ?",
+                Integer.class, groupId)).isZero();
+    }
+
+    @Test
+    void shareAdjustmentsAndStaleUpdatesAreCheckedAgainstTheVersion() throws Exception {
+        String expenseId = "expense-0-" + groupId;
+        mockMvc.perform(patch("/api/expenses/{id}/shares/{userId}", expenseId, "bob")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":25.0,\"version\":0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.owedBy.bob").value(25.0))
+                .andExpect(jsonPath("$.amount").value(25.0)) // The amount follows the shares
+                .andExpect(jsonPath("$.version").value(1));
+        mockMvc.perform(get("/api/groups/{id}/balances", groupId)) // Only the deltas of the patch: the seed has no ledger
+                .andExpect(jsonPath("$[?(@.userId == 'bob')].balance").value(-15.0))
+                .andExpect(jsonPath("$[?(@.userId == 'alice')].balance").value(15.0));
+        mockMvc.perform(get("/api/expenses/{id}", expenseId)).andExpect(jsonPath("$.amount").value(25.0));
+
+        mockMvc.perform(patch("/api/expenses/{id}/shares/{userId}", expenseId, "bob")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":5.0,\"version\":0}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(put("/api/expenses/{id}", expenseId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"stale\",\"amount\":10.0,\"paidBy\":\"alice\",\"version\":0}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").exists());
+        mockMvc.perform(put("/api/expenses/{id}", expenseId).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"fresh\",\"amount\":10.0,\"paidBy\":\"alice\",\"version\":1}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(2));
+
+        mockMvc.perform(patch("/api/expenses/{id}/shares/{userId}", expenseId, "zoe")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":5.0}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/expenses/{id}/shares/{userId}", "no-such-expense", "bob")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\":5.0,\"version\":0}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void amountsAreExactMinorUnitsInTheGroupCurrency() throws Exception {
+        for (int i = 0; i < 10; i++) { // Ten 0.10 expenses: a DOUBLE ledger would end at 0.9999999999999999
+            mockMvc.perform(post("/api/expenses").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"groupId\":\"" + groupId + "\",\"description\":\"gum\",\"amount\":0.1," +
+                                    "\"paidBy\":\"carol\",\"owedBy\":{\"dave\":0.1}}"))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.currency").value("USD"))
+                    .andExpect(jsonPath("$.amountMinor").doesNotExist());
+        }
+        mockMvc.perform(get("/api/groups/{id}/balances", groupId))
+                .andExpect(content().string(containsString("\"userId\":\"carol\",\"currency\":\"USD\",\"balance\":1.00}")))
+                .andExpect(content().string(containsString("\"userId\":\"dave\",\"currency\":\"USD\",\"balance\":-1.00}")));
+
+        mockMvc.perform(post("/api/expenses").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"groupId\":\"" + groupId + "\",\"description\":\"gum\",\"amount\":0.105," +
+                                "\"paidBy\":\"carol\"}"))
+                .andExpect(status().isBadRequest()); // More decimals than USD has
+        mockMvc.perform(post("/api/expenses").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"groupId\":\"" + groupId + "\",\"description\":\"gum\",\"amount\":100," +
+                                "\"currency\":\"JPY\",\"paidBy\":\"carol\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Currency JPY does not match the group's currency USD"));
+    }
+
+    @Test
+    void splitsAreComputedOnTheServerForManyExpensesAtOnce() throws Exception {
+        mockMvc.perform(post("/api/expenses/splits").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"amount\":10,\"strategy\":\"EQUAL\",\"weights\":{\"alice\":null,\"bob\":null,\"carol\":null}}," +
+                                "{\"amount\":90,\"strategy\":\"SHARES\",\"weights\":{\"alice\":2,\"bob\":1}}," +
+                                "{\"amount\":50,\"strategy\":\"PERCENTAGE\",\"weights\":{\"alice\":33.33,\"bob\":66.67}}]"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"alice\":3.34,\"bob\":3.33,\"carol\":3.33}," +
+                        "{\"alice\":60.00,\"bob\":30.00},{\"alice\":16.67,\"bob\":33.33}]"));
+
+        mockMvc.perform(post("/api/expenses/splits").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"amount\":10,\"strategy\":\"EXACT\",\"weights\":{\"alice\":4,\"bob\":6}}," +
+                                "{\"amount\":10,\"strategy\":\"EXACT\",\"weights\":{\"alice\":4,\"bob\":5}}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("[1] Exact shares add up to 900 minor units, not 1000"));
+    }
+
+    private void addMembers(String... userIds) {
+        for (int i = 0; i < userIds.length; i++) {
+            jdbcTemplate.update("INSERT INTO group_members (group_id, user_id, member_index) VALUES (?, ?, ?)",
+                    groupId, userIds[i], i);
+        }
+    }
+
+    @Test
+    void invalidCursorIsRejected() throws Exception {
+        mockMvc.perform(get("/api/expenses/group/{groupId}", groupId).param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamWritesOneExpensePerLine() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/expenses/group/{groupId}/stream", groupId)).andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.split("\n")).hasSize(5).allMatch(line -> line.contains("\"owedBy\":{\"bob\":10.00}"));
+    }
+}
@@ -0,0 +1,222 @@
+package com.acabra.expenseshare.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class GroupControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void groupsCanBeFoundByMember() throws Exception {
+        String dave = "dave-" + UUID.randomUUID();
+        String created = mockMvc.perform(post("/api/groups").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"flat\",\"members\":[\"" + dave + "\",\"erin\"],\"createdBy\":\"erin\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.members", contains(dave, "erin")))
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(created, "$.id");
+
+        mockMvc.perform(get("/api/groups").param("member", dave))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains(id)))
+                .andExpect(jsonPath("$[0].members", contains(dave, "erin")));
+
+        mockMvc.perform(put("/api/groups/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"flat\",\"members\":[\"erin\"]}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/groups").param("member", dave))
+                .andExpect(jsonPath("$[*].id", not(hasItem(id))));
+    }
+
+    @Test
+    void exportRejectsUnknownFormatsAndGroups() throws Exception {
+        String created = mockMvc.perform(post("/api/groups").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"flat\",\"members\":[\"erin\"],\"createdBy\":\"erin\"}"))
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(created, "$.id");
+
+        mockMvc.perform(get("/api/groups/{id}/export", id).param("format", "xml")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/groups/{id}/export", "no-such-group")).andExpect(status().isNotFound());
+        MvcResult started = mockMvc.perform(get("/api/groups/{id}/export", id).param("format", "csv")).andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string("Content-Disposition", containsString("group-" + id + ".csv")))
+                .andExpect(content().string("id,groupId,description,amount,paidBy,owedBy,date,currency\n"));
+    }
+
+    @Test
+    void eventsStreamExpenseChangesAndResumeFromLastEventId() throws Exception {
+        String created = mockMvc.perform(post("/api/groups").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"trip\",\"members\":[\"alice\",\"bob\"],\"createdBy\":\"alice\"}"))
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(created, "$.id");
+        mockMvc.perform(get("/api/groups/{id}/events", "no-such-group")).andExpect(status().isNotFound());
+
+        MvcResult live = mockMvc.perform(get("/api/groups/{id}/events", id))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("Content-Type", containsString("text/event-stream")))
+                .andReturn();
+        postExpense(id, "dinner");
+        String stream = awaitContent(live, "\"description\":\"dinner\"");
+        assertThat(stream).contains("event:expense.created");
+        String firstEventId = stream.lines().filter(line -> line.startsWith("id:")).findFirst().orElseThrow().substring(3);
+
+        postExpense(id, "taxi");
+        MvcResult resumed = mockMvc.perform(get("/api/groups/{id}/events", id).header("Last-Event-ID", firstEventId))
+                .andReturn();
+        assertThat(awaitContent(resumed, "\"description\":\"taxi\"")).doesNotContain("dinner");
+
+        MvcResult unknown = mockMvc.perform(get("/api/groups/{id}/events", id).header("Last-Event-ID", "old-1"))
+                .andReturn();
+        assertThat(awaitContent(unknown, "event:reset")).doesNotContain("expense.created");
+    }
+
+    @Test
+    void unchangedGroupsAndExpenseListsAreAnsweredWithNotModified() throws Exception {
+        String created = mockMvc.perform(post("/api/groups").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"trip\",\"members\":[\"alice\",\"bob\"],\"createdBy\":\"alice\"}"))
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(created, "$.id");
+
+        String groupTag = mockMvc.perform(get("/api/groups/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("no-cache")))
+                .andReturn().getResponse().getHeader("ETag");
+        String expensesTag = mockMvc.perform(get("/api/expenses/group/{groupId}", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(groupTag).isNotNull().isEqualTo(expensesTag);
+
+        mockMvc.perform(get("/api/groups/{id}", id).header("If-None-Match", groupTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/expenses/group/{groupId}", id).param("limit", "10").header("If-None-Match", groupTag))
+                .andExpect(status().isNotModified());
+
+        postExpense(id, "dinner");
+        String changedTag = mockMvc.perform(get("/api/expenses/group/{groupId}", id).header("If-None-Match", groupTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].description").value("dinner"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(changedTag).isNotEqualTo(groupTag);
+
+        mockMvc.perform(put("/api/groups/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"trip\",\"members\":[\"alice\"]}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/groups/{id}", id).header("If-None-Match", changedTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(changedTag)));
+    }
+
+    @Test
+    void membersArePatchedOneAtATimeAndStaleWritesConflict() throws Exception {
+        String created = mockMvc.perform(post("/api/groups").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"band\",\"members\":[\"alice\",\"bob\",\"carol\"],\"createdBy\":\"alice\"}"))
+                .andExpect(jsonPath("$.version").value(0))
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(created, "$.id");
+
+        mockMvc.perform(patch("/api/groups/{id}/members", id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"remove\":\"bob\",\"version\":0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.members", contains("alice", "carol")))
+                .andExpect(jsonPath("$.version").value(1));
+        mockMvc.perform(patch("/api/groups/{id}/members", id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"add\":\"dave\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.members", contains("alice", "carol", "dave")));
+        mockMvc.perform(get("/api/groups/{id}", id))
+                .andExpect(jsonPath("$.members", contains("alice", "carol", "dave")))
+                .andExpect(jsonPath("$.version").value(2));
+
+        mockMvc.perform(patch("/api/groups/{id}/members", id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"add\":\"erin\",\"version\":1}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(put("/api/groups/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"band\",\"members\":[\"alice\"],\"version\":1}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(put("/api/groups/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"band\",\"members\":[\"alice\"],\"version\":2}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(3));
+
+        mockMvc.perform(patch("/api/groups/{id}/members", id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"add\":\"erin\",\"remove\":\"alice\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/groups/{id}/members", "no-such-group").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"add\":\"erin\",\"version\":0}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void expenseWritesChangeTheETagButDoNotConflictWithGroupUpdates() throws Exception {
+        String created = mockMvc.perform(post("/api/groups").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"trip\",\"members\":[\"alice\",\"bob\"],\"createdBy\":\"alice\"}"))
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(created, "$.id");
+        MvcResult read = mockMvc.perform(get("/api/groups/{id}", id)).andExpect(status().isOk()).andReturn();
+        Integer version = JsonPath.read(read.getResponse().getContentAsString(), "$.version");
+        String tag = read.getResponse().getHeader("ETag");
+
+        postExpense(id, "dinner");
+        mockMvc.perform(get("/api/groups/{id}", id).header("If-None-Match", tag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(version))
+                .andExpect(header().string("ETag", not(tag)));
+
+        mockMvc.perform(put("/api/groups/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"road trip\",\"members\":[\"alice\",\"bob\"],\"version\":" + version + "}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(version + 1));
+    }
+
+    private void postExpense(String groupId, String description) throws Exception {
+        mockMvc.perform(post("/api/expenses").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"groupId\":\"" + groupId + "\",\"description\":\"" + description
+                                + "\",\"amount\":10.0,\"paidBy\":\"alice\",\"owedBy\":{\"bob\":10.0}}"))
+                .andExpect(status().isCreated());
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(20); // Events are written by the stream's sender thread
+            content = result.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+}
@@ -0,0 +1,89 @@
+package com.acabra.expenseshare.controller.auth;
+
+import com.acabra.expenseshare.model.UserAccess;
+import com.acabra.expenseshare.repository.UserAccessRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthenticationControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserAccessRepository userAccessRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void repeatedFailuresForAUserAreThrottledBeforeVerification() throws Exception {
+        String username = "frank-" + UUID.randomUUID();
+        userAccessRepository.save(new UserAccess(username, passwordEncoder.encode("secret"), "USER"));
+
+        mockMvc.perform(login(username, "secret", "10.0.0.1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty());
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(login(username, "wrong", "10.0.0." + (i + 2))).andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(login(username, "secret", "10.0.0.9"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void refreshTokensRotateAndDieOnLogout() throws Exception {
+        String username = "grace-" + UUID.randomUUID();
+        userAccessRepository.save(new UserAccess(username, passwordEncoder.encode("secret"), "USER"));
+        String loggedIn = mockMvc.perform(login(username, "secret", "10.0.1.1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expiresIn").value(900))
+                .andReturn().getResponse().getContentAsString();
+        String firstRefreshToken = JsonPath.read(loggedIn, "$.refreshToken");
+
+        String refreshed = mockMvc.perform(refresh(firstRefreshToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String secondRefreshToken = JsonPath.read(refreshed, "$.refreshToken");
+        mockMvc.perform(refresh(firstRefreshToken)).andExpect(status().isUnauthorized()); // Single use
+
+        mockMvc.perform(post("/api/auth/logout")
+                        .header("Authorization", "Bearer " + JsonPath.read(refreshed, "$.token")))
+                .andExpect(status().isOk());
+        mockMvc.perform(refresh(secondRefreshToken)).andExpect(status().isUnauthorized());
+    }
+
+    private static MockHttpServletRequestBuilder refresh(String refreshToken) {
+        return post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}");
+    }
+
+    private static MockHttpServletRequestBuilder login(String username, String password, String ip) {
+        return post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}")
+                .with(request -> {
+                    request.setRemoteAddr(ip);
+                    return request;
+                });
+    }
+}
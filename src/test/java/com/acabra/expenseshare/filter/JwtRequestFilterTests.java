@@ -0,0 +1,87 @@
+package com.acabra.expenseshare.filter;
+
+import com.acabra.expenseshare.service.security.CachingUserDetailsService;
+import com.acabra.expenseshare.service.security.TokenRevocationService;
+import com.acabra.expenseshare.service.security.UserDetailsServiceImpl;
+import com.acabra.expenseshare.util.security.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class JwtRequestFilterTests {
+
+    private final UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+    private final TokenRevocationService tokenRevocationService = new TokenRevocationService();
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @BeforeEach
+    void issueToken() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "lDoPR7/aBCQF4B1qCMsWmk8OBaAukhlUBGa+LkT2pOs=");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60_000L);
+        ReflectionTestUtils.invokeMethod(jwtUtil, "init");
+        ReflectionTestUtils.setField(tokenRevocationService, "expiration", 60_000L);
+        token = jwtUtil.generateToken(User.withUsername("admin").password("x").roles("ADMIN", "USER").build());
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void trustClaimsModeAuthenticatesWithoutLoadingTheUser() throws Exception {
+        filter(true).doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getName()).isEqualTo("admin");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_ADMIN", "ROLE_USER");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void revokedTokensAreNotAuthenticated() throws Exception {
+        tokenRevocationService.revokeAllTokens("admin");
+
+        filter(true).doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void tokensIssuedAfterARevocationInTheSameSecondAreAuthenticated() throws Exception {
+        tokenRevocationService.revokeAllTokens("admin");
+        Thread.sleep(2); // A login a moment after the logout, almost always within the same second
+        String reissued = jwtUtil.generateToken(User.withUsername("admin").password("x").roles("USER").build());
+
+        filter(true).doFilter(bearer(reissued), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("admin");
+    }
+
+    private JwtRequestFilter filter(boolean trustClaims) {
+        return new JwtRequestFilter(new CachingUserDetailsService(userDetailsService, 100, Duration.ofMinutes(5)), jwtUtil, tokenRevocationService, trustClaims, true);
+    }
+
+    private static MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/groups");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
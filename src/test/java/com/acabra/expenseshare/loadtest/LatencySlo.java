@@ -0,0 +1,53 @@
+package com.acabra.expenseshare.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Service level objectives a load phase must meet. Read from system properties so a run can be held to
+ * tighter or looser targets without code changes, e.g. -Dloadtest.slo.p99=100 -Dloadtest.slo.error-rate=0.
+ */
+record LatencySlo(double p50Millis, double p99Millis, double p999Millis, double maxErrorRate, double minThroughput) {
+
+    static LatencySlo fromSystemProperties() {
+        return new LatencySlo(
+                Double.parseDouble(System.getProperty("loadtest.slo.p50", "100")),
+                Double.parseDouble(System.getProperty("loadtest.slo.p99", "500")),
+                Double.parseDouble(System.getProperty("loadtest.slo.p999", "1000")),
+                Double.parseDouble(System.getProperty("loadtest.slo.error-rate", "0.001")),
+                Double.parseDouble(System.getProperty("loadtest.slo.min-throughput", "100")));
+    }
+
+    /**
+     * Checks a phase against the objectives.
+     * @param result The measurements of the phase.
+     * @return One message per objective that was missed; empty if all were met.
+     */
+    List<String> violations(LoadResult result) {
+        List<String> violations = new ArrayList<>();
+        check(violations, result, "p50", result.percentileMillis(50), p50Millis, "ms");
+        check(violations, result, "p99", result.percentileMillis(99), p99Millis, "ms");
+        check(violations, result, "p99.9", result.percentileMillis(99.9), p999Millis, "ms");
+        check(violations, result, "error rate", result.errorRate(), maxErrorRate, "");
+        if (result.throughput() < minThroughput) {
+            violations.add(String.format(Locale.ROOT, "%s: throughput %.1f req/s is below %.1f req/s",
+                    result.name(), result.throughput(), minThroughput));
+        }
+        return violations;
+    }
+
+    private static void check(List<String> violations, LoadResult result, String metric, double actual,
+                              double limit, String unit) {
+        if (actual > limit) {
+            violations.add(String.format(Locale.ROOT, "%s: %s %.4f%s exceeds %.4f%s",
+                    result.name(), metric, actual, unit, limit, unit));
+        }
+    }
+
+    String toMarkdown() {
+        return String.format(Locale.ROOT, "- p50 <= %.1f ms, p99 <= %.1f ms, p99.9 <= %.1f ms%n" +
+                        "- error rate <= %.4f, throughput >= %.1f req/s%n",
+                p50Millis, p99Millis, p999Millis, maxErrorRate, minThroughput);
+    }
+}
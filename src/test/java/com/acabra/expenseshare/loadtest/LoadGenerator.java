@@ -0,0 +1,200 @@
+package com.acabra.expenseshare.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop HTTP load generator: a fixed number of virtual-thread clients each send a request, wait for the
+ * response and immediately send the next one, for a fixed duration. Latencies are recorded per client without
+ * locking and merged at the end, so the generator itself does not become the bottleneck.
+ * Workloads are either a sequence of GET paths or a mix of named calls, measured per operation.
+ */
+final class LoadGenerator {
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String bearerToken;
+
+    LoadGenerator(int port, String bearerToken) {
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.baseUrl = "http://localhost:" + port;
+        this.bearerToken = bearerToken;
+    }
+
+    /**
+     * Logs in through POST /api/auth/login, the way a client would.
+     * @param port The port of the running application.
+     * @param username The username.
+     * @param password The plain-text password.
+     * @return The access token of the response.
+     * @throws IllegalStateException if the login is refused.
+     */
+    static String login(int port, String username, String password) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                        Map.of("username", username, "password", password))))
+                .build();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login failed with HTTP " + response.statusCode() + ": " + response.body());
+            }
+            return objectMapper.readTree(response.body()).get("token").asText();
+        }
+    }
+
+    /**
+     * Runs one load phase of GET requests. Requests completed during the warm-up are not recorded.
+     * @param name The name of the phase, used in the report.
+     * @param concurrency The number of concurrent clients.
+     * @param warmup How long to run before recording.
+     * @param duration How long to record.
+     * @param paths Picks the path of the n-th request of a client.
+     * @return The measurements of the phase.
+     */
+    LoadResult run(String name, int concurrency, Duration warmup, Duration duration, IntFunction<String> paths)
+            throws Exception {
+        return runMix(name, concurrency, warmup, duration, n -> Call.get(name, paths.apply(n))).get(name);
+    }
+
+    /**
+     * Runs one load phase of mixed calls. Requests completed during the warm-up are not recorded.
+     * @param name The name of the phase, used in the report.
+     * @param concurrency The number of concurrent clients.
+     * @param warmup How long to run before recording.
+     * @param duration How long to record.
+     * @param calls Picks the n-th call of a client; may be random.
+     * @return The measurements of the whole phase under its name, followed by those of each operation
+     *         (named "phase / operation", in alphabetical order).
+     */
+    Map<String, LoadResult> runMix(String name, int concurrency, Duration warmup, Duration duration,
+                                   IntFunction<Call> calls) throws Exception {
+        long start = System.nanoTime();
+        long recordFrom = start + warmup.toNanos();
+        long end = recordFrom + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Map<String, Latencies>>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(() -> runClient(calls, recordFrom, end)));
+            }
+            Latencies total = new Latencies();
+            Map<String, Latencies> operations = new TreeMap<>();
+            for (Future<Map<String, Latencies>> future : futures) {
+                for (Map.Entry<String, Latencies> operation : future.get().entrySet()) {
+                    total.add(operation.getValue());
+                    operations.computeIfAbsent(operation.getKey(), key -> new Latencies()).add(operation.getValue());
+                }
+            }
+            Map<String, LoadResult> results = new LinkedHashMap<>();
+            results.put(name, total.toResult(name, concurrency, duration));
+            if (operations.size() > 1 || !operations.containsKey(name)) {
+                operations.forEach((operation, latencies) -> results.put(name + " / " + operation,
+                        latencies.toResult(name + " / " + operation, concurrency, duration)));
+            }
+            return results;
+        }
+    }
+
+    private Map<String, Latencies> runClient(IntFunction<Call> calls, long recordFrom, long end) {
+        Map<String, Latencies> stats = new LinkedHashMap<>();
+        for (int n = 0; ; n++) {
+            long sent = System.nanoTime();
+            if (sent >= end) {
+                return stats;
+            }
+            Call call = calls.apply(n);
+            boolean ok;
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + call.path()))
+                        .header("Authorization", "Bearer " + bearerToken)
+                        .header("Content-Type", "application/json")
+                        .timeout(Duration.ofSeconds(30))
+                        .method(call.method(), call.body() == null
+                                ? HttpRequest.BodyPublishers.noBody()
+                                : HttpRequest.BodyPublishers.ofString(call.body()))
+                        .build();
+                ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+            } catch (Exception e) {
+                ok = false;
+            }
+            if (sent >= recordFrom) {
+                stats.computeIfAbsent(call.operation(), operation -> new Latencies()).record(System.nanoTime() - sent, ok);
+            }
+        }
+    }
+
+    /**
+     * One request of a workload.
+     * @param operation The name under which its latency is reported.
+     * @param method The HTTP method.
+     * @param path The path and query, starting with "/".
+     * @param body The JSON body, or null.
+     */
+    record Call(String operation, String method, String path, String body) {
+
+        static Call get(String operation, String path) {
+            return new Call(operation, "GET", path, null);
+        }
+
+        static Call post(String operation, String path, String body) {
+            return new Call(operation, "POST", path, body);
+        }
+    }
+
+    /**
+     * Latencies of successful requests, in nanoseconds, and the error count. Owned by a single client thread
+     * until the phase ends.
+     */
+    private static final class Latencies {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        private void record(long latencyNanos, boolean ok) {
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+
+        private void add(Latencies other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, count + other.count);
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+
+        private LoadResult toResult(String name, int concurrency, Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new LoadResult(name, concurrency, sorted, errors, duration);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.acabra.expenseshare.loadtest;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Measurements of one load phase: successful request latencies (sorted, in nanoseconds) and the error count.
+ */
+record LoadResult(String name, int concurrency, long[] latencies, long errors, Duration duration) {
+
+    long requests() {
+        return latencies.length + errors;
+    }
+
+    double throughput() {
+        return latencies.length / (duration.toNanos() / 1_000_000_000.0);
+    }
+
+    double errorRate() {
+        return requests() == 0 ? 0.0 : (double) errors / requests();
+    }
+
+    /**
+     * Returns a latency percentile in milliseconds, using the nearest-rank method.
+     * @param percentile The percentile, between 0 and 100.
+     */
+    double percentileMillis(double percentile) {
+        if (latencies.length == 0) {
+            return 0.0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * latencies.length);
+        return latencies[Math.max(0, rank - 1)] / 1_000_000.0;
+    }
+
+    String toMarkdownRow() {
+        return String.format(Locale.ROOT, "| %s | %d | %d | %.1f | %.2f | %.2f | %.2f | %.2f | %.4f |",
+                name, concurrency, requests(), throughput(), percentileMillis(50), percentileMillis(99),
+                percentileMillis(99.9), percentileMillis(100), errorRate());
+    }
+
+    static String markdownHeader() {
+        return "| phase | clients | requests | req/s | p50 ms | p99 ms | p99.9 ms | max ms | error rate |\n" +
+                "|---|---|---|---|---|---|---|---|---|";
+    }
+
+    /**
+     * Renders the latency distribution as a markdown table with power-of-two millisecond buckets.
+     */
+    String toMarkdownHistogram() {
+        StringBuilder histogram = new StringBuilder("| latency | requests | cumulative |\n|---|---|---|\n");
+        int counted = 0;
+        for (long upperMillis = 1; counted < latencies.length; upperMillis *= 2) {
+            int bucketStart = counted;
+            while (counted < latencies.length && latencies[counted] < upperMillis * 1_000_000) {
+                counted++;
+            }
+            if (counted > bucketStart) {
+                histogram.append(String.format(Locale.ROOT, "| < %d ms | %d | %.3f%% |%n", upperMillis,
+                        counted - bucketStart, 100.0 * counted / latencies.length));
+            }
+        }
+        return histogram.toString();
+    }
+}
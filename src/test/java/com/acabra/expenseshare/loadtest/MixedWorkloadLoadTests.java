@@ -0,0 +1,149 @@
+package com.acabra.expenseshare.loadtest;
+
+import com.acabra.expenseshare.ExpenseShareApplication;
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.Group;
+import com.acabra.expenseshare.model.UserAccess;
+import com.acabra.expenseshare.repository.UserAccessRepository;
+import com.acabra.expenseshare.service.ExpenseService;
+import com.acabra.expenseshare.service.GroupService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end load test with latency SLO gates: a realistic mix of expense and group calls, reads and writes,
+ * against a freshly seeded application.
+ * <p>
+ * Run with {@code mvn -P load-tests test}. The application starts on a random port with its own in-memory H2
+ * database and the outbox relay off, so nothing outside the JVM is needed. It is seeded with N groups of
+ * M expenses through the services, a dedicated user logs in through POST /api/auth/login, and that token drives
+ * the closed-loop workload below. Tunable with -Dloadtest.groups=20 -Dloadtest.expenses-per-group=200
+ * -Dloadtest.mixed.concurrency=32 -Dloadtest.warmup=3s -Dloadtest.duration=10s, and the SLOs with the
+ * loadtest.slo.* properties of LatencySlo.
+ * <p>
+ * Results go to target/load-tests/mixed-workload.md: throughput and p50/p99/p99.9 latency of the whole mix and of
+ * each operation, the latency histogram of the mix, and the SLO verdict. The test fails if the mix misses an SLO.
+ */
+@Tag("load")
+class MixedWorkloadLoadTests {
+
+    private static final String USERNAME = "loadtest";
+    private static final String PASSWORD = "load-test-password";
+    private static final int MEMBERS = 5;
+
+    @Test
+    void mixedWorkloadMeetsTheLatencySlos() throws Exception {
+        int groups = Integer.getInteger("loadtest.groups", 20);
+        int expensesPerGroup = Integer.getInteger("loadtest.expenses-per-group", 200);
+        int concurrency = Integer.getInteger("loadtest.mixed.concurrency", 32);
+        LatencySlo slo = LatencySlo.fromSystemProperties();
+
+        Map<String, LoadResult> results;
+        try (ConfigurableApplicationContext context = start()) {
+            Seed seed = seed(context, groups, expensesPerGroup);
+            int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+            LoadGenerator generator = new LoadGenerator(port, LoadGenerator.login(port, USERNAME, PASSWORD));
+            results = generator.runMix("mixed", concurrency,
+                    Duration.parse("PT" + System.getProperty("loadtest.warmup", "3s")),
+                    Duration.parse("PT" + System.getProperty("loadtest.duration", "10s")),
+                    n -> nextCall(seed));
+        }
+
+        LoadResult mix = results.get("mixed");
+        List<String> violations = slo.violations(mix);
+        String report = "# Mixed expense and group workload\n\n"
+                + String.format(Locale.ROOT, "%d groups of %d members, %d expenses per group, %d clients%n%n",
+                groups, MEMBERS, expensesPerGroup, concurrency)
+                + LoadResult.markdownHeader() + "\n"
+                + String.join("\n", results.values().stream().map(LoadResult::toMarkdownRow).toList()) + "\n\n"
+                + "Latency histogram of the mix:\n\n" + mix.toMarkdownHistogram() + "\n"
+                + "SLOs:\n" + slo.toMarkdown() + "\n"
+                + (violations.isEmpty() ? "All SLOs met.\n" : "SLOs missed:\n- " + String.join("\n- ", violations) + "\n");
+        Path file = Path.of("target", "load-tests", "mixed-workload.md");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report);
+        System.out.println(report);
+
+        assertThat(mix.requests()).isPositive();
+        assertThat(violations).as("SLO violations, see " + file).isEmpty();
+    }
+
+    /**
+     * Picks the next call of a client: mostly reads, as in real use, with one write in ten.
+     */
+    private static LoadGenerator.Call nextCall(Seed seed) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String groupId = seed.groupIds().get(random.nextInt(seed.groupIds().size()));
+        int roll = random.nextInt(100);
+        if (roll < 30) {
+            return LoadGenerator.Call.get("list expenses page", "/api/expenses/group/" + groupId + "?limit=50");
+        } else if (roll < 45) {
+            return LoadGenerator.Call.get("get group", "/api/groups/" + groupId);
+        } else if (roll < 60) {
+            return LoadGenerator.Call.get("get balances", "/api/groups/" + groupId + "/balances");
+        } else if (roll < 70) {
+            return LoadGenerator.Call.get("get settlements", "/api/groups/" + groupId + "/settlements");
+        } else if (roll < 80) {
+            return LoadGenerator.Call.get("get expense",
+                    "/api/expenses/" + seed.expenseIds().get(random.nextInt(seed.expenseIds().size())));
+        } else if (roll < 90) {
+            return LoadGenerator.Call.get("get owed totals", "/api/expenses/owed/member-" + random.nextInt(MEMBERS));
+        }
+        int payer = random.nextInt(MEMBERS);
+        return LoadGenerator.Call.post("create expense", "/api/expenses",
+                "{\"groupId\":\"" + groupId + "\",\"description\":\"load\",\"amount\":30.00," +
+                        "\"paidBy\":\"member-" + payer + "\",\"owedBy\":{\"member-" + (payer + 1) % MEMBERS + "\":15.00," +
+                        "\"member-" + (payer + 2) % MEMBERS + "\":15.00}}");
+    }
+
+    private static ConfigurableApplicationContext start() {
+        // Command-line arguments, unlike default properties, take precedence over application.properties
+        return new SpringApplicationBuilder(ExpenseShareApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-mixed;DB_CLOSE_DELAY=-1",
+                "--spring.jmx.enabled=false",
+                "--outbox.relay.enabled=false", // No message broker on the load test box
+                "--logging.level.root=WARN");
+    }
+
+    private static Seed seed(ConfigurableApplicationContext context, int groups, int expensesPerGroup) {
+        context.getBean(UserAccessRepository.class).save(new UserAccess(USERNAME,
+                context.getBean(PasswordEncoder.class).encode(PASSWORD), "USER"));
+        GroupService groupService = context.getBean(GroupService.class);
+        ExpenseService expenseService = context.getBean(ExpenseService.class);
+        List<String> members = new ArrayList<>(MEMBERS);
+        for (int m = 0; m < MEMBERS; m++) {
+            members.add("member-" + m);
+        }
+        List<String> groupIds = new ArrayList<>(groups);
+        List<String> expenseIds = new ArrayList<>(groups * expensesPerGroup);
+        for (int g = 0; g < groups; g++) {
+            Group group = groupService.createGroup(new Group("load " + g, members, members.get(0)));
+            groupIds.add(group.getId());
+            List<Expense> expenses = new ArrayList<>(expensesPerGroup);
+            for (int i = 0; i < expensesPerGroup; i++) {
+                expenses.add(new Expense(group.getId(), "expense " + i, "USD", 3000, members.get(i % MEMBERS),
+                        Map.of(members.get((i + 1) % MEMBERS), 1500L, members.get((i + 2) % MEMBERS), 1500L)));
+            }
+            expenseService.createExpenses(expenses).forEach(expense -> expenseIds.add(expense.getId()));
+        }
+        return new Seed(groupIds, expenseIds);
+    }
+
+    private record Seed(List<String> groupIds, List<String> expenseIds) {
+    }
+}
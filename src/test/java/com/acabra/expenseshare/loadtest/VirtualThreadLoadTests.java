@@ -0,0 +1,105 @@
+package com.acabra.expenseshare.loadtest;
+
+import com.acabra.expenseshare.ExpenseShareApplication;
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.Group;
+import com.acabra.expenseshare.service.ExpenseService;
+import com.acabra.expenseshare.service.GroupService;
+import com.acabra.expenseshare.util.security.JwtUtil;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares request handling on Tomcat's platform-thread pool with the opt-in virtual-thread mode
+ * (spring.threads.virtual.enabled=true) under high concurrency.
+ * <p>
+ * Run with {@code mvn -P load-tests test}. Each mode gets a fresh application on a random port with its own
+ * in-memory database, seeded with one group of expenses; the same closed-loop workload (paged expense listing,
+ * balances and group lookup) is then run against it at two concurrency levels. Tunable with
+ * -Dloadtest.concurrency=256,1024 -Dloadtest.warmup=3s -Dloadtest.duration=10s.
+ * <p>
+ * Results go to target/load-tests/virtual-threads.md: throughput, p50/p99/p99.9/max latency and error rate per mode and
+ * concurrency level, plus the connection pool size each mode ran with. With the bundled H2 database the JDBC work is
+ * in-process and CPU-bound, so the comparison isolates thread scheduling and queueing; against a networked
+ * PostgreSQL, where request threads spend most of their time blocked, the gap at high concurrency is larger.
+ */
+@Tag("load")
+class VirtualThreadLoadTests {
+
+    private static final int EXPENSES = 200;
+
+    @Test
+    void compareThreadingModesUnderHighConcurrency() throws Exception {
+        List<String> rows = new ArrayList<>();
+        List<String> pools = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            String mode = virtualThreads ? "virtual" : "platform";
+            try (ConfigurableApplicationContext context = start(virtualThreads, mode)) {
+                pools.add("- " + mode + ": " + context.getBean(HikariDataSource.class).getMaximumPoolSize()
+                        + " connections");
+                String groupId = seed(context);
+                String token = context.getBean(JwtUtil.class)
+                        .generateToken(context.getBean("userDetailsServiceImpl", UserDetailsService.class)
+                                .loadUserByUsername("user"));
+                LoadGenerator generator = new LoadGenerator(
+                        Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port")), token);
+                String[] paths = {
+                        "/api/expenses/group/" + groupId + "?limit=50",
+                        "/api/groups/" + groupId + "/balances",
+                        "/api/groups/" + groupId};
+                for (String concurrency : System.getProperty("loadtest.concurrency", "256,1024").split(",")) {
+                    LoadResult result = generator.run(mode, Integer.parseInt(concurrency.trim()),
+                            Duration.parse("PT" + System.getProperty("loadtest.warmup", "3s")),
+                            Duration.parse("PT" + System.getProperty("loadtest.duration", "10s")),
+                            n -> paths[n % paths.length]);
+                    rows.add(result.toMarkdownRow());
+                    assertThat(result.requests()).isPositive();
+                }
+            }
+        }
+
+        String report = "# Platform vs virtual threads\n\n" + LoadResult.markdownHeader() + "\n"
+                + String.join("\n", rows) + "\n\nConnection pool:\n" + String.join("\n", pools) + "\n";
+        Path file = Path.of("target", "load-tests", "virtual-threads.md");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report);
+        System.out.println(report);
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads, String mode) {
+        // Command-line arguments, unlike default properties, take precedence over application.properties
+        return new SpringApplicationBuilder(ExpenseShareApplication.class).run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--spring.jmx.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.acabra.expenseshare.config=INFO");
+    }
+
+    private static String seed(ConfigurableApplicationContext context) {
+        Group group = context.getBean(GroupService.class)
+                .createGroup(new Group("load", List.of("alice", "bob", "carol"), "alice"));
+        ExpenseService expenseService = context.getBean(ExpenseService.class);
+        List<Expense> expenses = new ArrayList<>(EXPENSES);
+        for (int i = 0; i < EXPENSES; i++) {
+            expenses.add(new Expense(group.getId(), "expense " + i, "USD", 3000, "alice",
+                    Map.of("bob", 1500L, "carol", 1500L)));
+        }
+        expenseService.createExpenses(expenses);
+        return group.getId();
+    }
+}
@@ -0,0 +1,63 @@
+package com.acabra.expenseshare.metrics;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@WithMockUser
+class MetricsTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void prometheusScrapeExposesServiceRepositoryPayloadAndCacheMetrics() throws Exception {
+        String created = mockMvc.perform(post("/api/groups").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"metrics\",\"members\":[\"erin\",\"frank\"],\"createdBy\":\"erin\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(created, "$.id");
+        mockMvc.perform(get("/api/groups/{id}", id)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/groups/{id}", id)).andExpect(status().isOk());
+        mockMvc.perform(get("/api/groups/{id}", "no-such-group")).andExpect(status().isNotFound());
+        assertThat(passwordEncoder.matches("secret", passwordEncoder.encode("secret"))).isTrue();
+
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden()); // Not an admin
+        String scrape = mockMvc.perform(get("/actuator/prometheus").with(user("prometheus").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(scrape)
+                .containsPattern("expenseshare_service_calls_seconds_count\\{[^}]*exception=\"none\""
+                        + "[^}]*operation=\"createGroup\"[^}]*outcome=\"success\"[^}]*service=\"GroupService\"} 1")
+                .containsPattern("expenseshare_service_calls_seconds_bucket\\{[^}]*operation=\"findGroupById\"")
+                .containsPattern("expenseshare_repository_queries_seconds_count\\{[^}]*method=\"findCurrencyById\"|"
+                        + "expenseshare_repository_queries_seconds_count\\{[^}]*method=\"findById\"")
+                .containsPattern("expenseshare_repository_rows_count\\{[^}]*repository=\"GroupRepository\"")
+                .containsPattern("expenseshare_http_request_size_bytes_count\\{[^}]*method=\"POST\",uri=\"/api/groups\"} 1")
+                .containsPattern("expenseshare_http_response_size_bytes_count\\{[^}]*method=\"GET\",uri=\"/api/groups/\\{id}\"")
+                .containsPattern("cache_gets_total\\{[^}]*cache=\"groups\",result=\"hit\"} [1-9]")
+                .containsPattern("cache_hit_ratio\\{[^}]*cache=\"groups\"}")
+                .containsPattern("cache_hit_ratio\\{[^}]*cache=\"jwtVerifiedTokens\"}")
+                .containsPattern("expenseshare_password_seconds_count\\{[^}]*operation=\"matches\",outcome=\"success\"} 1");
+    }
+}
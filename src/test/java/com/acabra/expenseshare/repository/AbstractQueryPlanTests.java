@@ -0,0 +1,116 @@
+package com.acabra.expenseshare.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN for every query method of every repository and fails if a plan scans a whole table.
+ * Subclasses run it against differently configured databases.
+ */
+abstract class AbstractQueryPlanTests {
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+            ExpenseRepository.class, ExpenseRepositoryCustom.class,
+            GroupRepository.class, GroupRepositoryCustom.class,
+            GroupBalanceRepository.class, UserAccessRepository.class, RefreshTokenRepository.class,
+            OutboxEventRepository.class);
+
+    // H2 marks full scans of a base table as /* PUBLIC."TABLE".tableScan */
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* (\\S+)\\.tableScan \\*/");
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<!:):(\\w+)");
+
+    // SQL of query methods whose SQL is derived from the method name or built in code. The hand-written JDBC
+    // fragment shares its statements with this test, so the plans checked are those of the SQL it runs; a method
+    // may run several statements (a page and the shares of its rows)
+    private static final Map<String, List<String>> DERIVED_QUERIES = Map.of(
+            "GroupRepository.findByCreatedBy", List.of("SELECT * FROM groups WHERE created_by = 'sample'"),
+            "UserAccessRepository.findByUsername", List.of("SELECT * FROM user_access WHERE username = 'sample'"),
+            "ExpenseRepositoryCustom.findByGroupId", List.of(ExpenseRepositoryImpl.FIND_BY_GROUP_ID_WITH_SHARES),
+            "ExpenseRepositoryCustom.findPage", List.of(ExpenseRepositoryImpl.pageSql(true, true),
+                    ExpenseRepositoryImpl.FIND_SHARES_BY_EXPENSE_IDS),
+            "ExpenseRepositoryCustom.forEach", List.of(ExpenseRepositoryImpl.FIND_BY_GROUP_ID_WITH_SHARES));
+
+    // Methods that are not queries, or that list every row on purpose
+    private static final Set<String> EXEMPT = Set.of(
+            "ExpenseRepositoryCustom.insert",
+            "ExpenseRepositoryCustom.insertAll",
+            "GroupRepositoryCustom.insert",
+            "OutboxEventRepository.saveAll",
+            "OutboxEventRepository.countPending", // Published rows are deleted, so the table is the backlog
+            "ExpenseRepositoryCustom.findAllWithShares");
+
+    // Literal values substituted for named parameters of @Query methods
+    private static final Map<String, String> PARAMETER_LITERALS = Map.ofEntries(
+            Map.entry("delta", "1.0"),
+            Map.entry("amount", "1.0"),
+            Map.entry("limit", "100"),
+            Map.entry("userAccessId", "1"),
+            Map.entry("ids", "'1'"), // Quoted: expense IDs are strings, and H2 converts it for numeric IDs
+            Map.entry("expectedVersion", "0"),
+            Map.entry("memberIndex", "0"),
+            Map.entry("createdAt", "TIMESTAMP '2024-01-01 00:00:00'"),
+            Map.entry("expiresAt", "TIMESTAMP '2024-01-01 00:00:00'"),
+            Map.entry("afterDate", "TIMESTAMP '2024-01-01 00:00:00'"),
+            Map.entry("now", "TIMESTAMP '2024-01-01 00:00:00'"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void noRepositoryQueryScansAWholeTable() {
+        Map<String, String> plans = new LinkedHashMap<>();
+        Set<String> uncovered = new TreeSet<>();
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getDeclaredMethods()) {
+                String name = repository.getSimpleName() + "." + method.getName();
+                Query query = method.getAnnotation(Query.class);
+                if (EXEMPT.contains(name)) {
+                    continue;
+                }
+                if (query != null) {
+                    plans.put(name, explain(withLiterals(query.value())));
+                } else if (DERIVED_QUERIES.containsKey(name)) {
+                    List<String> statements = DERIVED_QUERIES.get(name);
+                    for (int i = 0; i < statements.size(); i++) {
+                        plans.put(i == 0 ? name : name + "#" + (i + 1), explain(withLiterals(statements.get(i))));
+                    }
+                } else {
+                    uncovered.add(name);
+                }
+            }
+        }
+
+        assertThat(uncovered).as("Query methods without a plan check; add them to DERIVED_QUERIES").isEmpty();
+        List<String> fullScans = new ArrayList<>();
+        plans.forEach((name, plan) -> {
+            Matcher matcher = TABLE_SCAN.matcher(plan);
+            while (matcher.find()) {
+                fullScans.add(name + " scans " + matcher.group(1) + ":\n" + plan);
+            }
+        });
+        assertThat(fullScans).as("Query plans that degrade to a full table scan").isEmpty();
+    }
+
+    private String explain(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    private static String withLiterals(String sql) {
+        return NAMED_PARAMETER.matcher(sql)
+                .replaceAll(match -> PARAMETER_LITERALS.getOrDefault(match.group(1), "'sample'"));
+    }
+}
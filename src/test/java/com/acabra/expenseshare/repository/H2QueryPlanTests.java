@@ -0,0 +1,7 @@
+package com.acabra.expenseshare.repository;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class H2QueryPlanTests extends AbstractQueryPlanTests {
+}
@@ -0,0 +1,7 @@
+package com.acabra.expenseshare.repository;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:queryplans;MODE=PostgreSQL;DB_CLOSE_DELAY=-1")
+class PostgresModeQueryPlanTests extends AbstractQueryPlanTests {
+}
@@ -0,0 +1,95 @@
+package com.acabra.expenseshare.service;
+
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.GroupBalance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class BalanceServiceTests {
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String groupId;
+
+    @BeforeEach
+    void createGroup() {
+        groupId = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO groups (id, name, created_at, created_by) VALUES (?, ?, CURRENT_TIMESTAMP, ?)",
+                groupId, "trip", "alice");
+    }
+
+    @Test
+    void recordExpenseCreditsPayerAndDebitsDebtors() {
+        balanceService.recordExpense(new Expense(groupId, "dinner", "USD", 3000, "alice",
+                Map.of("alice", 1000L, "bob", 1000L, "carol", 1000L)));
+
+        assertThat(balancesOf(groupId)).containsExactlyInAnyOrderEntriesOf(
+                Map.of("alice", 2000L, "bob", -1000L, "carol", -1000L));
+    }
+
+    @Test
+    void reverseExpenseUndoesRecordExpense() {
+        Expense lunch = new Expense(groupId, "lunch", "USD", 2000, "bob", Map.of("alice", 1000L, "bob", 1000L));
+        balanceService.recordExpense(new Expense(groupId, "taxi", "USD", 800, "alice", Map.of("bob", 800L)));
+        balanceService.recordExpense(lunch);
+        balanceService.reverseExpense(lunch);
+
+        assertThat(balancesOf(groupId)).containsExactlyInAnyOrderEntriesOf(Map.of("alice", 800L, "bob", -800L));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // Each writer commits its own transaction
+    void concurrentFirstDeltasOfAMemberAllLand() throws Exception {
+        int writers = 8;
+        CyclicBarrier barrier = new CyclicBarrier(writers);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            for (int round = 0; round < 10; round++) {
+                String newcomer = "newcomer-" + round;
+                List<Future<?>> results = new ArrayList<>();
+                for (int i = 0; i < writers; i++) {
+                    results.add(executor.submit(() -> {
+                        barrier.await();
+                        balanceService.recordExpense(new Expense(groupId, "round", "USD", 100, "alice",
+                                Map.of(newcomer, 100L)));
+                        return null;
+                    }));
+                }
+                for (Future<?> result : results) {
+                    result.get(); // Rethrows a writer's failure
+                }
+                assertThat(balancesOf(groupId)).containsEntry(newcomer, -100L * writers);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<String, Long> balancesOf(String groupId) {
+        List<GroupBalance> balances = balanceService.findBalancesByGroupId(groupId);
+        return balances.stream().collect(Collectors.toMap(GroupBalance::getUserId, GroupBalance::getBalanceMinor));
+    }
+}
@@ -0,0 +1,79 @@
+package com.acabra.expenseshare.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryReadThroughCacheTests {
+
+    @Test
+    void servesHitsUntilInvalidatedAndReportsTheHitRatio() {
+        InMemoryReadThroughCache<String, String> cache =
+                new InMemoryReadThroughCache<>(10, 1_000, Duration.ofMinutes(1), String::length);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get("a", key -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+        assertThat(cache.get("a", key -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+        cache.invalidate("a");
+        assertThat(cache.get("a", key -> "v" + loads.incrementAndGet())).isEqualTo("v2");
+        assertThat(cache.get("missing", key -> null)).isNull();
+
+        assertThat(cache.getStats()).containsEntry("size", 1).containsEntry("hits", 1L)
+                .containsEntry("misses", 3L).containsEntry("weightBytes", 2L).containsEntry("hitRatio", 0.25);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesToStayWithinTheWeightBound() {
+        InMemoryReadThroughCache<String, String> cache =
+                new InMemoryReadThroughCache<>(10, 10, Duration.ofMinutes(1), String::length);
+        cache.get("a", key -> "aaaa");
+        cache.get("b", key -> "bbbb");
+        cache.get("a", key -> "reloaded"); // Touch "a" so "b" is the eldest
+        cache.get("c", key -> "cccc");
+
+        assertThat(cache.get("a", key -> "reloaded")).isEqualTo("aaaa");
+        assertThat(cache.get("b", key -> "reloaded")).isEqualTo("reloaded");
+        assertThat(cache.get("oversized", key -> "x".repeat(11))).hasSize(11); // Returned but never cached
+        assertThat((long) cache.getStats().get("weightBytes")).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void doesNotCacheValuesLoadedWhileAnInvalidationHappened() {
+        InMemoryReadThroughCache<String, String> cache =
+                new InMemoryReadThroughCache<>(10, 1_000, Duration.ofMinutes(1), String::length);
+
+        String stale = cache.get("a", key -> {
+            cache.invalidate("a"); // A write commits while the read is in flight
+            return "stale";
+        });
+
+        assertThat(stale).isEqualTo("stale");
+        assertThat(cache.get("a", key -> "fresh")).isEqualTo("fresh");
+    }
+
+    @Test
+    void invalidatingOneKeyDoesNotDiscardLoadsOfOtherKeys() {
+        InMemoryReadThroughCache<String, String> cache =
+                new InMemoryReadThroughCache<>(10, 1_000, Duration.ofMinutes(1), String::length);
+
+        cache.get("a", key -> {
+            cache.invalidate("b"); // A write to another key commits while the read is in flight
+            return "cached";
+        });
+
+        assertThat(cache.get("a", key -> "reloaded")).isEqualTo("cached");
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() {
+        InMemoryReadThroughCache<String, String> cache =
+                new InMemoryReadThroughCache<>(10, 1_000, Duration.ZERO, String::length);
+        cache.get("a", key -> "first");
+
+        assertThat(cache.get("a", key -> "second")).isEqualTo("second");
+        assertThat(cache.getStats()).containsEntry("hits", 0L).containsEntry("evictions", 1L);
+    }
+}
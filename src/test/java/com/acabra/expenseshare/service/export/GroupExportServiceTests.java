@@ -0,0 +1,78 @@
+package com.acabra.expenseshare.service.export;
+
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.service.ExpenseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "expenses.export.spill-min-size=0") // Spill every export so the cache is exercised
+class GroupExportServiceTests {
+
+    @Autowired
+    private GroupExportService groupExportService;
+
+    @Autowired
+    private ExportSpillCache exportSpillCache;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String groupId;
+
+    @BeforeEach
+    void createGroup() {
+        groupId = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO groups (id, name, created_at, created_by) VALUES (?, ?, CURRENT_TIMESTAMP, ?)",
+                groupId, "trip", "alice");
+        expenseService.createExpense(expense("dinner, drinks", LocalDateTime.of(2024, 3, 1, 20, 0)));
+    }
+
+    @Test
+    void repeatDownloadsAreServedFromTheSpillFileUntilTheGroupChanges() throws IOException {
+        String first = export(ExportFormat.CSV);
+        assertThat(first).startsWith(GroupExportService.CSV_HEADER)
+                .contains(",\"dinner, drinks\",40.00,alice,bob:40.00,2024-03-01T20:00,USD\n");
+
+        long hitsBefore = (long) exportSpillCache.getStats().get("hits");
+        assertThat(export(ExportFormat.CSV)).isEqualTo(first);
+        assertThat(exportSpillCache.getStats().get("hits")).isEqualTo(hitsBefore + 1);
+
+        expenseService.createExpense(expense("taxi", LocalDateTime.of(2024, 3, 2, 1, 0)));
+        String afterChange = export(ExportFormat.CSV);
+        assertThat(exportSpillCache.getStats().get("hits")).isEqualTo(hitsBefore + 1);
+        assertThat(afterChange.lines()).hasSize(3).last().asString().contains(",taxi,");
+    }
+
+    @Test
+    void ndjsonExportWritesOneExpensePerLine() throws IOException {
+        assertThat(export(ExportFormat.NDJSON).split("\n")).singleElement().asString()
+                .contains("\"description\":\"dinner, drinks\"", "\"owedBy\":{\"bob\":40.00}");
+    }
+
+    private String export(ExportFormat format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        groupExportService.export(groupId, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private Expense expense(String description, LocalDateTime date) {
+        Expense expense = new Expense(groupId, description, "USD", 4000, "alice", Map.of("bob", 4000L));
+        expense.setDate(date);
+        return expense;
+    }
+}
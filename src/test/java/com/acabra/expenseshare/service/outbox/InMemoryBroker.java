@@ -0,0 +1,54 @@
+package com.acabra.expenseshare.service.outbox;
+
+import com.acabra.expenseshare.model.OutboxEvent;
+import org.springframework.amqp.core.Message;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Broker stand-in for tests: accepts published events as the AMQP messages AmqpOutboxPublisher would send,
+ * and can be told to refuse the next batch to simulate an outage. It also records whether a batch was published
+ * inside a transaction, and can run a hook while a batch is being published.
+ */
+class InMemoryBroker implements OutboxPublisher {
+
+    private final List<Message> messages = new ArrayList<>();
+    private boolean failNext;
+    private boolean publishedInTransaction;
+    private Runnable duringPublish = () -> { };
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> events) {
+        if (failNext) {
+            failNext = false;
+            throw new IllegalStateException("Broker unavailable");
+        }
+        publishedInTransaction |= TransactionSynchronizationManager.isActualTransactionActive();
+        duringPublish.run();
+        events.forEach(event -> messages.add(AmqpOutboxPublisher.toMessage(event)));
+    }
+
+    synchronized List<Message> messages() {
+        return List.copyOf(messages);
+    }
+
+    synchronized void failNext() {
+        failNext = true;
+    }
+
+    synchronized boolean publishedInTransaction() {
+        return publishedInTransaction;
+    }
+
+    synchronized void duringPublish(Runnable hook) {
+        duringPublish = hook;
+    }
+
+    synchronized void clear() {
+        messages.clear();
+        publishedInTransaction = false;
+        duringPublish = () -> { };
+    }
+}
@@ -0,0 +1,137 @@
+package com.acabra.expenseshare.service.outbox;
+
+import com.acabra.expenseshare.model.Expense;
+import com.acabra.expenseshare.model.Group;
+import com.acabra.expenseshare.service.ExpenseService;
+import com.acabra.expenseshare.service.GroupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1", // Own database, so no other relay drains it
+        "outbox.relay.enabled=false", // The tests drive the relay themselves
+        "outbox.enabled=true",
+        "outbox.relay.batch-size=2"})
+@Import(OutboxRelayTests.BrokerConfig.class)
+class OutboxRelayTests {
+
+    @TestConfiguration
+    static class BrokerConfig {
+        @Bean
+        @Primary
+        InMemoryBroker inMemoryBroker() {
+            return new InMemoryBroker();
+        }
+    }
+
+    @Autowired
+    private InMemoryBroker broker;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void drainOutbox() {
+        outboxRelay.relayPending();
+        broker.clear();
+    }
+
+    @Test
+    void mutationsArePublishedInOrderAndRemovedFromTheOutbox() {
+        Group group = groupService.createGroup(new Group("trip", List.of("alice", "bob"), "alice"));
+        Expense expense = expenseService.createExpense(
+                new Expense(group.getId(), "dinner", "USD", 4000, "alice", Map.of("bob", 4000L)));
+        expenseService.updateExpense(expense.getId(),
+                new Expense(group.getId(), "dinner and drinks", "USD", 5000, "alice", Map.of("bob", 5000L)));
+        expenseService.deleteExpense(expense.getId());
+        expenseService.createExpenses(List.of(
+                new Expense(group.getId(), "taxi", "USD", 1000, "bob", Map.of("alice", 1000L)),
+                new Expense(group.getId(), "museum", "USD", 2000, "bob", Map.of("alice", 2000L))));
+        assertThat(outboxService.countPending()).isEqualTo(6);
+
+        assertThat(outboxRelay.relayPending()).isEqualTo(6); // Three batches of two
+
+        List<Message> messages = broker.messages();
+        assertThat(messages).extracting(message -> message.getMessageProperties().getType()).containsExactly(
+                "group.created", "expense.created", "expense.updated", "expense.deleted",
+                "expense.created", "expense.created");
+        assertThat(messages).extracting(message -> message.getMessageProperties().getMessageId())
+                .doesNotHaveDuplicates();
+        assertThat(messages).allSatisfy(message ->
+                assertThat((String) message.getMessageProperties().getHeader("groupId")).isEqualTo(group.getId()));
+        assertThat(messages.get(2).getMessageProperties().getHeader("aggregateId").toString())
+                .isEqualTo(expense.getId());
+        assertThat(new String(messages.get(2).getBody(), StandardCharsets.UTF_8))
+                .contains("\"description\":\"dinner and drinks\"");
+        assertThat(outboxService.countPending()).isZero();
+    }
+
+    @Test
+    void eventsStayInTheOutboxUntilTheBrokerAcceptsThem() {
+        groupService.createGroup(new Group("flat", List.of("carol"), "carol"));
+        broker.failNext();
+
+        assertThatThrownBy(() -> outboxRelay.relayPending()).hasMessage("Broker unavailable");
+        assertThat(outboxService.countPending()).isEqualTo(1);
+        assertThat(broker.messages()).isEmpty();
+
+        assertThat(outboxRelay.relayPending()).isEqualTo(1);
+        assertThat(broker.messages()).extracting(message -> message.getMessageProperties().getType())
+                .containsExactly("group.created");
+    }
+
+    @Test
+    void batchesArePublishedOutsideATransactionWhileClaimed() {
+        groupService.createGroup(new Group("cabin", List.of("erin"), "erin"));
+        int[] claimedByAnotherRelay = {-1};
+        broker.duringPublish(() -> claimedByAnotherRelay[0] = outboxService.publishBatch(events -> { }, 10));
+
+        assertThat(outboxRelay.relayPending()).isEqualTo(1);
+        assertThat(claimedByAnotherRelay[0]).isZero(); // The claim outlives the claiming transaction
+        assertThat(broker.publishedInTransaction()).isFalse();
+        assertThat(outboxService.countPending()).isZero();
+    }
+
+    @Test
+    void rolledBackMutationsLeaveNoEvent() {
+        Group group = groupService.createGroup(new Group("office", List.of("dave"), "dave"));
+        outboxRelay.relayPending();
+        broker.clear();
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            groupService.updateGroup(group.getId(), new Group("renamed", List.of("dave"), "dave"));
+            throw new IllegalStateException("rollback");
+        })).hasMessage("rollback");
+
+        assertThat(outboxService.countPending()).isZero();
+        assertThat(outboxRelay.relayPending()).isZero();
+        assertThat(broker.messages()).isEmpty();
+    }
+}
@@ -0,0 +1,62 @@
+package com.acabra.expenseshare.service.security;
+
+import com.acabra.expenseshare.model.UserAccess;
+import com.acabra.expenseshare.repository.UserAccessRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class CachingUserDetailsServiceTests {
+
+    @Autowired
+    private CachingUserDetailsService cachingUserDetailsService;
+
+    @Autowired
+    private UserAccessRepository userAccessRepository;
+
+    @Test
+    void servesRepeatedLookupsFromCacheUntilTheRowChanges() {
+        cachingUserDetailsService.invalidateAll();
+        long hitsBefore = (long) cachingUserDetailsService.getStats().get("hits");
+
+        cachingUserDetailsService.loadUserByUsername("user");
+        UserDetails cached = cachingUserDetailsService.loadUserByUsername("user");
+        assertThat(cachingUserDetailsService.getStats().get("hits")).isEqualTo(hitsBefore + 1);
+        assertThat(cached.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+
+        UserAccess user = userAccessRepository.findByUsername("user").orElseThrow();
+        String roles = user.getRoles();
+        user.setRoles("USER,AUDITOR");
+        userAccessRepository.save(user);
+        try {
+            assertThat(cachingUserDetailsService.loadUserByUsername("user").getAuthorities())
+                    .extracting("authority").containsExactlyInAnyOrder("ROLE_USER", "ROLE_AUDITOR");
+        } finally {
+            user.setRoles(roles);
+            userAccessRepository.save(user);
+        }
+    }
+
+    @Test
+    void renamingAUserEvictsTheEntryCachedUnderTheOldName() {
+        userAccessRepository.save(new UserAccess("heidi", "{noop}secret", "USER"));
+        UserAccess user = userAccessRepository.findByUsername("heidi").orElseThrow();
+        try {
+            cachingUserDetailsService.loadUserByUsername("heidi");
+            user.setUsername("heidi2");
+            userAccessRepository.save(user);
+
+            assertThatThrownBy(() -> cachingUserDetailsService.loadUserByUsername("heidi"))
+                    .isInstanceOf(UsernameNotFoundException.class);
+            assertThat(cachingUserDetailsService.loadUserByUsername("heidi2").getUsername()).isEqualTo("heidi2");
+        } finally {
+            userAccessRepository.delete(user);
+        }
+    }
+}
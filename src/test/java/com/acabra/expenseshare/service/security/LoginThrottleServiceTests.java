@@ -0,0 +1,56 @@
+package com.acabra.expenseshare.service.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginThrottleServiceTests {
+
+    @Test
+    void concurrentAttemptsCannotAllPassTheCheckBeforeAnyFailureIsRecorded() throws Exception {
+        LoginThrottleService throttle = new LoginThrottleService(5, 100, Duration.ofMinutes(15), 100, Clock.systemUTC());
+        int attempts = 20;
+        CyclicBarrier start = new CyclicBarrier(attempts);
+        List<CompletableFuture<Duration>> results = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            String ip = "10.0.0." + i;
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return throttle.checkAttempt("frank", ip);
+            }));
+        }
+
+        long allowed = 0;
+        for (CompletableFuture<Duration> result : results) {
+            if (result.get() == null) {
+                allowed++;
+            }
+        }
+        assertThat(allowed).isEqualTo(5);
+    }
+
+    @Test
+    void releasedAndSuccessfulAttemptsDoNotCountAsFailures() {
+        LoginThrottleService throttle = new LoginThrottleService(2, 100, Duration.ofMinutes(15), 100, Clock.systemUTC());
+
+        assertThat(throttle.checkAttempt("grace", "10.0.1.1")).isNull();
+        throttle.releaseAttempt("grace", "10.0.1.1"); // e.g. the login executor was saturated
+        assertThat(throttle.checkAttempt("grace", "10.0.1.1")).isNull();
+        throttle.recordSuccess("grace", "10.0.1.1");
+        assertThat(throttle.checkAttempt("grace", "10.0.1.1")).isNull(); // Wrong password: stays counted
+        assertThat(throttle.checkAttempt("grace", "10.0.1.1")).isNull();
+
+        assertThat(throttle.checkAttempt("grace", "10.0.1.1")).isNotNull();
+    }
+}
@@ -0,0 +1,72 @@
+package com.acabra.expenseshare.service.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginVerificationServiceTests {
+
+    @Test
+    void rejectsImmediatelyOnceThreadsAndQueueAreBusy() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AuthenticationManager slowManager = authentication -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return authentication;
+        };
+        LoginVerificationService service = new LoginVerificationService(slowManager, 1, 1, Duration.ofSeconds(10));
+        try {
+            CompletableFuture<?> running = CompletableFuture.runAsync(() -> service.authenticate("a", "pw"));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<?> queued = CompletableFuture.runAsync(() -> service.authenticate("b", "pw"));
+            assertThat(waitForQueueDepth(service, 1)).isTrue();
+
+            long before = System.nanoTime();
+            assertThatThrownBy(() -> service.authenticate("c", "pw")).isInstanceOf(RejectedExecutionException.class);
+            assertThat(Duration.ofNanos(System.nanoTime() - before)).isLessThan(Duration.ofSeconds(1));
+
+            release.countDown();
+            running.get(5, TimeUnit.SECONDS);
+            queued.get(5, TimeUnit.SECONDS);
+            assertThat(service.getStats()).containsEntry("rejected", 1L).containsEntry("verifications", 2L);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void rethrowsBadCredentialsOnTheCallingThread() {
+        LoginVerificationService service = new LoginVerificationService(authentication -> {
+            throw new BadCredentialsException("Bad credentials");
+        }, 1, 1, Duration.ofSeconds(10));
+        try {
+            assertThatThrownBy(() -> service.authenticate("a", "wrong")).isInstanceOf(BadCredentialsException.class);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private static boolean waitForQueueDepth(LoginVerificationService service, int depth) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            if ((int) service.getStats().get("queueDepth") == depth) {
+                return true;
+            }
+            Thread.sleep(10);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,68 @@
+package com.acabra.expenseshare.service.settlement;
+
+import com.acabra.expenseshare.model.Settlement;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SettlementSolverTests {
+
+    private final SettlementSolver greedy = new GreedySettlementSolver();
+    private final SettlementSolver exact = new ExactSettlementSolver();
+
+    @Test
+    void exactSolverFindsFewerTransfersThanGreedyWhenZeroSumSubsetsExist() {
+        String[] userIds = {"a", "b", "c", "d", "e", "f"};
+        long[] cents = {-300, -100, 600, 700, -500, -400};
+
+        List<Settlement> greedyPlan = greedy.solve(userIds, cents, "USD");
+        List<Settlement> exactPlan = exact.solve(userIds, cents, "USD");
+
+        assertThat(greedyPlan).hasSize(5);
+        assertThat(exactPlan).hasSize(4);
+        assertSettles(userIds, cents, greedyPlan);
+        assertSettles(userIds, cents, exactPlan);
+    }
+
+    @Test
+    void bothSolversSettleRandomBalances() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int members = 2 + random.nextInt(9);
+            String[] userIds = new String[members];
+            long[] cents = new long[members];
+            long total = 0;
+            for (int i = 0; i < members; i++) {
+                userIds[i] = "user" + i;
+                cents[i] = i == members - 1 ? -total : random.nextInt(2001) - 1000;
+                total += cents[i];
+            }
+
+            List<Settlement> exactPlan = exact.solve(userIds, cents, "USD");
+            List<Settlement> greedyPlan = greedy.solve(userIds, cents, "USD");
+
+            assertSettles(userIds, cents, exactPlan);
+            assertSettles(userIds, cents, greedyPlan);
+            assertThat(exactPlan.size()).isLessThanOrEqualTo(greedyPlan.size());
+        }
+    }
+
+    private static void assertSettles(String[] userIds, long[] cents, List<Settlement> plan) {
+        Map<String, Long> remaining = new HashMap<>();
+        for (int i = 0; i < userIds.length; i++) {
+            remaining.merge(userIds[i], cents[i], Long::sum);
+        }
+        for (Settlement settlement : plan) {
+            long transfer = settlement.getAmountMinor();
+            assertThat(transfer).isPositive();
+            remaining.merge(settlement.getFrom(), transfer, Long::sum);
+            remaining.merge(settlement.getTo(), -transfer, Long::sum);
+        }
+        assertThat(remaining.values()).allMatch(value -> value == 0L);
+    }
+}
@@ -0,0 +1,65 @@
+package com.acabra.expenseshare.service.split;
+
+import com.acabra.expenseshare.model.SplitRequest;
+import com.acabra.expenseshare.model.SplitStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SplitServiceTests {
+
+    private final SplitService splitService = new SplitService();
+
+    @Test
+    void everyStrategySplitsToTheCent() {
+        assertThat(splitService.split(SplitStrategy.EQUAL, 1000, new long[3])).containsExactly(334, 333, 333);
+        assertThat(splitService.split(SplitStrategy.EQUAL, -1001, new long[3])).containsExactly(-334, -334, -333);
+        assertThat(splitService.split(SplitStrategy.PERCENTAGE, 5000, new long[]{3333, 6667}))
+                .containsExactly(1667, 3333);
+        assertThat(splitService.split(SplitStrategy.SHARES, 9000, new long[]{2, 1, 0})).containsExactly(6000, 3000, 0);
+        assertThat(splitService.split(SplitStrategy.EXACT, 1000, new long[]{400, 600})).containsExactly(400, 600);
+
+        assertThatThrownBy(() -> splitService.split(SplitStrategy.PERCENTAGE, 5000, new long[]{5000, 4999}))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("Weights add up to 99.99, not 100.00");
+        assertThatThrownBy(() -> splitService.split(SplitStrategy.EXACT, 1000, new long[]{400, 500}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> splitService.split(SplitStrategy.SHARES, 1000, new long[0]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void bulkSplitsMatchSingleSplitsAndNameTheFirstInvalidRequest() {
+        Random random = new Random(22);
+        List<SplitRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Map<String, BigDecimal> weights = new LinkedHashMap<>();
+            int members = 1 + random.nextInt(i % 2 == 0 ? 5 : 300); // Small and large requests interleaved
+            for (int m = 0; m < members; m++) {
+                weights.put("user-" + m, BigDecimal.valueOf(1 + random.nextInt(5)));
+            }
+            requests.add(new SplitRequest("EUR", BigDecimal.valueOf(random.nextInt(1_000_000), 2),
+                    i % 3 == 0 ? SplitStrategy.EQUAL : SplitStrategy.SHARES, weights));
+        }
+
+        List<Map<String, BigDecimal>> owedBys = splitService.splitAll(requests);
+
+        for (int i = 0; i < requests.size(); i++) {
+            assertThat(owedBys.get(i)).isEqualTo(splitService.split(requests.get(i)));
+            assertThat(owedBys.get(i).keySet()).containsExactlyElementsOf(requests.get(i).getWeights().keySet());
+            assertThat(owedBys.get(i).values().stream().reduce(BigDecimal.ZERO, BigDecimal::add))
+                    .isEqualByComparingTo(requests.get(i).getAmount());
+        }
+
+        requests.set(7, new SplitRequest("EUR", new BigDecimal("1.001"), SplitStrategy.EQUAL, Map.of("bob", BigDecimal.ONE)));
+        assertThatThrownBy(() -> splitService.splitAll(requests))
+                .isInstanceOf(IllegalArgumentException.class).hasMessage("[7] Invalid EUR amount: 1.001");
+    }
+}
@@ -0,0 +1,65 @@
+package com.acabra.expenseshare.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTests {
+
+    @Test
+    void decimalsConvertExactlyUsingTheCurrencyScale() {
+        assertThat(Money.toMinor(new BigDecimal("12.34"), "USD")).isEqualTo(1234);
+        assertThat(Money.toMinor(new BigDecimal("12.3"), "EUR")).isEqualTo(1230);
+        assertThat(Money.toMinor(new BigDecimal("1234"), "JPY")).isEqualTo(1234);
+        assertThat(Money.toMinor(new BigDecimal("1.234"), "KWD")).isEqualTo(1234);
+        assertThat(Money.toDecimal(1234, "USD")).isEqualByComparingTo("12.34");
+        assertThat(Money.toDecimal(-5, "USD").toPlainString()).isEqualTo("-0.05");
+
+        assertThatThrownBy(() -> Money.toMinor(new BigDecimal("12.345"), "USD"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.toMinor(new BigDecimal("1.5"), "JPY"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.checkCurrency("XYZ")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void splitHandsLeftoverUnitsToTheLargestRemainders() {
+        assertThat(Money.split(1000, new long[]{1, 1, 1})).containsExactly(334, 333, 333);
+        assertThat(Money.split(100, new long[]{3333, 3333, 3334})).containsExactly(33, 33, 34);
+        assertThat(Money.split(1001, new long[]{1, 2, 2})).containsExactly(200, 401, 400);
+        assertThat(Money.split(-1000, new long[]{1, 1, 1})).containsExactly(-334, -333, -333);
+        assertThat(Money.split(5, new long[]{0, 1, 0})).containsExactly(0, 5, 0);
+        assertThat(Money.split(Long.MAX_VALUE / 2, new long[]{Long.MAX_VALUE / 4, Long.MAX_VALUE / 4}))
+                .containsExactly(Long.MAX_VALUE / 4 + 1, Long.MAX_VALUE / 4);
+
+        assertThatThrownBy(() -> Money.split(100, new long[]{0, 0})).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.split(100, new long[]{2, -1})).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void splitPartsAlwaysSumToTheTotal() {
+        Random random = new Random(21);
+        for (int round = 0; round < 500; round++) {
+            long[] weights = new long[1 + random.nextInt(50)];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = random.nextInt(10_000);
+            }
+            weights[0]++;
+            long total = random.nextLong(-1_000_000, 1_000_000);
+
+            long[] parts = Money.split(total, weights);
+
+            assertThat(Arrays.stream(parts).sum()).isEqualTo(total);
+            long weightSum = Arrays.stream(weights).sum();
+            for (int i = 0; i < parts.length; i++) {
+                double exact = (double) total * weights[i] / weightSum;
+                assertThat(Math.abs(parts[i] - exact)).isLessThan(1.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.acabra.expenseshare.util.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTests {
+
+    private static final String SECRET = "lDoPR7/aBCQF4B1qCMsWmk8OBaAukhlUBGa+LkT2pOs=";
+
+    private final UserDetails admin = User.withUsername("admin").password("x").roles("ADMIN", "USER").build();
+
+    @Test
+    void parseTokenVerifiesOnceAndServesRepeatsFromCache() {
+        JwtUtil jwtUtil = jwtUtil(60_000);
+        String token = jwtUtil.generateToken(admin);
+
+        ParsedToken first = jwtUtil.parseToken(token);
+        ParsedToken second = jwtUtil.parseToken(token);
+
+        assertThat(first.getUsername()).isEqualTo("admin");
+        assertThat(first.getRoles()).containsExactlyInAnyOrder("ADMIN", "USER");
+        assertThat(second).isSameAs(first);
+        assertThat(jwtUtil.validateToken(first, admin)).isTrue();
+    }
+
+    @Test
+    void fullCacheEvictsTheOldestTokensAndKeepsCachingNewOnes() {
+        JwtUtil jwtUtil = jwtUtil(60_000);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxEntries", 2);
+        String first = jwtUtil.generateToken(user("first"));
+        String second = jwtUtil.generateToken(user("second"));
+        String third = jwtUtil.generateToken(user("third"));
+
+        ParsedToken firstParsed = jwtUtil.parseToken(first);
+        ParsedToken secondParsed = jwtUtil.parseToken(second);
+        ParsedToken thirdParsed = jwtUtil.parseToken(third);
+
+        assertThat(jwtUtil.parseToken(third)).isSameAs(thirdParsed); // Cached although the cache was full
+        assertThat(jwtUtil.parseToken(second)).isSameAs(secondParsed);
+        assertThat(jwtUtil.parseToken(first)).isNotSameAs(firstParsed); // Evicted, so verified again
+    }
+
+    @Test
+    void parseTokenRejectsTamperedAndExpiredTokens() {
+        JwtUtil jwtUtil = jwtUtil(60_000);
+        String token = jwtUtil.generateToken(admin);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwtUtil.parseToken(tampered)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtUtil(-1_000).parseToken(jwtUtil(-1_000).generateToken(admin)))
+                .isInstanceOf(ExpiredJwtException.class);
+    }
+
+    private static UserDetails user(String username) {
+        return User.withUsername(username).password("x").roles("USER").build();
+    }
+
+    private static JwtUtil jwtUtil(long expiration) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", expiration);
+        ReflectionTestUtils.setField(jwtUtil, "cacheMaxEntries", 100);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}